@@ -21,6 +21,8 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -168,7 +170,13 @@ public class MapperMethod {
   }
 
   private <E> Object convertToDeclaredCollection(Configuration config, List<E> list) {
-    Object collection = config.getObjectFactory().create(method.getReturnType());
+    ObjectFactory objectFactory = config.getObjectFactory();
+    Object collection;
+    if (objectFactory instanceof DefaultObjectFactory) {
+      collection = ((DefaultObjectFactory) objectFactory).create(method.getReturnType(), list.size());
+    } else {
+      collection = objectFactory.create(method.getReturnType());
+    }
     MetaObject metaObject = config.newMetaObject(collection);
     metaObject.addAll(list);
     return collection;
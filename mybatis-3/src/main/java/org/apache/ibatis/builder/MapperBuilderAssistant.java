@@ -45,6 +45,7 @@ import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -143,17 +144,20 @@ public class MapperBuilderAssistant extends BaseBuilder {
       boolean blocking,
       Properties props) {
     //创建Cache对象，建造者模式
-    Cache cache = new CacheBuilder(currentNamespace)
+    CacheBuilder cacheBuilder = new CacheBuilder(currentNamespace)
         .implementation(valueOrDefault(typeClass, PerpetualCache.class))
         .addDecorator(valueOrDefault(evictionClass, LruCache.class))
         .clearInterval(flushInterval)
         .size(size)
         .readWrite(readWrite)
         .blocking(blocking)
-        .properties(props)
-        .build();
+        .properties(props);
+    Cache cache = cacheBuilder.build();
     //维护Configuration的二级缓存列表
     configuration.addCache(cache);
+    if (cacheBuilder.isRefreshAheadEnabled()) {
+      configuration.addRefreshAheadCache(cache.getId());
+    }
     currentCache = cache;
     return cache;
   }
@@ -290,6 +294,14 @@ public class MapperBuilderAssistant extends BaseBuilder {
 
     id = applyCurrentNamespace(id, false);
     boolean isSelect = sqlCommandType == SqlCommandType.SELECT;
+    //分段查询只是依次拼接各段的结果，排序、去重、分组和聚合的结果都会不正确
+    if (isSelect && sqlSource instanceof DynamicSqlSource) {
+      String clause = ((DynamicSqlSource) sqlSource).getUnchunkableClause();
+      if (clause != null) {
+        throw new BuilderException("The select statement '" + id + "' cannot use chunkSize because it contains "
+            + clause + ", whose result is wrong when the results of the chunks are concatenated.");
+      }
+    }
 
     //借助MappedStatement的内部类Builder，构建MappedStatement对象
     MappedStatement.Builder statementBuilder = new MappedStatement.Builder(configuration, id, sqlSource, sqlCommandType)
@@ -46,9 +46,39 @@ public class SqlSourceBuilder extends BaseBuilder {
     return new StaticSqlSource(configuration, sql, handler.getParameterMappings());
   }
 
+  /**
+   * Same as {@link #parse(String, Class, Map)} but returns a template that records how each property was resolved,
+   * so it can be cached and reused for calls that generate the same SQL text.
+   */
+  public SqlSourceTemplate parseTemplate(String originalSql, Class<?> parameterType, Map<String, Object> additionalParameters) {
+    ParameterMappingTokenHandler handler = new ParameterMappingTokenHandler(configuration, parameterType, additionalParameters);
+    GenericTokenParser parser = new GenericTokenParser("#{", "}", handler);
+    String sql = parser.parse(originalSql);
+    return newTemplate(sql, handler);
+  }
+
+  /**
+   * Same as {@link #parseTemplate(String, Class, Map)} for a SQL text whose <code>#{}</code> placeholders were already
+   * replaced by <code>?</code>, given the contents of the placeholders in the order they appear.
+   */
+  public SqlSourceTemplate parseTemplate(String sql, List<String> placeholders, Class<?> parameterType, Map<String, Object> additionalParameters) {
+    ParameterMappingTokenHandler handler = new ParameterMappingTokenHandler(configuration, parameterType, additionalParameters);
+    for (String content : placeholders) {
+      handler.handleToken(content);
+    }
+    return newTemplate(sql, handler);
+  }
+
+  private SqlSourceTemplate newTemplate(String sql, ParameterMappingTokenHandler handler) {
+    List<Class<?>> additionalParameterTypes = handler.getAdditionalParameterTypes();
+    return new SqlSourceTemplate(configuration, sql, handler.getParameterMappings(),
+        additionalParameterTypes.toArray(new Class<?>[additionalParameterTypes.size()]));
+  }
+
   private static class ParameterMappingTokenHandler extends BaseBuilder implements TokenHandler {
 
     private List<ParameterMapping> parameterMappings = new ArrayList<ParameterMapping>();
+    private List<Class<?>> additionalParameterTypes = new ArrayList<Class<?>>();
     private Class<?> parameterType;
     private MetaObject metaParameters;
 
@@ -62,6 +92,10 @@ public class SqlSourceBuilder extends BaseBuilder {
       return parameterMappings;
     }
 
+    public List<Class<?>> getAdditionalParameterTypes() {
+      return additionalParameterTypes;
+    }
+
     @Override
     public String handleToken(String content) {
       parameterMappings.add(buildParameterMapping(content));
@@ -72,8 +106,10 @@ public class SqlSourceBuilder extends BaseBuilder {
       Map<String, String> propertiesMap = parseParameterMapping(content);
       String property = propertiesMap.get("property");
       Class<?> propertyType;
+      Class<?> additionalParameterType = null;
       if (metaParameters.hasGetter(property)) { // issue #448 get type from additional params
         propertyType = metaParameters.getGetterType(property);
+        additionalParameterType = propertyType;
       } else if (typeHandlerRegistry.hasTypeHandler(parameterType)) {
         propertyType = parameterType;
       } else if (JdbcType.CURSOR.name().equals(propertiesMap.get("jdbcType"))) {
@@ -88,6 +124,7 @@ public class SqlSourceBuilder extends BaseBuilder {
       } else {
         propertyType = Object.class;
       }
+      additionalParameterTypes.add(additionalParameterType);
       ParameterMapping.Builder builder = new ParameterMapping.Builder(configuration, property, propertyType);
       Class<?> javaType = propertyType;
       String typeHandlerAlias = null;
@@ -0,0 +1,65 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.util.List;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * A {@link StaticSqlSource} produced by parsing the <code>#{}</code> placeholders of a generated SQL text,
+ * kept so that later calls producing the same text can skip the parsing.
+ * <p>
+ * Parameter mappings may take their java type from the additional parameters (the dynamic context
+ * bindings such as <code>&lt;foreach&gt;</code> items or <code>&lt;bind&gt;</code> variables), whose values
+ * change from call to call. The template remembers how each property was resolved and
+ * {@link #matches(MetaObject)} must be checked before reusing it.
+ *
+ * @see SqlSourceBuilder#parseTemplate(String, Class, java.util.Map)
+ */
+public class SqlSourceTemplate extends StaticSqlSource {
+
+  private final List<ParameterMapping> parameterMappings;
+  //每个参数映射从additionalParameters中解析出的类型，null表示该属性不是从additionalParameters中解析的
+  private final Class<?>[] additionalParameterTypes;
+
+  SqlSourceTemplate(Configuration configuration, String sql, List<ParameterMapping> parameterMappings, Class<?>[] additionalParameterTypes) {
+    super(configuration, sql, parameterMappings);
+    this.parameterMappings = parameterMappings;
+    this.additionalParameterTypes = additionalParameterTypes;
+  }
+
+  /**
+   * Checks that the properties resolve the same way against the given additional parameters as they did
+   * when this template was parsed.
+   */
+  public boolean matches(MetaObject metaAdditionalParameters) {
+    for (int i = 0; i < additionalParameterTypes.length; i++) {
+      String property = parameterMappings.get(i).getProperty();
+      boolean fromAdditionalParameters = property != null && metaAdditionalParameters.hasGetter(property);
+      if (fromAdditionalParameters != (additionalParameterTypes[i] != null)) {
+        return false;
+      }
+      if (fromAdditionalParameters && !additionalParameterTypes[i].equals(metaAdditionalParameters.getGetterType(property))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,92 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * A least recently used cache of {@link SqlSourceTemplate}s of one statement, keyed by what determines the SQL
+ * (usually its text) and the parameter type. Its capacity is read from
+ * {@link Configuration#getDynamicSqlCacheSize()} on each insertion.
+ */
+public class SqlSourceTemplateCache {
+
+  private final Configuration configuration;
+  private final Map<Key, SqlSourceTemplate> templates;
+
+  public SqlSourceTemplateCache(Configuration configuration) {
+    this.configuration = configuration;
+    this.templates = Collections.synchronizedMap(new LinkedHashMap<Key, SqlSourceTemplate>(16, 0.75f, true) {
+      private static final long serialVersionUID = 2401862939380585548L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, SqlSourceTemplate> eldest) {
+        return size() > SqlSourceTemplateCache.this.configuration.getDynamicSqlCacheSize();
+      }
+    });
+  }
+
+  public boolean isEnabled() {
+    return configuration.getDynamicSqlCacheSize() > 0;
+  }
+
+  public SqlSourceTemplate get(Object sql, Class<?> parameterType) {
+    return templates.get(new Key(sql, parameterType));
+  }
+
+  public void put(Object sql, Class<?> parameterType, SqlSourceTemplate template) {
+    templates.put(new Key(sql, parameterType), template);
+  }
+
+  public void clear() {
+    templates.clear();
+  }
+
+  private static final class Key {
+
+    private final Object sql;
+    private final Class<?> parameterType;
+    private final int hashCode;
+
+    Key(Object sql, Class<?> parameterType) {
+      this.sql = sql;
+      this.parameterType = parameterType;
+      this.hashCode = 31 * sql.hashCode() + parameterType.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return hashCode == other.hashCode && parameterType.equals(other.parameterType) && sql.equals(other.sql);
+    }
+  }
+
+}
@@ -16,15 +16,25 @@
 package org.apache.ibatis.builder.annotation;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.builder.SqlSourceTemplate;
+import org.apache.ibatis.builder.SqlSourceTemplateCache;
+import org.apache.ibatis.jdbc.AbstractSQL;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.session.Configuration;
 
 /**
+ * Runs the provider method on every call. The <code>#{}</code> parse of the returned SQL is cached by text and
+ * parameter type, which only pays off for providers that return a few distinct texts. Once a provider has produced
+ * more distinct texts than the cache holds (for example because it inlines parameter values), its SQL is parsed on
+ * every call and no longer cached.
+ *
  * @author Clinton Begin
  */
 public class ProviderSqlSource implements SqlSource {
@@ -33,20 +43,31 @@ public class ProviderSqlSource implements SqlSource {
   private Class<?> providerType;
   private Method providerMethod;
   private boolean providerTakesParameterObject;
+  //静态的provider方法不需要每次创建provider实例
+  private boolean providerMethodStatic;
+  private Configuration configuration;
+  //已解析过#{}占位符的SQL模板，按provider返回的SQL文本和参数类型缓存
+  private SqlSourceTemplateCache templates;
+  //未命中缓存的解析次数，超过缓存容量说明provider的SQL文本每次都不同，之后不再缓存
+  private final AtomicInteger parseCount = new AtomicInteger();
+  private volatile boolean textVaries;
 
   public ProviderSqlSource(Configuration config, Object provider) {
     String providerMethodName = null;
     try {
+      this.configuration = config;
       this.sqlSourceParser = new SqlSourceBuilder(config);
+      this.templates = new SqlSourceTemplateCache(config);
       this.providerType = (Class<?>) provider.getClass().getMethod("type").invoke(provider);
       providerMethodName = (String) provider.getClass().getMethod("method").invoke(provider);
 
       for (Method m : this.providerType.getMethods()) {
         if (providerMethodName.equals(m.getName())) {
           if (m.getParameterTypes().length < 2
-              && m.getReturnType() == String.class) {
+              && (m.getReturnType() == String.class || AbstractSQL.class.isAssignableFrom(m.getReturnType()))) {
             this.providerMethod = m;
             this.providerTakesParameterObject = m.getParameterTypes().length == 1;
+            this.providerMethodStatic = Modifier.isStatic(m.getModifiers());
           }
         }
       }
@@ -67,14 +88,31 @@ public class ProviderSqlSource implements SqlSource {
 
   private SqlSource createSqlSource(Object parameterObject) {
     try {
-      String sql;
+      Object provider = providerMethodStatic ? null : providerType.newInstance();
+      Object result;
       if (providerTakesParameterObject) {
-        sql = (String) providerMethod.invoke(providerType.newInstance(), parameterObject);
+        result = providerMethod.invoke(provider, parameterObject);
       } else {
-        sql = (String) providerMethod.invoke(providerType.newInstance());
+        result = providerMethod.invoke(provider);
       }
+      // provider方法也可以直接返回SQL构建器
+      String sql = result instanceof AbstractSQL ? result.toString() : (String) result;
       Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-      return sqlSourceParser.parse(sql, parameterType, new HashMap<String, Object>());
+      if (sql == null || textVaries || !templates.isEnabled()) {
+        return sqlSourceParser.parse(sql, parameterType, new HashMap<String, Object>());
+      }
+      //provider生成的SQL没有附加参数，相同的SQL文本和参数类型总是得到相同的解析结果
+      SqlSourceTemplate template = templates.get(sql, parameterType);
+      if (template == null) {
+        template = sqlSourceParser.parseTemplate(sql, parameterType, new HashMap<String, Object>());
+        if (parseCount.incrementAndGet() > configuration.getDynamicSqlCacheSize()) {
+          textVaries = true;
+          templates.clear();
+        } else {
+          templates.put(sql, parameterType, template);
+        }
+      }
+      return template;
     } catch (Exception e) {
       throw new BuilderException("Error invoking SqlProvider method ("
           + providerType.getName() + "." + providerMethod.getName()
@@ -24,6 +24,8 @@ import javax.sql.DataSource;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.coherence.BatchingCacheEventTransport;
+import org.apache.ibatis.cache.coherence.CacheEventTransport;
 import org.apache.ibatis.datasource.DataSourceFactory;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
@@ -125,6 +127,8 @@ public class XMLConfigBuilder extends BaseBuilder {
       //解析 reflectionFactory 节点
       reflectionFactoryElement(root.evalNode("reflectionFactory"));
       settingsElement(settings);
+      //解析 cacheEventTransport 节点
+      cacheEventTransportElement(root.evalNode("cacheEventTransport"));
       //解析 environments 节点
       // read it after objectFactory and objectWrapperFactory issue #631
       environmentsElement(root.evalNode("environments"));
@@ -234,6 +238,23 @@ public class XMLConfigBuilder extends BaseBuilder {
     }
   }
 
+  private void cacheEventTransportElement(XNode context) throws Exception {
+    if (context != null) {
+      String type = context.getStringAttribute("type");
+      Integer batchSize = context.getIntAttribute("batchSize");
+      Long flushInterval = context.getLongAttribute("flushInterval");
+      Properties properties = context.getChildrenAsProperties();
+      CacheEventTransport transport = (CacheEventTransport) resolveClass(type).newInstance();
+      transport.setProperties(properties);
+      if (batchSize != null || flushInterval != null) {
+        transport = new BatchingCacheEventTransport(transport,
+            batchSize == null ? BatchingCacheEventTransport.DEFAULT_BATCH_SIZE : batchSize,
+            flushInterval == null ? BatchingCacheEventTransport.DEFAULT_FLUSH_INTERVAL : flushInterval);
+      }
+      configuration.setCacheEventTransport(transport);
+    }
+  }
+
   //属性解析propertiesElement
   private void propertiesElement(XNode context) throws Exception {
     if (context != null) {
@@ -273,6 +294,12 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
     configuration.setLocalCacheScope(LocalCacheScope.valueOf(props.getProperty("localCacheScope", "SESSION")));
+    configuration.setLocalCacheMaxEntries(integerValueOf(props.getProperty("localCacheMaxEntries"), 0));
+    configuration.setLocalCacheMaxRows(integerValueOf(props.getProperty("localCacheMaxRows"), 0));
+    configuration.setDynamicSqlCacheSize(integerValueOf(props.getProperty("dynamicSqlCacheSize"), 32));
+    configuration.setInListPaddingEnabled(booleanValueOf(props.getProperty("inListPaddingEnabled"), false));
+    configuration.setReflectorWarmUpThreads(integerValueOf(props.getProperty("reflectorWarmUpThreads"), 0));
+    configuration.setFreezeTypeHandlerRegistry(booleanValueOf(props.getProperty("freezeTypeHandlerRegistry"), false));
     configuration.setJdbcTypeForNull(JdbcType.valueOf(props.getProperty("jdbcTypeForNull", "OTHER")));
     configuration.setLazyLoadTriggerMethods(stringSetValueOf(props.getProperty("lazyLoadTriggerMethods"), "equals,clone,hashCode,toString"));
     configuration.setSafeResultHandlerEnabled(booleanValueOf(props.getProperty("safeResultHandlerEnabled"), true));
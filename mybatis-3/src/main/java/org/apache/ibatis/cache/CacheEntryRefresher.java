@@ -0,0 +1,33 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Knows how to reload the value bound to a key and put it back in its cache.
+ * Used by refresh-ahead caches (see {@link org.apache.ibatis.cache.decorators.ScheduledCache})
+ * to renew hot entries before they expire.
+ */
+public interface CacheEntryRefresher {
+
+  /**
+   * Called from a background thread.
+   *
+   * @param key The key of the entry to be refreshed
+   * @throws Exception if the value could not be reloaded, the current entry is kept until it expires
+   */
+  void refresh(Object key) throws Exception;
+
+}
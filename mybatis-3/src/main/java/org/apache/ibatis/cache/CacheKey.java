@@ -17,34 +17,39 @@ package org.apache.ibatis.cache;
 
 import java.io.Serializable;
 import java.lang.reflect.Array;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
+ * Keys are compared on a 64-bit hash computed as the key is updated, 
+ * the values are only compared one by one when the hashes match.
+ * 
  * @author Clinton Begin
  */
 //缓存的Key，实现了Cloneable方法，使用深拷贝模式
 public class CacheKey implements Cloneable, Serializable {
 
-  private static final long serialVersionUID = 1146682552656046210L;
+  private static final long serialVersionUID = -1975476347713596376L;
 
   public static final CacheKey NULL_CACHE_KEY = new NullCacheKey();
 
-  private static final int DEFAULT_MULTIPLYER = 37;
-  private static final int DEFAULT_HASHCODE = 17;
+  private static final long SEED = 0x9E3779B97F4A7C15L;
+  private static final long C1 = 0x87C37B91114253D5L;
+  private static final long C2 = 0x4CF5AD432745937FL;
+  private static final int DEFAULT_CAPACITY = 8;
 
-  private int multiplier;
   private int hashcode;
-  private long checksum;
+  private long hash;
   private int count;
-  //更新列表
-  private List<Object> updateList;
+  //更新列表，平铺的数组，避免ArrayList的开销
+  private Object[] values;
+  // not part of the key, tells refresh-ahead caches how to reload the entry
+  private transient CacheEntryRefresher refresher;
 
   public CacheKey() {
-    this.hashcode = DEFAULT_HASHCODE;
-    this.multiplier = DEFAULT_MULTIPLYER;
+    this.hash = SEED;
+    this.hashcode = finalHash(hash, 0);
     this.count = 0;
-    this.updateList = new ArrayList<Object>();
+    this.values = new Object[DEFAULT_CAPACITY];
   }
 
   public CacheKey(Object[] objects) {
@@ -53,7 +58,7 @@ public class CacheKey implements Cloneable, Serializable {
   }
 
   public int getUpdateCount() {
-    return updateList.size();
+    return count;
   }
 
   //更新
@@ -74,17 +79,37 @@ public class CacheKey implements Cloneable, Serializable {
   }
 
   private void doUpdate(Object object) {
-    //计算 局部变量baseHashCode
     //若 object ==null baseHashCode=1,否则baseHashCode = 对象的hashCode
     int baseHashCode = object == null ? 1 : object.hashCode();
 
-    count++;
-    checksum += baseHashCode;
-    baseHashCode *= count;
+    // one round of murmur3 (x64) per value, the order of the values is part of the hash
+    long k = baseHashCode * C1;
+    k = Long.rotateLeft(k, 31) * C2;
+    hash = Long.rotateLeft(hash ^ k, 27) * 5 + 0x52DCE729;
 
-    hashcode = multiplier * hashcode + baseHashCode;
+    if (count == values.length) {
+      values = Arrays.copyOf(values, count << 1);
+    }
+    values[count++] = object;
+    hashcode = finalHash(hash, count);
+  }
+
+  private static int finalHash(long hash, int count) {
+    long h = hash ^ count;
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  public CacheEntryRefresher getRefresher() {
+    return refresher;
+  }
 
-    updateList.add(object);
+  public void setRefresher(CacheEntryRefresher refresher) {
+    this.refresher = refresher;
   }
 
   public void updateAll(Object[] objects) {
@@ -107,16 +132,16 @@ public class CacheKey implements Cloneable, Serializable {
     if (hashcode != cacheKey.hashcode) {
       return false;
     }
-    if (checksum != cacheKey.checksum) {
+    if (hash != cacheKey.hash) {
       return false;
     }
     if (count != cacheKey.count) {
       return false;
     }
 
-    for (int i = 0; i < updateList.size(); i++) {
-      Object thisObject = updateList.get(i);
-      Object thatObject = cacheKey.updateList.get(i);
+    for (int i = 0; i < count; i++) {
+      Object thisObject = values[i];
+      Object thatObject = cacheKey.values[i];
       if (thisObject == null) {
         if (thatObject != null) {
           return false;
@@ -137,9 +162,9 @@ public class CacheKey implements Cloneable, Serializable {
 
   @Override
   public String toString() {
-    StringBuilder returnValue = new StringBuilder().append(hashcode).append(':').append(checksum);
-    for (int i = 0; i < updateList.size(); i++) {
-      returnValue.append(':').append(updateList.get(i));
+    StringBuilder returnValue = new StringBuilder().append(hashcode).append(':').append(hash);
+    for (int i = 0; i < count; i++) {
+      returnValue.append(':').append(values[i]);
     }
 
     return returnValue.toString();
@@ -151,8 +176,8 @@ public class CacheKey implements Cloneable, Serializable {
   public CacheKey clone() throws CloneNotSupportedException {
     //调用父类的clone方法
     CacheKey clonedCacheKey = (CacheKey) super.clone();
-    //将引用属性ypdateList进行深拷贝
-    clonedCacheKey.updateList = new ArrayList<Object>(updateList);
+    //将引用属性values进行深拷贝
+    clonedCacheKey.values = values.clone();
     return clonedCacheKey;
   }
 
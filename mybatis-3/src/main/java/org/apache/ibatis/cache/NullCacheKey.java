@@ -36,4 +36,9 @@ public final class NullCacheKey extends CacheKey {
   public void updateAll(Object[] objects) {
     throw new CacheException("Not allowed to update a NullCacheKey instance.");
   }
+
+  @Override
+  public void setRefresher(CacheEntryRefresher refresher) {
+    throw new CacheException("Not allowed to update a NullCacheKey instance.");
+  }
 }
@@ -15,9 +15,12 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.apache.ibatis.cache.coherence.CacheCoherenceManager;
 import org.apache.ibatis.cache.decorators.TransactionalCache;
 
 /**
@@ -26,6 +29,15 @@ import org.apache.ibatis.cache.decorators.TransactionalCache;
 public class TransactionalCacheManager {
 
   private Map<Cache, TransactionalCache> transactionalCaches = new HashMap<Cache, TransactionalCache>();
+  private final CacheCoherenceManager coherenceManager;
+
+  public TransactionalCacheManager() {
+    this(null);
+  }
+
+  public TransactionalCacheManager(CacheCoherenceManager coherenceManager) {
+    this.coherenceManager = coherenceManager;
+  }
 
   public void clear(Cache cache) {
     getTransactionalCache(cache).clear();
@@ -40,9 +52,20 @@ public class TransactionalCacheManager {
   }
 
   public void commit() {
+    List<String> flushedCacheIds = null;
     for (TransactionalCache txCache : transactionalCaches.values()) {
+      if (coherenceManager != null && txCache.isClearOnCommit()) {
+        if (flushedCacheIds == null) {
+          flushedCacheIds = new ArrayList<String>();
+        }
+        flushedCacheIds.add(txCache.getId());
+      }
       txCache.commit();
     }
+    // peers are notified once, after every local cache has been flushed
+    if (flushedCacheIds != null) {
+      coherenceManager.publishFlush(flushedCacheIds);
+    }
   }
 
   public void rollback() {
@@ -0,0 +1,124 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.coherence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Transport decorator that buffers the published events and hands them to the delegate
+ * in bigger batches, either when the buffer reaches {@code batchSize} events or
+ * every {@code flushInterval} milliseconds, whatever happens first.
+ * 
+ * Trades a bounded staleness window on the peers for fewer messages on the wire.
+ * In XML it is set up through the <code>batchSize</code> and <code>flushInterval</code> attributes
+ * of the <code>cacheEventTransport</code> element, which wrap the configured transport.
+ */
+public class BatchingCacheEventTransport implements CacheEventTransport {
+
+  public static final int DEFAULT_BATCH_SIZE = 100;
+  public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+
+  private static final Log log = LogFactory.getLog(BatchingCacheEventTransport.class);
+
+  private final CacheEventTransport delegate;
+  private final int batchSize;
+  private final ScheduledExecutorService scheduler;
+  private List<CacheEvent> buffer;
+
+  public BatchingCacheEventTransport(CacheEventTransport delegate, int batchSize, long flushInterval) {
+    if (batchSize <= 0 || flushInterval <= 0) {
+      throw new IllegalArgumentException("Batch size and flush interval must be positive");
+    }
+    this.delegate = delegate;
+    this.batchSize = batchSize;
+    this.buffer = new ArrayList<CacheEvent>();
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "mybatis-cache-event-batcher");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    this.scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          flush();
+        } catch (Exception e) {
+          log.warn("Could not deliver cache events. Cause: " + e);
+        }
+      }
+    }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void setProperties(Properties properties) {
+    delegate.setProperties(properties);
+  }
+
+  @Override
+  public void subscribe(CacheEventListener listener) {
+    delegate.subscribe(listener);
+  }
+
+  @Override
+  public void publish(List<CacheEvent> events) {
+    boolean full;
+    synchronized (this) {
+      buffer.addAll(events);
+      full = buffer.size() >= batchSize;
+    }
+    if (full) {
+      flush();
+    }
+  }
+
+  /**
+   * Sends the buffered events right away.
+   */
+  public void flush() {
+    List<CacheEvent> batch;
+    synchronized (this) {
+      if (buffer.isEmpty()) {
+        return;
+      }
+      batch = buffer;
+      buffer = new ArrayList<CacheEvent>();
+    }
+    delegate.publish(batch);
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdown();
+    try {
+      flush();
+    } finally {
+      delegate.close();
+    }
+  }
+
+}
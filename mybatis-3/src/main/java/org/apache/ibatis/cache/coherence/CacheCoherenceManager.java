@@ -0,0 +1,122 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.coherence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Binds a {@link CacheEventTransport} to the caches of a configuration.
+ * 
+ * Local flushes are published (see {@link org.apache.ibatis.cache.TransactionalCacheManager#commit()})
+ * and events coming from other nodes are applied to the caches with the same id.
+ * Single entries can be invalidated on the peers by {@link #publish(List) publishing} {@link CacheEvent#invalidate} events.
+ * Remote events are applied straight to the cache so they are never published back.
+ */
+public class CacheCoherenceManager implements CacheEventListener {
+
+  private static final Log log = LogFactory.getLog(CacheCoherenceManager.class);
+
+  private final String nodeId;
+  private final Configuration configuration;
+  private final CacheEventTransport transport;
+
+  public CacheCoherenceManager(Configuration configuration, CacheEventTransport transport) {
+    this.nodeId = UUID.randomUUID().toString();
+    this.configuration = configuration;
+    this.transport = transport;
+    transport.subscribe(this);
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  public CacheEventTransport getTransport() {
+    return transport;
+  }
+
+  public void publishFlush(Collection<String> cacheIds) {
+    List<CacheEvent> events = new ArrayList<CacheEvent>(cacheIds.size());
+    for (String cacheId : cacheIds) {
+      events.add(CacheEvent.flush(nodeId, cacheId));
+    }
+    publish(events);
+  }
+
+  /**
+   * Publishes the events as a single batch. Duplicates are dropped 
+   * and so are invalidations of caches that are flushed in the same batch.
+   * 
+   * @param events The events
+   */
+  public void publish(List<CacheEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    Set<String> flushed = new HashSet<String>();
+    for (CacheEvent event : events) {
+      if (event.getType() == CacheEvent.Type.FLUSH) {
+        flushed.add(event.getCacheId());
+      }
+    }
+    Set<CacheEvent> batch = new LinkedHashSet<CacheEvent>();
+    for (CacheEvent event : events) {
+      if (event.getType() == CacheEvent.Type.FLUSH || !flushed.contains(event.getCacheId())) {
+        batch.add(event);
+      }
+    }
+    try {
+      transport.publish(new ArrayList<CacheEvent>(batch));
+    } catch (Exception e) {
+      log.warn("Could not publish cache events " + batch + ". Cause: " + e);
+    }
+  }
+
+  @Override
+  public void onEvents(List<CacheEvent> events) {
+    for (CacheEvent event : events) {
+      if (nodeId.equals(event.getNodeId()) || !configuration.hasCache(event.getCacheId())) {
+        continue;
+      }
+      Cache cache = configuration.getCache(event.getCacheId());
+      try {
+        if (event.getType() == CacheEvent.Type.FLUSH) {
+          cache.clear();
+        } else {
+          cache.removeObject(event.getKey());
+        }
+      } catch (Exception e) {
+        log.warn("Could not apply cache event " + event + ". Cause: " + e);
+      }
+    }
+  }
+
+  public void close() {
+    transport.close();
+  }
+
+}
@@ -0,0 +1,105 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.coherence;
+
+import java.io.Serializable;
+
+/**
+ * A change in a 2nd level cache that must be replayed on the other nodes.
+ */
+public class CacheEvent implements Serializable {
+
+  private static final long serialVersionUID = 6406163914328459386L;
+
+  public enum Type {
+    /** The whole cache must be cleared. */
+    FLUSH,
+    /** Only the entry bound to the key must be removed. */
+    INVALIDATE
+  }
+
+  private final Type type;
+  private final String nodeId;
+  private final String cacheId;
+  private final Object key;
+
+  public CacheEvent(Type type, String nodeId, String cacheId, Object key) {
+    if (type == null || nodeId == null || cacheId == null) {
+      throw new IllegalArgumentException("Cache event type, node id and cache id cannot be null");
+    }
+    if (type == Type.INVALIDATE && key == null) {
+      throw new IllegalArgumentException("An invalidation event requires a key");
+    }
+    this.type = type;
+    this.nodeId = nodeId;
+    this.cacheId = cacheId;
+    this.key = key;
+  }
+
+  public static CacheEvent flush(String nodeId, String cacheId) {
+    return new CacheEvent(Type.FLUSH, nodeId, cacheId, null);
+  }
+
+  public static CacheEvent invalidate(String nodeId, String cacheId, Object key) {
+    return new CacheEvent(Type.INVALIDATE, nodeId, cacheId, key);
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  public String getCacheId() {
+    return cacheId;
+  }
+
+  public Object getKey() {
+    return key;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof CacheEvent)) {
+      return false;
+    }
+    CacheEvent other = (CacheEvent) object;
+    return type == other.type
+        && nodeId.equals(other.nodeId)
+        && cacheId.equals(other.cacheId)
+        && (key == null ? other.key == null : key.equals(other.key));
+  }
+
+  @Override
+  public int hashCode() {
+    int result = type.hashCode();
+    result = 31 * result + nodeId.hashCode();
+    result = 31 * result + cacheId.hashCode();
+    result = 31 * result + (key == null ? 0 : key.hashCode());
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return type + " " + cacheId + (key == null ? "" : " " + key) + " from " + nodeId;
+  }
+
+}
@@ -0,0 +1,57 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.coherence;
+
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * SPI used to ship cache events between nodes.
+ * 
+ * Implementations may use any messaging infrastructure (JMS, multicast, a message broker...).
+ * Events are published in batches, one batch per committed session, and must be delivered 
+ * to the listeners of every other node sharing the same channel.
+ * The events and their keys are {@link java.io.Serializable}.
+ */
+public interface CacheEventTransport {
+
+  /**
+   * Receives the properties of the <code>cacheEventTransport</code> element of the configuration,
+   * before {@link #subscribe(CacheEventListener)}.
+   * 
+   * @param properties The properties
+   */
+  void setProperties(Properties properties);
+
+  /**
+   * Registers the listener that will receive the events published by other nodes.
+   * Called once, when the transport is bound to a configuration.
+   * 
+   * @param listener The listener
+   */
+  void subscribe(CacheEventListener listener);
+
+  /**
+   * @param events The events to be delivered to the other nodes.
+   */
+  void publish(List<CacheEvent> events);
+
+  /**
+   * Stops receiving events and releases any resource held by the transport.
+   */
+  void close();
+
+}
@@ -0,0 +1,136 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.coherence;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * In-JVM transport. Every instance joins the channel it is given and synchronously delivers 
+ * the published events to the other members of that channel. There is no default channel,
+ * so only configurations that explicitly share a channel name see each other's events.
+ * 
+ * Members are held weakly and leave the channel on {@link #close()}.
+ * Useful for tests and for several configurations living in the same JVM.
+ */
+public class LoopbackCacheEventTransport implements CacheEventTransport {
+
+  // 弱引用，未关闭的配置被回收后自动离开频道
+  private static final Map<String, List<WeakReference<LoopbackCacheEventTransport>>> channels = new HashMap<String, List<WeakReference<LoopbackCacheEventTransport>>>();
+
+  private String channel;
+  private volatile CacheEventListener listener;
+
+  public LoopbackCacheEventTransport() {
+  }
+
+  public LoopbackCacheEventTransport(String channel) {
+    this.channel = channel;
+  }
+
+  public String getChannel() {
+    return channel;
+  }
+
+  public void setChannel(String channel) {
+    if (listener != null) {
+      throw new IllegalStateException("Cannot change the channel of a subscribed transport");
+    }
+    this.channel = channel;
+  }
+
+  @Override
+  public void setProperties(Properties properties) {
+    String value = properties.getProperty("channel");
+    if (value != null) {
+      setChannel(value);
+    }
+  }
+
+  @Override
+  public void subscribe(CacheEventListener listener) {
+    if (channel == null || channel.length() == 0) {
+      throw new IllegalStateException("A loopback cache event transport needs a channel name");
+    }
+    synchronized (channels) {
+      List<WeakReference<LoopbackCacheEventTransport>> members = channels.get(channel);
+      if (members == null) {
+        members = new ArrayList<WeakReference<LoopbackCacheEventTransport>>();
+        channels.put(channel, members);
+      }
+      this.listener = listener;
+      members.add(new WeakReference<LoopbackCacheEventTransport>(this));
+    }
+  }
+
+  @Override
+  public void publish(List<CacheEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    List<CacheEvent> batch = Collections.unmodifiableList(events);
+    for (LoopbackCacheEventTransport member : members()) {
+      if (member != this) {
+        member.deliver(batch);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    listener = null;
+    members();
+  }
+
+  private void deliver(List<CacheEvent> events) {
+    CacheEventListener current = listener;
+    if (current != null) {
+      current.onEvents(events);
+    }
+  }
+
+  /**
+   * Returns the subscribed members of the channel, dropping the closed and collected ones.
+   */
+  private List<LoopbackCacheEventTransport> members() {
+    List<LoopbackCacheEventTransport> result = new ArrayList<LoopbackCacheEventTransport>();
+    synchronized (channels) {
+      List<WeakReference<LoopbackCacheEventTransport>> members = channels.get(channel);
+      if (members == null) {
+        return result;
+      }
+      for (Iterator<WeakReference<LoopbackCacheEventTransport>> it = members.iterator(); it.hasNext();) {
+        LoopbackCacheEventTransport member = it.next().get();
+        if (member == null || member.listener == null) {
+          it.remove();
+        } else {
+          result.add(member);
+        }
+      }
+      if (members.isEmpty()) {
+        channels.remove(channel);
+      }
+    }
+    return result;
+  }
+
+}
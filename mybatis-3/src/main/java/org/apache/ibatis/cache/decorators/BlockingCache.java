@@ -15,11 +15,12 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
@@ -27,23 +28,34 @@ import org.apache.ibatis.cache.CacheException;
 /**
  * Simple blocking decorator 
  * 
- * Simple and inefficient version of EhCache's BlockingCache decorator.
- * It sets a lock over a cache key when the element is not found in cache.
- * This way, other threads will wait until this element is filled instead of hitting the database.
+ * Single-flight version of EhCache's BlockingCache decorator.
+ * The first thread that misses a key becomes its loader and gets null, so it hits the database.
+ * Other threads missing the same key wait until the loader puts the value (or releases the key 
+ * on rollback) instead of hitting the database too, and then read the value from the cache.
+ * 
+ * Only keys with a load in flight are tracked, so the bookkeeping does not grow with the number of keys.
+ * A waiter that times out just gives up, the load it was waiting for is not affected.
+ * 
+ * With staleWhileRevalidate on, the last value put for a key is kept aside (up to staleSize keys)
+ * and served to the waiters while the key is being reloaded, for example after a flush.
+ * The very same instance is handed to every waiter, so it is only allowed on read-only caches.
  * 
  * @author Eduardo Macarron
  *
  */
-//基于Lock锁的缓存实现
+//基于CountDownLatch的缓存实现，同一个key同一时间只有一个线程去查询数据库
 public class BlockingCache implements Cache {
 
   private long timeout;
+  private boolean staleWhileRevalidate;
+  private volatile int staleSize = 1024;
   private final Cache delegate;
-  private final ConcurrentHashMap<Object, ReentrantLock> locks;
+  private final ConcurrentHashMap<Object, PendingLoad> pendingLoads;
+  private Map<Object, Object> staleValues;
 
   public BlockingCache(Cache delegate) {
     this.delegate = delegate;
-    this.locks = new ConcurrentHashMap<Object, ReentrantLock>();
+    this.pendingLoads = new ConcurrentHashMap<Object, PendingLoad>();
   }
 
   @Override
@@ -60,25 +72,55 @@ public class BlockingCache implements Cache {
   public void putObject(Object key, Object value) {
     try {
       delegate.putObject(key, value);
+      if (staleWhileRevalidate && value != null) {
+        synchronized (staleValues) {
+          staleValues.put(key, value);
+        }
+      }
     } finally {
-      releaseLock(key);
+      releaseLoad(key);
     }
   }
 
   @Override
   public Object getObject(Object key) {
-    acquireLock(key);
-    Object value = delegate.getObject(key);
-    if (value != null) {
-      releaseLock(key);
-    }        
-    return value;
+    while (true) {
+      Object value = delegate.getObject(key);
+      if (value != null) {
+        return value;
+      }
+      PendingLoad load = new PendingLoad();
+      PendingLoad previous = pendingLoads.putIfAbsent(key, load);
+      //没有其他线程在加载该key，当前线程负责查询数据库
+      if (previous == null) {
+        // the previous loader may have finished between the read and the registration
+        value = delegate.getObject(key);
+        if (value != null) {
+          releaseLoad(key);
+        }
+        return value;
+      }
+      if (previous.owner == Thread.currentThread()) {
+        return null;
+      }
+      if (staleWhileRevalidate) {
+        Object stale;
+        synchronized (staleValues) {
+          stale = staleValues.get(key);
+        }
+        if (stale != null) {
+          return stale;
+        }
+      }
+      //等待正在加载的线程完成，然后重新从缓存中读取
+      previous.await(key);
+    }
   }
 
   @Override
   public Object removeObject(Object key) {
     // despite of its name, this method is called only to release locks
-    releaseLock(key);
+    releaseLoad(key);
     return null;
   }
 
@@ -91,37 +133,11 @@ public class BlockingCache implements Cache {
   public ReadWriteLock getReadWriteLock() {
     return null;
   }
-  
-  private ReentrantLock getLockForKey(Object key) {
-    ReentrantLock lock = new ReentrantLock();
-    ReentrantLock previous = locks.putIfAbsent(key, lock);
-    return previous == null ? lock : previous;
-  }
-  
-  private void acquireLock(Object key) {
-    Lock lock = getLockForKey(key);
-    //若timeout大于0，则 使用带超时时间的API上锁
-    if (timeout > 0) {
-      try {
-        boolean acquired = lock.tryLock(timeout, TimeUnit.MILLISECONDS);
-        if (!acquired) {
-          throw new CacheException("Couldn't get a lock in " + timeout + " for the key " +  key + " at the cache " + delegate.getId());  
-        }
-      } catch (InterruptedException e) {
-        throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
-      }
-    }
-    //若timeout小于0，则 直接上锁，会导致当前线程阻塞
-    else {
-      lock.lock();
-    }
-  }
-  
-  private void releaseLock(Object key) {
-    ReentrantLock lock = locks.get(key);
-    //若 锁 被当前线程持有，释放锁
-    if (lock.isHeldByCurrentThread()) {
-      lock.unlock();
+
+  private void releaseLoad(Object key) {
+    PendingLoad load = pendingLoads.remove(key);
+    if (load != null) {
+      load.latch.countDown();
     }
   }
 
@@ -131,5 +147,51 @@ public class BlockingCache implements Cache {
 
   public void setTimeout(long timeout) {
     this.timeout = timeout;
-  }  
+  }
+
+  public boolean isStaleWhileRevalidate() {
+    return staleWhileRevalidate;
+  }
+
+  public void setStaleWhileRevalidate(boolean staleWhileRevalidate) {
+    if (staleWhileRevalidate && staleValues == null) {
+      staleValues = new LinkedHashMap<Object, Object>(16, 0.75f, true) {
+        private static final long serialVersionUID = 2340232716233620421L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+          return size() > staleSize;
+        }
+      };
+    }
+    this.staleWhileRevalidate = staleWhileRevalidate;
+  }
+
+  public int getStaleSize() {
+    return staleSize;
+  }
+
+  public void setStaleSize(int staleSize) {
+    this.staleSize = staleSize;
+  }
+
+  private class PendingLoad {
+    private final Thread owner = Thread.currentThread();
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    private void await(Object key) {
+      try {
+        if (timeout > 0) {
+          if (!latch.await(timeout, TimeUnit.MILLISECONDS)) {
+            throw new CacheException("Couldn't get a lock in " + timeout + " for the key " +  key + " at the cache " + delegate.getId());
+          }
+        } else {
+          latch.await();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+      }
+    }
+  }
 }
\ No newline at end of file
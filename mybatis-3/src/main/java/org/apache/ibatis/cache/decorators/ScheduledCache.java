@@ -15,18 +15,46 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.io.Serializable;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheEntryRefresher;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 
 /**
+ * By default the whole cache is cleared once clearInterval has elapsed.
+ * 
+ * With perEntryExpiry on, every entry lives clearInterval milliseconds minus a random 
+ * jitter (so entries put together do not expire together). With refreshAhead on, an entry 
+ * read during the last refreshAhead milliseconds of its life is reloaded in background 
+ * through the {@link CacheEntryRefresher} attached to the {@link CacheKey} it was put with, 
+ * so hot entries are renewed before they expire.
+ * 
  * @author Clinton Begin
  */
 public class ScheduledCache implements Cache {
 
+  private static final Log log = LogFactory.getLog(ScheduledCache.class);
+
   private Cache delegate;
   protected long clearInterval;
   protected long lastClear;
+  protected boolean perEntryExpiry;
+  protected long jitter;
+  protected long refreshAhead;
+  protected int refreshThreads = 1;
+  private final Random random = new Random();
+  private volatile ThreadPoolExecutor refreshExecutor;
 
   public ScheduledCache(Cache delegate) {
     this.delegate = delegate;
@@ -38,6 +66,30 @@ public class ScheduledCache implements Cache {
     this.clearInterval = clearInterval;
   }
 
+  public void setPerEntryExpiry(boolean perEntryExpiry) {
+    this.perEntryExpiry = perEntryExpiry;
+  }
+
+  public void setJitter(long jitter) {
+    this.jitter = jitter;
+  }
+
+  public void setRefreshAhead(long refreshAhead) {
+    this.refreshAhead = refreshAhead;
+  }
+
+  public void setRefreshThreads(int refreshThreads) {
+    this.refreshThreads = refreshThreads;
+  }
+
+  /**
+   * @return whether entries are reloaded ahead of their expiry, that is, whether the {@link CacheEntryRefresher}
+   *         attached to the keys is ever used
+   */
+  public boolean isRefreshAheadEnabled() {
+    return perEntryExpiry && refreshAhead > 0;
+  }
+
   @Override
   public String getId() {
     return delegate.getId();
@@ -45,23 +97,36 @@ public class ScheduledCache implements Cache {
 
   @Override
   public int getSize() {
-    clearWhenStale();
+    if (!perEntryExpiry) {
+      clearWhenStale();
+    }
     return delegate.getSize();
   }
 
   @Override
   public void putObject(Object key, Object object) {
+    if (perEntryExpiry) {
+      CacheEntryRefresher refresher = key instanceof CacheKey ? ((CacheKey) key).getRefresher() : null;
+      delegate.putObject(key, new ExpiringEntry(object, System.currentTimeMillis() + timeToLive(), refresher));
+      return;
+    }
     clearWhenStale();
     delegate.putObject(key, object);
   }
 
   @Override
   public Object getObject(Object key) {
+    if (perEntryExpiry) {
+      return getEntryValue(key);
+    }
     return clearWhenStale() ? null : delegate.getObject(key);
   }
 
   @Override
   public Object removeObject(Object key) {
+    if (perEntryExpiry) {
+      return valueOf(delegate.removeObject(key));
+    }
     clearWhenStale();
     return delegate.removeObject(key);
   }
@@ -95,4 +160,93 @@ public class ScheduledCache implements Cache {
     return false;
   }
 
+  private long timeToLive() {
+    if (jitter <= 0) {
+      return clearInterval;
+    }
+    return clearInterval - (long) (random.nextDouble() * Math.min(jitter, clearInterval));
+  }
+
+  private Object getEntryValue(Object key) {
+    Object stored = delegate.getObject(key);
+    if (!(stored instanceof ExpiringEntry)) {
+      return stored;
+    }
+    ExpiringEntry entry = (ExpiringEntry) stored;
+    long now = System.currentTimeMillis();
+    if (now >= entry.expiresAt) {
+      delegate.removeObject(key);
+      return null;
+    }
+    if (refreshAhead > 0 && now >= entry.expiresAt - refreshAhead) {
+      scheduleRefresh(key, entry);
+    }
+    return entry.value;
+  }
+
+  private void scheduleRefresh(final Object key, final ExpiringEntry entry) {
+    final CacheEntryRefresher refresher = entry.refresher;
+    if (refresher == null || !entry.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      getRefreshExecutor().execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            refresher.refresh(key);
+          } catch (Exception e) {
+            log.debug("Could not refresh entry " + key + " of cache " + getId() + ". Cause: " + e);
+          } finally {
+            entry.refreshing.set(false);
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // too many refreshes pending, the entry will be reloaded on demand when it expires
+      entry.refreshing.set(false);
+    }
+  }
+
+  private ThreadPoolExecutor getRefreshExecutor() {
+    if (refreshExecutor == null) {
+      synchronized (this) {
+        if (refreshExecutor == null) {
+          final String threadName = "mybatis-cache-refresh-" + getId();
+          ThreadPoolExecutor executor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+              new ArrayBlockingQueue<Runnable>(1000), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                  Thread thread = new Thread(runnable, threadName);
+                  thread.setDaemon(true);
+                  return thread;
+                }
+              });
+          executor.allowCoreThreadTimeOut(true);
+          refreshExecutor = executor;
+        }
+      }
+    }
+    return refreshExecutor;
+  }
+
+  private static Object valueOf(Object stored) {
+    return stored instanceof ExpiringEntry ? ((ExpiringEntry) stored).value : stored;
+  }
+
+  private static class ExpiringEntry implements Serializable {
+    private static final long serialVersionUID = -4380936592478146187L;
+
+    private final Object value;
+    private final long expiresAt;
+    private final transient CacheEntryRefresher refresher;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private ExpiringEntry(Object value, long expiresAt, CacheEntryRefresher refresher) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+      this.refresher = refresher;
+    }
+  }
+
 }
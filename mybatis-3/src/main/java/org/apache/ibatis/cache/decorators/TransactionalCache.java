@@ -98,6 +98,13 @@ public class TransactionalCache implements Cache {
     entriesToAddOnCommit.clear();
   }
 
+  /**
+   * @return true if the delegate will be cleared when the session commits.
+   */
+  public boolean isClearOnCommit() {
+    return clearOnCommit;
+  }
+
   public void commit() {
     if (clearOnCommit) {
       delegate.clear();
@@ -33,6 +33,7 @@ import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
@@ -56,8 +57,8 @@ public abstract class BaseExecutor implements Executor {
   protected Executor wrapper;
 
   protected ConcurrentLinkedQueue<DeferredLoad> deferredLoads;
-  //缓存
-  protected PerpetualCache localCache;
+  //一级缓存，可通过 localCacheMaxEntries/localCacheMaxRows 限制大小
+  protected LocalCache localCache;
   //本地outPut参数缓存，用于CallableStatement的调用
   protected PerpetualCache localOutputParameterCache;
   //环境配置信息
@@ -72,7 +73,9 @@ public abstract class BaseExecutor implements Executor {
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
     this.deferredLoads = new ConcurrentLinkedQueue<DeferredLoad>();
-    this.localCache = new PerpetualCache("LocalCache");
+    //ResultLoaderMap.ClosedExecutor 传入的configuration为null
+    this.localCache = configuration == null ? new LocalCache("LocalCache")
+        : new LocalCache("LocalCache", configuration.getLocalCacheMaxEntries(), configuration.getLocalCacheMaxRows());
     this.localOutputParameterCache = new PerpetualCache("LocalOutputParameterCache");
     this.closed = false;
     this.configuration = configuration;
@@ -140,8 +143,8 @@ public abstract class BaseExecutor implements Executor {
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
     //获取BoundSql
     BoundSql boundSql = ms.getBoundSql(parameter);
-    //根据参数计算对应的一级缓存key
-    CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
+    //根据参数计算对应的一级缓存key，若一级缓存不会被用到则不计算
+    CacheKey key = isLocalCacheRequired(ms) ? createCacheKey(ms, parameter, rowBounds, boundSql) : CacheKey.NULL_CACHE_KEY;
     return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
  }
 
@@ -166,7 +169,7 @@ public abstract class BaseExecutor implements Executor {
     try {
       queryStack++;
       //当resultHandler == null 时，从缓存中查询，若resultHandler不为null,不从缓存中查询
-      list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
+      list = resultHandler == null && key != CacheKey.NULL_CACHE_KEY ? (List<E>) localCache.getObject(key) : null;
       if (list != null) {
         //若缓存中查询到结果，对本地输出参数进行处理（仅在CallableStatement类型下下面方法会有效执行）
         handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
@@ -182,6 +185,7 @@ public abstract class BaseExecutor implements Executor {
       }
       // issue #601
       deferredLoads.clear();
+      localCache.unpinAll();
       if (configuration.getLocalCacheScope() == LocalCacheScope.STATEMENT) {
         // issue #482
         clearLocalCache();
@@ -199,6 +203,8 @@ public abstract class BaseExecutor implements Executor {
     if (deferredLoad.canLoad()) {
       deferredLoad.load();
     } else {
+      //延迟加载执行前，其引用的缓存条目不能被淘汰
+      localCache.pin(key);
       deferredLoads.add(new DeferredLoad(resultObject, property, key, localCache, configuration, targetType));
     }
   }
@@ -222,6 +228,8 @@ public abstract class BaseExecutor implements Executor {
     cacheKey.update(boundSql.getSql());
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
+    boolean simpleParameter = parameterObject != null && typeHandlerRegistry.hasTypeHandler(parameterObject.getClass());
+    MetaObject metaObject = null;
     // mimic DefaultParameterHandler logic
     //模仿默认参数处理器的逻辑
     for (int i = 0; i < parameterMappings.size(); i++) {
@@ -233,10 +241,12 @@ public abstract class BaseExecutor implements Executor {
           value = boundSql.getAdditionalParameter(propertyName);
         } else if (parameterObject == null) {
           value = null;
-        } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+        } else if (simpleParameter) {
           value = parameterObject;
         } else {
-          MetaObject metaObject = configuration.newMetaObject(parameterObject);
+          if (metaObject == null) {
+            metaObject = configuration.newMetaObject(parameterObject);
+          }
           value = metaObject.getValue(propertyName);
         }
         cacheKey.update(value);
@@ -249,9 +259,29 @@ public abstract class BaseExecutor implements Executor {
     return cacheKey;
   }    
 
+  /**
+   * The local cache is useless for a top level query that will not reach the 2nd level cache
+   * when the local cache scope is STATEMENT, unless it has nested queries (they rely on the
+   * local cache to detect circular references) or OUT parameters.
+   */
+  private boolean isLocalCacheRequired(MappedStatement ms) {
+    if (queryStack > 0
+        || configuration.getLocalCacheScope() != LocalCacheScope.STATEMENT
+        || ms.getCache() != null
+        || ms.getStatementType() == StatementType.CALLABLE) {
+      return true;
+    }
+    for (ResultMap resultMap : ms.getResultMaps()) {
+      if (resultMap.hasNestedQueries()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public boolean isCached(MappedStatement ms, CacheKey key) {
-    return localCache.getObject(key) != null;
+    return localCache.peekObject(key) != null;
   }
 
   @Override
@@ -333,6 +363,9 @@ public abstract class BaseExecutor implements Executor {
    * 实际调用JDBC底层代码 从doQuery到{@link SimpleExecutor#prepareStatement}方法中
    */
   private <E> List<E> queryFromDatabase(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
+    if (key == CacheKey.NULL_CACHE_KEY) {
+      return doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+    }
     List<E> list;
     localCache.putObject(key, EXECUTION_PLACEHOLDER);
     try {
@@ -360,6 +393,13 @@ public abstract class BaseExecutor implements Executor {
     }
   }
 
+  /**
+   * Gives access to the first level cache, mainly to read its hit/miss/eviction statistics.
+   */
+  public LocalCache getLocalCache() {
+    return localCache;
+  }
+
   @Override
   public void setExecutorWrapper(Executor wrapper) {
     this.wrapper = wrapper;
@@ -371,7 +411,7 @@ public abstract class BaseExecutor implements Executor {
     private final String property;
     private final Class<?> targetType;
     private final CacheKey key;
-    private final PerpetualCache localCache;
+    private final LocalCache localCache;
     private final ObjectFactory objectFactory;
     private final ResultExtractor resultExtractor;
 
@@ -379,7 +419,7 @@ public abstract class BaseExecutor implements Executor {
     public DeferredLoad(MetaObject resultObject,
                         String property,
                         CacheKey key,
-                        PerpetualCache localCache,
+                        LocalCache localCache,
                         Configuration configuration,
                         Class<?> targetType) {
       this.resultObject = resultObject;
@@ -392,13 +432,14 @@ public abstract class BaseExecutor implements Executor {
     }
 
     public boolean canLoad() {
-      return localCache.getObject(key) != null && localCache.getObject(key) != EXECUTION_PLACEHOLDER;
+      Object value = localCache.peekObject(key);
+      return value != null && value != EXECUTION_PLACEHOLDER;
     }
 
     public void load() {
       @SuppressWarnings( "unchecked" )
       // we suppose we get back a List
-      List<Object> list = (List<Object>) localCache.getObject(key);
+      List<Object> list = (List<Object>) localCache.peekObject(key);
       Object value = resultExtractor.extractObjectFromList(list, targetType);
       resultObject.setValue(property, value);
     }
@@ -21,6 +21,7 @@ import java.util.List;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.coherence.CacheCoherenceManager;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
@@ -39,11 +40,16 @@ public class CachingExecutor implements Executor {
 
   //持有一个Executor类型的对象，先执行二级缓存的逻辑，再执行Exector的逻辑,装饰器模式
   private Executor delegate;
-  private TransactionalCacheManager tcm = new TransactionalCacheManager();
+  private TransactionalCacheManager tcm;
 
   //只有一个有参构造，传入Executor，TransactionlCacheManager从Executor获取
   public CachingExecutor(Executor delegate) {
+    this(delegate, null);
+  }
+
+  public CachingExecutor(Executor delegate, CacheCoherenceManager coherenceManager) {
     this.delegate = delegate;
+    this.tcm = new TransactionalCacheManager(coherenceManager);
     delegate.setExecutorWrapper(this);
   }
 
@@ -80,6 +86,10 @@ public class CachingExecutor implements Executor {
 
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
+    if (ms.getCache() == null) {
+      // let the delegate decide if it needs a key for its local cache
+      return delegate.<E> query(ms, parameterObject, rowBounds, resultHandler);
+    }
     BoundSql boundSql = ms.getBoundSql(parameterObject);
     CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
     return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
@@ -104,6 +114,10 @@ public class CachingExecutor implements Executor {
         if (list == null) {
           //执行装饰的BaseExector的查询逻辑
           list = delegate.<E> query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+          // 只有开启了refreshAhead的缓存才会用到refresher
+          if (key != CacheKey.NULL_CACHE_KEY && ms.getConfiguration().isRefreshAheadCache(cache.getId())) {
+            key.setRefresher(new StatementCacheRefresher(ms, parameterObject, rowBounds));
+          }
           //查询之后将结果放入二级缓存中
           tcm.putObject(cache, key, list); // issue #578 and #116
         }
@@ -0,0 +1,207 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOLDER;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.cache.impl.PerpetualCache;
+
+/**
+ * The first level (session) cache used by {@link BaseExecutor}.
+ * <p>
+ * Unbounded by default, like the plain {@link PerpetualCache} it replaces. When a maximum number of
+ * entries and/or a maximum number of retained rows is set, the least recently used results are evicted
+ * once a bound is exceeded. The retained size is estimated as the number of rows held by the cached
+ * result lists. Entries that are still executing ({@link ExecutionPlaceholder#EXECUTION_PLACEHOLDER})
+ * and entries pinned by pending deferred loads are never evicted, so circular references and nested
+ * result mapping keep working on a bounded cache.
+ * <p>
+ * Like the executor that owns it, this class is not thread safe.
+ */
+public class LocalCache extends PerpetualCache {
+
+  //按访问顺序排列，迭代时最先遇到的是最久未使用的条目
+  private final Map<Object, Object> cache = new LinkedHashMap<Object, Object>(16, 0.75f, true);
+  //被延迟加载引用的key，在延迟加载执行完之前不能被淘汰
+  private final Set<Object> pinnedKeys = new HashSet<Object>();
+
+  private final int maxEntries;
+  private final int maxRows;
+  private int rows;
+
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public LocalCache(String id) {
+    this(id, 0, 0);
+  }
+
+  /**
+   * @param id cache id
+   * @param maxEntries maximum number of cached entries, 0 or less means unbounded
+   * @param maxRows maximum number of rows retained by all cached lists, 0 or less means unbounded
+   */
+  public LocalCache(String id, int maxEntries, int maxRows) {
+    super(id);
+    this.maxEntries = maxEntries;
+    this.maxRows = maxRows;
+  }
+
+  @Override
+  public int getSize() {
+    return cache.size();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    rows += rowsOf(value) - rowsOf(cache.put(key, value));
+    if (isBounded()) {
+      evictIfNeeded(key);
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object value = cache.get(key);
+    if (value == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return value;
+  }
+
+  /**
+   * Looks up an entry without touching the statistics.
+   */
+  public Object peekObject(Object key) {
+    return cache.get(key);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Object value = cache.remove(key);
+    rows -= rowsOf(value);
+    return value;
+  }
+
+  @Override
+  public void clear() {
+    cache.clear();
+    pinnedKeys.clear();
+    rows = 0;
+  }
+
+  /**
+   * Protects an entry from eviction until {@link #unpinAll()} is called.
+   */
+  public void pin(Object key) {
+    if (isBounded()) {
+      pinnedKeys.add(key);
+    }
+  }
+
+  public void unpinAll() {
+    pinnedKeys.clear();
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public int getMaxRows() {
+    return maxRows;
+  }
+
+  /**
+   * Estimated number of rows currently retained by this cache.
+   */
+  public int getRetainedRows() {
+    return rows;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+
+  public double getHitRatio() {
+    long requests = hits + misses;
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  public void resetStatistics() {
+    hits = 0;
+    misses = 0;
+    evictions = 0;
+  }
+
+  private boolean isBounded() {
+    return maxEntries > 0 || maxRows > 0;
+  }
+
+  private boolean isOverBounds() {
+    return (maxEntries > 0 && cache.size() > maxEntries) || (maxRows > 0 && rows > maxRows);
+  }
+
+  //淘汰最久未使用的条目，跳过执行中的占位符、被延迟加载引用的条目以及刚刚放入的条目
+  private void evictIfNeeded(Object newestKey) {
+    Iterator<Map.Entry<Object, Object>> it = cache.entrySet().iterator();
+    while (isOverBounds() && it.hasNext()) {
+      Map.Entry<Object, Object> entry = it.next();
+      Object key = entry.getKey();
+      Object value = entry.getValue();
+      if (value == EXECUTION_PLACEHOLDER || pinnedKeys.contains(key) || key.equals(newestKey)) {
+        continue;
+      }
+      it.remove();
+      rows -= rowsOf(value);
+      evictions++;
+    }
+  }
+
+  private static int rowsOf(Object value) {
+    if (value == null || value == EXECUTION_PLACEHOLDER) {
+      return 0;
+    }
+    if (value instanceof Collection) {
+      return ((Collection<?>) value).size();
+    }
+    return 1;
+  }
+
+  @Override
+  public String toString() {
+    return getId() + " [entries=" + cache.size() + ", rows=" + rows + ", hits=" + hits
+        + ", misses=" + misses + ", evictions=" + evictions + "]";
+  }
+
+}
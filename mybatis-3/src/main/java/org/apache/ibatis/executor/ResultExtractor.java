@@ -16,6 +16,7 @@
 package org.apache.ibatis.executor;
 
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
 
@@ -39,7 +40,11 @@ public class ResultExtractor {
     if (targetType != null && targetType.isAssignableFrom(list.getClass())) {
       value = list;
     } else if (targetType != null && objectFactory.isCollection(targetType)) {
-      value = objectFactory.create(targetType);
+      if (objectFactory instanceof DefaultObjectFactory) {
+        value = ((DefaultObjectFactory) objectFactory).create(targetType, list.size());
+      } else {
+        value = objectFactory.create(targetType);
+      }
       MetaObject metaObject = configuration.newMetaObject(value);
       metaObject.addAll(list);
     } else if (targetType != null && targetType.isArray()) {
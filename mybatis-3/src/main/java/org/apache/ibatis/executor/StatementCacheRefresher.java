@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.List;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheEntryRefresher;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+
+/**
+ * Reloads a 2nd level cache entry by running again the statement that loaded it.
+ * 
+ * The statement runs on its own transaction and bypasses the 2nd level cache, but not the executor plugins.
+ * Nothing is reloaded if the parameter object has been changed since, 
+ * that is, if it does not produce the same key anymore.
+ */
+class StatementCacheRefresher implements CacheEntryRefresher {
+
+  private final MappedStatement ms;
+  private final Object parameterObject;
+  private final RowBounds rowBounds;
+
+  StatementCacheRefresher(MappedStatement ms, Object parameterObject, RowBounds rowBounds) {
+    this.ms = ms;
+    this.parameterObject = parameterObject;
+    this.rowBounds = rowBounds;
+  }
+
+  @Override
+  public void refresh(Object key) throws Exception {
+    Cache cache = ms.getCache();
+    Configuration configuration = ms.getConfiguration();
+    Environment environment = configuration.getEnvironment();
+    if (cache == null || environment == null) {
+      return;
+    }
+    Transaction tx = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, false);
+    // 经过插件包装但不经过二级缓存，与正常查询看到相同的过滤结果
+    Executor executor = configuration.newExecutor(tx, ExecutorType.SIMPLE, false);
+    try {
+      BoundSql boundSql = ms.getBoundSql(parameterObject);
+      CacheKey currentKey = executor.createCacheKey(ms, parameterObject, rowBounds, boundSql);
+      if (!currentKey.equals(key)) {
+        return;
+      }
+      currentKey.setRefresher(this);
+      List<Object> list = executor.query(ms, parameterObject, rowBounds, Executor.NO_RESULT_HANDLER, currentKey, boundSql);
+      cache.putObject(currentKey, list);
+    } finally {
+      executor.close(false);
+    }
+  }
+
+}
@@ -54,6 +54,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
@@ -417,9 +418,20 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             if (propertyMapping.isCompositeResult()
                     || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
                     || propertyMapping.getResultSet() != null) {
-                Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
                 // issue #541 make property optional
                 final String property = propertyMapping.getProperty();
+                final Object value;
+                if (property != null && propertyMapping.getTypeHandler() instanceof PrimitiveTypeHandler
+                        && propertyMapping.getNestedQueryId() == null && propertyMapping.getResultSet() == null) {
+                    if (applyPrimitiveMapping(rsw.getResultSet(), prependPrefix(propertyMapping.getColumn(), columnPrefix),
+                            propertyMapping.getTypeHandler(), metaObject, property)) {
+                        foundValues = true;
+                        continue;
+                    }
+                    value = null;
+                } else {
+                    value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+                }
                 // issue #377, call setter on nulls
                 if (value != DEFERED
                         && property != null
@@ -484,7 +496,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         boolean foundValues = false;
         if (autoMapping.size() > 0) {
             for (UnMappedColumAutoMapping mapping : autoMapping) {
-                final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+                final Object value;
+                if (mapping.typeHandler instanceof PrimitiveTypeHandler) {
+                    if (applyPrimitiveMapping(rsw.getResultSet(), mapping.column, mapping.typeHandler, metaObject, mapping.property)) {
+                        foundValues = true;
+                        continue;
+                    }
+                    value = null;
+                } else {
+                    value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+                }
                 // issue #377, call setter on nulls
                 if (value != null || configuration.isCallSettersOnNulls()) {
                     if (value != null || !mapping.primitive) {
@@ -497,6 +518,41 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         return foundValues;
     }
 
+    /*
+     * Reads an int, long or double column without boxing it and sets the property through MetaObject, which does not
+     * box it either when the setter takes the primitive. Returns false, without setting anything, if the column is
+     * null so the caller applies its null handling.
+     */
+    private boolean applyPrimitiveMapping(ResultSet rs, String column, TypeHandler<?> typeHandler, MetaObject metaObject, String property)
+            throws SQLException {
+        if (typeHandler instanceof PrimitiveTypeHandler.OfInt) {
+            int value = ((PrimitiveTypeHandler.OfInt) typeHandler).getInt(rs, column);
+            if (rs.wasNull()) {
+                return false;
+            }
+            metaObject.setInt(property, value);
+        } else if (typeHandler instanceof PrimitiveTypeHandler.OfLong) {
+            long value = ((PrimitiveTypeHandler.OfLong) typeHandler).getLong(rs, column);
+            if (rs.wasNull()) {
+                return false;
+            }
+            metaObject.setLong(property, value);
+        } else if (typeHandler instanceof PrimitiveTypeHandler.OfDouble) {
+            double value = ((PrimitiveTypeHandler.OfDouble) typeHandler).getDouble(rs, column);
+            if (rs.wasNull()) {
+                return false;
+            }
+            metaObject.setDouble(property, value);
+        } else {
+            Object value = typeHandler.getResult(rs, column);
+            if (value == null) {
+                return false;
+            }
+            metaObject.setValue(property, value);
+        }
+        return true;
+    }
+
     // MULTIPLE RESULT SETS
 
     private void linkToParents(ResultSet rs, ResultMapping parentMapping, Object rowValue) throws SQLException {
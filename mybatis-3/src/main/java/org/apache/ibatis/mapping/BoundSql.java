@@ -45,17 +45,17 @@ public class BoundSql {
   private List<ParameterMapping> parameterMappings;
   //参数对象
   private Object parameterObject;
-  //参数映射集的相关信息
+  private final Configuration configuration;
+  //参数映射集的相关信息，没有附加参数时为null
   private Map<String, Object> additionalParameters;
-  //工具类
+  //工具类，第一次按属性路径读写附加参数时才创建
   private MetaObject metaParameters;
 
   public BoundSql(Configuration configuration, String sql, List<ParameterMapping> parameterMappings, Object parameterObject) {
+    this.configuration = configuration;
     this.sql = sql;
     this.parameterMappings = parameterMappings;
     this.parameterObject = parameterObject;
-    this.additionalParameters = new HashMap<String, Object>();
-    this.metaParameters = configuration.newMetaObject(additionalParameters);
   }
 
   public String getSql() {
@@ -72,6 +72,12 @@ public class BoundSql {
 
   //根据参数查询，是否有对应的相关信息
   public boolean hasAdditionalParameter(String name) {
+    if (additionalParameters == null) {
+      return false;
+    }
+    if (name.indexOf('.') == -1 && name.indexOf('[') == -1) {
+      return additionalParameters.containsKey(name);
+    }
     //属性标记器
     PropertyTokenizer prop = new PropertyTokenizer(name);
     String indexedName = prop.getIndexedName();
@@ -79,11 +85,36 @@ public class BoundSql {
   }
 
   public void setAdditionalParameter(String name, Object value) {
-    metaParameters.setValue(name, value);
+    if (additionalParameters == null) {
+      additionalParameters = new HashMap<String, Object>();
+    }
+    getMetaParameters().setValue(name, value);
+  }
+
+  /**
+   * Uses the given map as the additional parameters, without copying it. Later changes of the map are visible to
+   * this bound SQL.
+   */
+  public void setAdditionalParameters(Map<String, Object> additionalParameters) {
+    this.additionalParameters = additionalParameters;
+    this.metaParameters = null;
   }
 
   //根据参数获取对应的相关信息
   public Object getAdditionalParameter(String name) {
-    return metaParameters.getValue(name);
+    if (additionalParameters == null) {
+      return null;
+    }
+    if (name.indexOf('.') == -1 && name.indexOf('[') == -1) {
+      return additionalParameters.get(name);
+    }
+    return getMetaParameters().getValue(name);
+  }
+
+  private MetaObject getMetaParameters() {
+    if (metaParameters == null) {
+      metaParameters = configuration.newMetaObject(additionalParameters);
+    }
+    return metaParameters;
   }
 }
@@ -45,6 +45,7 @@ public class CacheBuilder {
   private boolean readWrite;
   private Properties properties;
   private boolean blocking;
+  private boolean refreshAhead;
 
   public CacheBuilder(String id) {
     this.id = id;
@@ -88,6 +89,13 @@ public class CacheBuilder {
     return this;
   }
 
+  /**
+   * @return whether the built cache reloads its entries ahead of expiry, see {@link ScheduledCache#isRefreshAheadEnabled()}
+   */
+  public boolean isRefreshAheadEnabled() {
+    return refreshAhead;
+  }
+
   public Cache build() {
     setDefaultImplementations();
     Cache cache = newBaseCacheInstance(implementation, id);
@@ -123,6 +131,9 @@ public class CacheBuilder {
       if (clearInterval != null) {
         cache = new ScheduledCache(cache);
         ((ScheduledCache) cache).setClearInterval(clearInterval);
+        // perEntryExpiry, jitter, refreshAhead and refreshThreads
+        setCacheProperties(cache);
+        refreshAhead = ((ScheduledCache) cache).isRefreshAheadEnabled();
       }
       if (readWrite) {
         cache = new SerializedCache(cache);
@@ -131,6 +142,13 @@ public class CacheBuilder {
       cache = new SynchronizedCache(cache);
       if (blocking) {
         cache = new BlockingCache(cache);
+        // timeout, staleWhileRevalidate and staleSize
+        setCacheProperties(cache);
+        if (readWrite && ((BlockingCache) cache).isStaleWhileRevalidate()) {
+          // 过期值保存在序列化层之上，会被所有调用者共享
+          throw new CacheException("Cache " + id + " cannot serve stale values while revalidating because it is not read-only. "
+              + "Stale values are kept above the serialization layer and would be shared by all callers, set readOnly=\"true\".");
+        }
       }
       return cache;
     } catch (Exception e) {
@@ -293,6 +293,38 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  /**
+   * Returns a copy of this statement that takes its SQL from <code>sqlSource</code>. Used to run one chunk of a
+   * statement whose <code>IN (...)</code> list is executed in chunks.
+   */
+  public MappedStatement withSqlSource(SqlSource sqlSource) {
+    MappedStatement copy = new MappedStatement();
+    copy.resource = resource;
+    copy.configuration = configuration;
+    copy.id = id;
+    copy.fetchSize = fetchSize;
+    copy.timeout = timeout;
+    copy.statementType = statementType;
+    copy.resultSetType = resultSetType;
+    copy.sqlSource = sqlSource;
+    copy.cache = cache;
+    copy.parameterMap = parameterMap;
+    copy.resultMaps = resultMaps;
+    copy.flushCacheRequired = flushCacheRequired;
+    copy.useCache = useCache;
+    copy.resultOrdered = resultOrdered;
+    copy.sqlCommandType = sqlCommandType;
+    copy.keyGenerator = keyGenerator;
+    copy.keyProperties = keyProperties;
+    copy.keyColumns = keyColumns;
+    copy.hasNestedResultMaps = hasNestedResultMaps;
+    copy.databaseId = databaseId;
+    copy.statementLog = statementLog;
+    copy.lang = lang;
+    copy.resultSets = resultSets;
+    return copy;
+  }
+
   //获取BoundSQL
   public BoundSql getBoundSql(Object parameterObject) {
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.parsing;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author Clinton Begin
  */
@@ -30,52 +33,83 @@ public class GenericTokenParser {
     this.handler = handler;
   }
 
+  /**
+   * Creates a parser that is only used to {@link #tokenize(String)} texts.
+   */
+  public GenericTokenParser(String openToken, String closeToken) {
+    this(openToken, closeToken, null);
+  }
+
   public String parse(String text) {
+    if (text == null || text.length() == 0) {
+      return "";
+    }
+    // 没有开始标记时原样返回，不复制文本
+    if (text.indexOf(openToken) == -1) {
+      return text;
+    }
+    return tokenize(text).apply(handler);
+  }
+
+  /**
+   * Splits the text into its literal parts and the contents of its tokens, so that it can be
+   * {@link TokenizedText#apply(TokenHandler) applied} many times without scanning it again. Escaped open and close
+   * tokens are unescaped and an open token without a close token is kept as literal text, as {@link #parse(String)}
+   * does.
+   */
+  public TokenizedText tokenize(String text) {
+    if (text == null || text.length() == 0) {
+      return new TokenizedText("");
+    }
+    int start = text.indexOf(openToken);
+    if (start == -1) {
+      return new TokenizedText(text);
+    }
+    final List<String> literals = new ArrayList<String>();
+    final List<String> tokens = new ArrayList<String>();
     final StringBuilder builder = new StringBuilder();
     final StringBuilder expression = new StringBuilder();
-    if (text != null && text.length() > 0) {
-      char[] src = text.toCharArray();
-      int offset = 0;
-      // search open token
-      int start = text.indexOf(openToken, offset);
-      while (start > -1) {
-        if (start > 0 && src[start - 1] == '\\') {
-          // this open token is escaped. remove the backslash and continue.
-          builder.append(src, offset, start - offset - 1).append(openToken);
-          offset = start + openToken.length();
-        } else {
-          // found open token. let's search close token.
-          expression.setLength(0);
-          builder.append(src, offset, start - offset);
-          offset = start + openToken.length();
-          int end = text.indexOf(closeToken, offset);
-          while (end > -1) {
-            if (end > offset && src[end - 1] == '\\') {
-              // this close token is escaped. remove the backslash and continue.
-              expression.append(src, offset, end - offset - 1).append(closeToken);
-              offset = end + closeToken.length();
-              end = text.indexOf(closeToken, offset);
-            } else {
-              expression.append(src, offset, end - offset);
-              offset = end + closeToken.length();
-              break;
-            }
-          }
-          if (end == -1) {
-            // close token was not found.
-            builder.append(src, start, src.length - start);
-            offset = src.length;
-          } else {
-            builder.append(handler.handleToken(expression.toString()));
+    int offset = 0;
+    // search open token
+    while (start > -1) {
+      if (start > 0 && text.charAt(start - 1) == '\\') {
+        // this open token is escaped. remove the backslash and continue.
+        builder.append(text, offset, start - 1).append(openToken);
+        offset = start + openToken.length();
+      } else {
+        // found open token. let's search close token.
+        expression.setLength(0);
+        builder.append(text, offset, start);
+        offset = start + openToken.length();
+        int end = text.indexOf(closeToken, offset);
+        while (end > -1) {
+          if (end > offset && text.charAt(end - 1) == '\\') {
+            // this close token is escaped. remove the backslash and continue.
+            expression.append(text, offset, end - 1).append(closeToken);
             offset = end + closeToken.length();
+            end = text.indexOf(closeToken, offset);
+          } else {
+            expression.append(text, offset, end);
+            break;
           }
         }
-        start = text.indexOf(openToken, offset);
-      }
-      if (offset < src.length) {
-        builder.append(src, offset, src.length - offset);
+        if (end == -1) {
+          // close token was not found.
+          builder.append(text, start, text.length());
+          offset = text.length();
+        } else {
+          literals.add(builder.toString());
+          builder.setLength(0);
+          tokens.add(expression.toString());
+          offset = end + closeToken.length();
+        }
       }
+      start = text.indexOf(openToken, offset);
+    }
+    if (offset < text.length()) {
+      builder.append(text, offset, text.length());
     }
-    return builder.toString();
+    literals.add(builder.toString());
+    return new TokenizedText(literals.toArray(new String[literals.size()]), tokens.toArray(new String[tokens.size()]));
   }
 }
@@ -0,0 +1,78 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.parsing;
+
+/**
+ * A text split by {@link GenericTokenParser#tokenize(String)} into literal parts and token contents:
+ * <code>literal(0) token(0) literal(1) ... token(n - 1) literal(n)</code>.
+ */
+public final class TokenizedText {
+
+  private static final String[] NO_TOKENS = new String[0];
+
+  private final String[] literals;
+  private final String[] tokens;
+  //所有字面部分的总长度，用于预估结果的长度
+  private final int literalLength;
+
+  TokenizedText(String text) {
+    this(new String[] { text }, NO_TOKENS);
+  }
+
+  TokenizedText(String[] literals, String[] tokens) {
+    this.literals = literals;
+    this.tokens = tokens;
+    int length = 0;
+    for (String literal : literals) {
+      length += literal.length();
+    }
+    this.literalLength = length;
+  }
+
+  public boolean hasTokens() {
+    return tokens.length > 0;
+  }
+
+  public int getTokenCount() {
+    return tokens.length;
+  }
+
+  public String getLiteral(int i) {
+    return literals[i];
+  }
+
+  public String getToken(int i) {
+    return tokens[i];
+  }
+
+  public String apply(TokenHandler handler) {
+    if (tokens.length == 0) {
+      return literals[0];
+    }
+    StringBuilder builder = new StringBuilder(literalLength + 16 * tokens.length);
+    appendTo(builder, handler);
+    return builder.toString();
+  }
+
+  public void appendTo(StringBuilder builder, TokenHandler handler) {
+    builder.append(literals[0]);
+    for (int i = 0; i < tokens.length; i++) {
+      builder.append(handler.handleToken(tokens[i]));
+      builder.append(literals[i + 1]);
+    }
+  }
+
+}
@@ -15,14 +15,125 @@
  */
 package org.apache.ibatis.reflection;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.reflection.invoker.InvokerFactory;
+import org.apache.ibatis.reflection.invoker.ReflectionInvokerFactory;
 
 public class DefaultReflectorFactory implements ReflectorFactory {
+  //缓存的属性表达式数量上限，foreach生成的 __frch_item_N.xxx 之类的名称数量不受控制，超过上限时淘汰最久未使用的
+  private static final int MAX_PROPERTY_PATHS = 4096;
+
   private boolean classCacheEnabled = true;
   private final ConcurrentMap<Class<?>, Reflector> reflectorMap = new ConcurrentHashMap<Class<?>, Reflector>();
+  private final Map<String, PropertyPath> propertyPaths = new LinkedHashMap<String, PropertyPath>(16, 0.75f, true) {
+    private static final long serialVersionUID = -6262207542452458117L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, PropertyPath> eldest) {
+      return size() > MAX_PROPERTY_PATHS;
+    }
+  };
+
+  private InvokerFactory invokerFactory;
+  //可选的反射元数据索引，命中时不再遍历类的所有方法
+  private volatile ReflectorIndex index;
 
   public DefaultReflectorFactory() {
+    this(new ReflectionInvokerFactory());
+  }
+
+  public DefaultReflectorFactory(InvokerFactory invokerFactory) {
+    this.invokerFactory = invokerFactory;
+  }
+
+  public InvokerFactory getInvokerFactory() {
+    return invokerFactory;
+  }
+
+  /**
+   * Changes how the getters, setters and fields of classes reflected from now on are invoked. Cached reflectors are
+   * discarded.
+   */
+  public void setInvokerFactory(InvokerFactory invokerFactory) {
+    this.invokerFactory = invokerFactory;
+    reflectorMap.clear();
+  }
+
+  public ReflectorIndex getIndex() {
+    return index;
+  }
+
+  /**
+   * Rebuilds reflectors of classes found in the given index from the recorded members instead of reflecting them.
+   */
+  public void setIndex(ReflectorIndex index) {
+    this.index = index;
+  }
+
+  /**
+   * @return an index of every reflector cached so far, to be written and passed to {@link #setIndex(ReflectorIndex)}
+   *         on a later start
+   */
+  public ReflectorIndex createIndex() {
+    ReflectorIndex newIndex = new ReflectorIndex();
+    for (Reflector reflector : reflectorMap.values()) {
+      newIndex.add(reflector);
+    }
+    return newIndex;
+  }
+
+  /**
+   * Creates and caches the reflectors of the given types up front, using the given number of threads. Types that
+   * cannot be reflected are skipped here and fail when they are used.
+   */
+  public void warmUp(Collection<Class<?>> types, int threads) {
+    if (!classCacheEnabled || types.isEmpty()) {
+      return;
+    }
+    if (threads <= 1) {
+      for (Class<?> type : types) {
+        warmUp(type);
+      }
+      return;
+    }
+    List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(types.size());
+    for (final Class<?> type : types) {
+      tasks.add(new Callable<Object>() {
+        @Override
+        public Object call() {
+          warmUp(type);
+          return null;
+        }
+      });
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, types.size()), new WarmUpThreadFactory());
+    try {
+      executor.invokeAll(tasks);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void warmUp(Class<?> type) {
+    try {
+      findForClass(type);
+    } catch (RuntimeException e) {
+      // Ignored. The same error is raised when the type is actually used.
+    }
   }
 
   @Override
@@ -41,12 +152,51 @@ public class DefaultReflectorFactory implements ReflectorFactory {
             // synchronized (type) removed see issue #461
       Reflector cached = reflectorMap.get(type);
       if (cached == null) {
-        cached = new Reflector(type);
+        cached = newReflector(type);
         reflectorMap.put(type, cached);
       }
       return cached;
     } else {
-      return new Reflector(type);
+      return newReflector(type);
+    }
+  }
+
+  /**
+   * @return the interned path of the given property expression. The most recently used expressions are kept, up to
+   *         a fixed number.
+   */
+  public PropertyPath findPropertyPath(String expression) {
+    synchronized (propertyPaths) {
+      PropertyPath path = propertyPaths.get(expression);
+      if (path == null) {
+        path = new PropertyPath(expression);
+        propertyPaths.put(expression, path);
+      }
+      return path;
+    }
+  }
+
+  private Reflector newReflector(Class<?> type) {
+    ReflectorIndex currentIndex = index;
+    if (currentIndex != null) {
+      Reflector indexed = currentIndex.newReflector(type, invokerFactory);
+      if (indexed != null) {
+        return indexed;
+      }
+    }
+    return new Reflector(type, invokerFactory);
+  }
+
+  private static class WarmUpThreadFactory implements ThreadFactory {
+    private static final AtomicInteger poolNumber = new AtomicInteger();
+    private final AtomicInteger threadNumber = new AtomicInteger();
+    private final String prefix = "mybatis-reflector-warmup-" + poolNumber.incrementAndGet() + "-";
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, prefix + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
     }
   }
 
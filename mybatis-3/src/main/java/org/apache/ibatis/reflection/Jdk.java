@@ -0,0 +1,52 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import org.apache.ibatis.io.Resources;
+
+/**
+ * Detects which optional JDK APIs are available at runtime.
+ */
+public class Jdk {
+
+  /**
+   * <code>true</code> if <code>java.lang.invoke.LambdaMetafactory</code> is available (Java 8 or later).
+   */
+  public static final boolean lambdaMetafactoryExists;
+
+  /**
+   * <code>true</code> if the Date and Time API (<code>java.time</code>) is available (Java 8 or later).
+   */
+  public static final boolean dateAndTimeApiExists;
+
+  static {
+    lambdaMetafactoryExists = classExists("java.lang.invoke.LambdaMetafactory");
+    dateAndTimeApiExists = classExists("java.time.Clock");
+  }
+
+  private static boolean classExists(String className) {
+    try {
+      Resources.classForName(className);
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  private Jdk() {
+    super();
+  }
+}
@@ -0,0 +1,34 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import org.apache.ibatis.reflection.invoker.LambdaInvokerFactory;
+import org.apache.ibatis.reflection.invoker.ReflectionInvokerFactory;
+
+/**
+ * A {@link DefaultReflectorFactory} whose reflectors call getters and setters through accessors generated by
+ * {@link java.lang.invoke.LambdaMetafactory} instead of {@link java.lang.reflect.Method#invoke}. On runtimes older
+ * than Java 8 it behaves like a {@link DefaultReflectorFactory}.
+ * <p>
+ * Select it with <code>configuration.setReflectorFactory(new LambdaReflectorFactory())</code>.
+ */
+public class LambdaReflectorFactory extends DefaultReflectorFactory {
+
+  public LambdaReflectorFactory() {
+    super(Jdk.lambdaMetafactoryExists ? new LambdaInvokerFactory() : new ReflectionInvokerFactory());
+  }
+
+}
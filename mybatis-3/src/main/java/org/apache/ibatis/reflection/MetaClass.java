@@ -49,17 +49,28 @@ public class MetaClass {
   }
 
   public String findProperty(String name) {
+    if (isSimpleName(name)) {
+      return reflector.findPropertyName(name);
+    }
     StringBuilder prop = buildProperty(name, new StringBuilder());
     return prop.length() > 0 ? prop.toString() : null;
   }
 
   public String findProperty(String name, boolean useCamelCaseMapping) {
+    if (isSimpleName(name)) {
+      // 不含嵌套属性和下标时直接查找，不生成新的字符串
+      return reflector.findPropertyName(name, useCamelCaseMapping);
+    }
     if (useCamelCaseMapping) {
       name = name.replace("_", "");
     }
     return findProperty(name);
   }
 
+  private static boolean isSimpleName(String name) {
+    return name.indexOf('.') == -1 && name.indexOf('[') == -1;
+  }
+
   public String[] getGetterNames() {
     return reflector.getGetablePropertyNames();
   }
@@ -69,34 +80,30 @@ public class MetaClass {
   }
 
   public Class<?> getSetterType(String name) {
-    PropertyTokenizer prop = new PropertyTokenizer(name);
-    if (prop.hasNext()) {
-      MetaClass metaProp = metaClassForProperty(prop.getName());
-      return metaProp.getSetterType(prop.getChildren());
-    } else {
-      return reflector.getSetterType(prop.getName());
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    int last = path.length() - 1;
+    Reflector current = reflector;
+    for (int i = 0; i < last; i++) {
+      current = reflectorFactory.findForClass(current.getGetterType(path.getToken(i).getName()));
     }
+    return current.getSetterType(path.getToken(last).getName());
   }
 
   public Class<?> getGetterType(String name) {
-    PropertyTokenizer prop = new PropertyTokenizer(name);
-    if (prop.hasNext()) {
-      MetaClass metaProp = metaClassForProperty(prop);
-      return metaProp.getGetterType(prop.getChildren());
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    int last = path.length() - 1;
+    Reflector current = reflector;
+    for (int i = 0; i < last; i++) {
+      current = reflectorFactory.findForClass(getGetterType(current, path.getToken(i)));
     }
     // issue #506. Resolve the type inside a Collection Object
-    return getGetterType(prop);
+    return getGetterType(current, path.getToken(last));
   }
 
-  private MetaClass metaClassForProperty(PropertyTokenizer prop) {
-    Class<?> propType = getGetterType(prop);
-    return MetaClass.forClass(propType, reflectorFactory);
-  }
-
-  private Class<?> getGetterType(PropertyTokenizer prop) {
+  private static Class<?> getGetterType(Reflector reflector, PropertyTokenizer prop) {
     Class<?> type = reflector.getGetterType(prop.getName());
     if (prop.getIndex() != null && Collection.class.isAssignableFrom(type)) {
-      Type returnType = getGenericGetterType(prop.getName());
+      Type returnType = getGenericGetterType(reflector, prop.getName());
       if (returnType instanceof ParameterizedType) {
         Type[] actualTypeArguments = ((ParameterizedType) returnType).getActualTypeArguments();
         if (actualTypeArguments != null && actualTypeArguments.length == 1) {
@@ -112,7 +119,7 @@ public class MetaClass {
     return type;
   }
 
-  private Type getGenericGetterType(String propertyName) {
+  private static Type getGenericGetterType(Reflector reflector, String propertyName) {
     try {
       Invoker invoker = reflector.getGetInvoker(propertyName);
       if (invoker instanceof MethodInvoker) {
@@ -133,31 +140,31 @@ public class MetaClass {
   }
 
   public boolean hasSetter(String name) {
-    PropertyTokenizer prop = new PropertyTokenizer(name);
-    if (prop.hasNext()) {
-      if (reflector.hasSetter(prop.getName())) {
-        MetaClass metaProp = metaClassForProperty(prop.getName());
-        return metaProp.hasSetter(prop.getChildren());
-      } else {
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    int last = path.length() - 1;
+    Reflector current = reflector;
+    for (int i = 0; i < last; i++) {
+      String propertyName = path.getToken(i).getName();
+      if (!current.hasSetter(propertyName)) {
         return false;
       }
-    } else {
-      return reflector.hasSetter(prop.getName());
+      current = reflectorFactory.findForClass(current.getGetterType(propertyName));
     }
+    return current.hasSetter(path.getToken(last).getName());
   }
 
   public boolean hasGetter(String name) {
-    PropertyTokenizer prop = new PropertyTokenizer(name);
-    if (prop.hasNext()) {
-      if (reflector.hasGetter(prop.getName())) {
-        MetaClass metaProp = metaClassForProperty(prop);
-        return metaProp.hasGetter(prop.getChildren());
-      } else {
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    int last = path.length() - 1;
+    Reflector current = reflector;
+    for (int i = 0; i < last; i++) {
+      PropertyTokenizer prop = path.getToken(i);
+      if (!current.hasGetter(prop.getName())) {
         return false;
       }
-    } else {
-      return reflector.hasGetter(prop.getName());
+      current = reflectorFactory.findForClass(getGetterType(current, prop));
     }
+    return current.hasGetter(path.getToken(last).getName());
   }
 
   public Invoker getGetInvoker(String name) {
@@ -179,7 +186,7 @@ public class MetaClass {
         metaProp.buildProperty(prop.getChildren(), builder);
       }
     } else {
-      String propertyName = reflector.findPropertyName(name);
+      String propertyName = reflector.findPropertyName(prop.getName());
       if (propertyName != null) {
         builder.append(propertyName);
       }
@@ -20,6 +20,8 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.PrimitiveInvoker;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.reflection.wrapper.BeanWrapper;
 import org.apache.ibatis.reflection.wrapper.CollectionWrapper;
@@ -32,6 +34,8 @@ import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
  */
 public class MetaObject {
 
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
   //原对象
   private Object originalObject;
   //对象装饰
@@ -115,35 +119,262 @@ public class MetaObject {
   }
 
   public Object getValue(String name) {
-    PropertyTokenizer prop = new PropertyTokenizer(name);
-    if (prop.hasNext()) {
-      MetaObject metaValue = metaObjectForProperty(prop.getIndexedName());
-      if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    int last = path.length() - 1;
+    Object object = originalObject;
+    ObjectWrapper wrapper = objectWrapper;
+    for (int i = 0; i < last; i++) {
+      object = getProperty(path, i, object, wrapper);
+      if (object == null) {
         return null;
-      } else {
-        return metaValue.getValue(prop.getChildren());
       }
-    } else {
-      return objectWrapper.get(prop);
+      //中间层的对象不再创建MetaObject，由getProperty按需处理
+      wrapper = null;
     }
+    return getProperty(path, last, object, wrapper);
   }
 
   public void setValue(String name, Object value) {
-    PropertyTokenizer prop = new PropertyTokenizer(name);
-    if (prop.hasNext()) {
-      MetaObject metaValue = metaObjectForProperty(prop.getIndexedName());
-      if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
-        if (value == null && prop.getChildren() != null) {
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    int last = path.length() - 1;
+    Object object = originalObject;
+    ObjectWrapper wrapper = objectWrapper;
+    for (int i = 0; i < last; i++) {
+      Object child = getProperty(path, i, object, wrapper);
+      if (child == null) {
+        if (value == null) {
           // don't instantiate child path if value is null
           return;
+        }
+        if (wrapper == null) {
+          wrapper = wrapperFor(object);
+        }
+        MetaObject metaValue = wrapper.instantiatePropertyValue(path.getExpression(i), path.getToken(i), objectFactory);
+        object = metaValue.getOriginalObject();
+        wrapper = metaValue.getObjectWrapper();
+      } else {
+        object = child;
+        wrapper = null;
+      }
+    }
+    setProperty(path, last, object, wrapper, value);
+  }
+
+  /*
+   * Reads one level of the path. A null wrapper means the object is an intermediate value: plain maps and beans
+   * are read directly, anything else gets its wrapper like a new MetaObject would.
+   */
+  private Object getProperty(PropertyPath path, int level, Object object, ObjectWrapper wrapper) {
+    PropertyTokenizer prop = path.getHead(level);
+    if (wrapper == null) {
+      if (prop.getIndex() == null && isPlain(object)) {
+        if (object instanceof Map) {
+          return ((Map<?, ?>) object).get(prop.getName());
+        }
+        return getBeanProperty(path, level, object);
+      }
+      wrapper = wrapperFor(object);
+    }
+    return wrapper.get(prop);
+  }
+
+  private void setProperty(PropertyPath path, int level, Object object, ObjectWrapper wrapper, Object value) {
+    PropertyTokenizer prop = path.getHead(level);
+    if (wrapper == null) {
+      if (prop.getIndex() == null && isPlain(object)) {
+        if (object instanceof Map) {
+          @SuppressWarnings("unchecked")
+          Map<String, Object> map = (Map<String, Object>) object;
+          map.put(prop.getName(), value);
         } else {
-          metaValue = objectWrapper.instantiatePropertyValue(name, prop, objectFactory);
+          setBeanProperty(path, level, object, value);
         }
+        return;
       }
-      metaValue.setValue(prop.getChildren(), value);
-    } else {
-      objectWrapper.set(prop, value);
+      wrapper = wrapperFor(object);
     }
+    wrapper.set(prop, value);
+  }
+
+  //是否会由MapWrapper或BeanWrapper包装
+  private boolean isPlain(Object object) {
+    return !(object instanceof ObjectWrapper) && !(object instanceof Collection)
+        && !objectWrapperFactory.hasWrapperFor(object);
+  }
+
+  private ObjectWrapper wrapperFor(Object object) {
+    return MetaObject.forObject(object, objectFactory, objectWrapperFactory, reflectorFactory).getObjectWrapper();
+  }
+
+  // same as BeanWrapper.getBeanProperty
+  private Object getBeanProperty(PropertyPath path, int level, Object object) {
+    try {
+      Invoker method = path.getGetInvoker(level, object.getClass(), reflectorFactory);
+      return method.invoke(object, NO_ARGUMENTS);
+    } catch (Throwable t) {
+      throw getPropertyException(path, level, object, t);
+    }
+  }
+
+  // same as BeanWrapper.setBeanProperty
+  private void setBeanProperty(PropertyPath path, int level, Object object, Object value) {
+    try {
+      Invoker method = path.getSetInvoker(level, object.getClass(), reflectorFactory);
+      Object[] params = {value};
+      method.invoke(object, params);
+    } catch (Throwable t) {
+      throw setPropertyException(path, level, object, value, t);
+    }
+  }
+
+  private static RuntimeException getPropertyException(PropertyPath path, int level, Object object, Throwable t) {
+    Throwable cause = ExceptionUtil.unwrapThrowable(t);
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    return new ReflectionException("Could not get property '" + path.getHead(level).getName() + "' from " + object.getClass() + ".  Cause: " + cause.toString(), cause);
+  }
+
+  private static ReflectionException setPropertyException(PropertyPath path, int level, Object object, Object value, Throwable t) {
+    Throwable cause = ExceptionUtil.unwrapThrowable(t);
+    return new ReflectionException("Could not set property '" + path.getHead(level).getName() + "' of '" + object.getClass() + "' with value '" + value + "' Cause: " + cause.toString(), cause);
+  }
+
+  /**
+   * Returns whether the property is a top level property of a bean whose getter returns the given primitive type
+   * without boxing it, so {@link #getInt}, {@link #getLong} or {@link #getDouble} does not go through
+   * {@link #getValue}.
+   */
+  public boolean hasPrimitiveGetter(String name, Class<?> type) {
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    if (!isBeanProperty(path) || !objectWrapper.hasGetter(name)) {
+      return false;
+    }
+    Invoker invoker = path.getGetInvoker(0, originalObject.getClass(), reflectorFactory);
+    if (type == int.class) {
+      return invoker instanceof PrimitiveInvoker.IntGetter;
+    } else if (type == long.class) {
+      return invoker instanceof PrimitiveInvoker.LongGetter;
+    } else if (type == double.class) {
+      return invoker instanceof PrimitiveInvoker.DoubleGetter;
+    }
+    return false;
+  }
+
+  /**
+   * Same as {@link #getValue} for a property whose value is not null, without boxing the value when
+   * {@link #hasPrimitiveGetter} is true.
+   */
+  public int getInt(String name) {
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    if (isBeanProperty(path)) {
+      try {
+        Invoker invoker = path.getGetInvoker(0, originalObject.getClass(), reflectorFactory);
+        if (invoker instanceof PrimitiveInvoker.IntGetter) {
+          return ((PrimitiveInvoker.IntGetter) invoker).getInt(originalObject);
+        }
+      } catch (Throwable t) {
+        throw getPropertyException(path, 0, originalObject, t);
+      }
+    }
+    return (Integer) getValue(name);
+  }
+
+  public long getLong(String name) {
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    if (isBeanProperty(path)) {
+      try {
+        Invoker invoker = path.getGetInvoker(0, originalObject.getClass(), reflectorFactory);
+        if (invoker instanceof PrimitiveInvoker.LongGetter) {
+          return ((PrimitiveInvoker.LongGetter) invoker).getLong(originalObject);
+        }
+      } catch (Throwable t) {
+        throw getPropertyException(path, 0, originalObject, t);
+      }
+    }
+    return (Long) getValue(name);
+  }
+
+  public double getDouble(String name) {
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    if (isBeanProperty(path)) {
+      try {
+        Invoker invoker = path.getGetInvoker(0, originalObject.getClass(), reflectorFactory);
+        if (invoker instanceof PrimitiveInvoker.DoubleGetter) {
+          return ((PrimitiveInvoker.DoubleGetter) invoker).getDouble(originalObject);
+        }
+      } catch (Throwable t) {
+        throw getPropertyException(path, 0, originalObject, t);
+      }
+    }
+    return (Double) getValue(name);
+  }
+
+  /**
+   * Same as {@link #setValue}, without boxing the value when the property is a top level property of a bean whose
+   * setter takes an {@code int}, or a {@code long} or {@code double} the value is widened to.
+   */
+  public void setInt(String name, int value) {
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    if (isBeanProperty(path)) {
+      try {
+        Invoker invoker = path.getSetInvoker(0, originalObject.getClass(), reflectorFactory);
+        if (invoker instanceof PrimitiveInvoker.IntSetter) {
+          ((PrimitiveInvoker.IntSetter) invoker).setInt(originalObject, value);
+          return;
+        } else if (invoker instanceof PrimitiveInvoker.LongSetter) {
+          //与Method.invoke一样拓宽为setter的参数类型
+          ((PrimitiveInvoker.LongSetter) invoker).setLong(originalObject, value);
+          return;
+        } else if (invoker instanceof PrimitiveInvoker.DoubleSetter) {
+          ((PrimitiveInvoker.DoubleSetter) invoker).setDouble(originalObject, value);
+          return;
+        }
+      } catch (Throwable t) {
+        throw setPropertyException(path, 0, originalObject, value, t);
+      }
+    }
+    setValue(name, value);
+  }
+
+  public void setLong(String name, long value) {
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    if (isBeanProperty(path)) {
+      try {
+        Invoker invoker = path.getSetInvoker(0, originalObject.getClass(), reflectorFactory);
+        if (invoker instanceof PrimitiveInvoker.LongSetter) {
+          ((PrimitiveInvoker.LongSetter) invoker).setLong(originalObject, value);
+          return;
+        } else if (invoker instanceof PrimitiveInvoker.DoubleSetter) {
+          ((PrimitiveInvoker.DoubleSetter) invoker).setDouble(originalObject, value);
+          return;
+        }
+      } catch (Throwable t) {
+        throw setPropertyException(path, 0, originalObject, value, t);
+      }
+    }
+    setValue(name, value);
+  }
+
+  public void setDouble(String name, double value) {
+    PropertyPath path = PropertyPath.of(name, reflectorFactory);
+    if (isBeanProperty(path)) {
+      try {
+        Invoker invoker = path.getSetInvoker(0, originalObject.getClass(), reflectorFactory);
+        if (invoker instanceof PrimitiveInvoker.DoubleSetter) {
+          ((PrimitiveInvoker.DoubleSetter) invoker).setDouble(originalObject, value);
+          return;
+        }
+      } catch (Throwable t) {
+        throw setPropertyException(path, 0, originalObject, value, t);
+      }
+    }
+    setValue(name, value);
+  }
+
+  //是否为普通bean的顶层属性，子类化的BeanWrapper可能改变了读写方式
+  private boolean isBeanProperty(PropertyPath path) {
+    return path.length() == 1 && path.getHead(0).getIndex() == null && objectWrapper.getClass() == BeanWrapper.class;
   }
 
   public MetaObject metaObjectForProperty(String name) {
@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+import org.apache.ibatis.lang.UsesJava7;
+
+/**
+ * Obtains a {@link MethodHandles.Lookup} with private access to a class, which is what
+ * {@link java.lang.invoke.LambdaMetafactory} needs to bind its members. Uses
+ * <code>MethodHandles.privateLookupIn</code> on Java 9 and later, and the private <code>Lookup</code> constructor on
+ * Java 8.
+ */
+@UsesJava7
+public final class PrivateLookup {
+
+  private static final int ALL_MODES = MethodHandles.Lookup.PUBLIC | MethodHandles.Lookup.PRIVATE
+      | MethodHandles.Lookup.PROTECTED | MethodHandles.Lookup.PACKAGE;
+
+  //Java 9以上使用MethodHandles.privateLookupIn
+  private static final Method PRIVATE_LOOKUP_IN;
+  //Java 8只能通过Lookup的私有构造方法获取有私有访问权限的Lookup
+  private static final Constructor<MethodHandles.Lookup> LOOKUP_CONSTRUCTOR;
+
+  static {
+    Method privateLookupIn = null;
+    Constructor<MethodHandles.Lookup> lookupConstructor = null;
+    try {
+      privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+    } catch (NoSuchMethodException e) {
+      try {
+        lookupConstructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+        lookupConstructor.setAccessible(true);
+      } catch (Exception e2) {
+        // Ignored. No private lookup is available.
+        lookupConstructor = null;
+      }
+    }
+    PRIVATE_LOOKUP_IN = privateLookupIn;
+    LOOKUP_CONSTRUCTOR = lookupConstructor;
+  }
+
+  private PrivateLookup() {
+    super();
+  }
+
+  /**
+   * @return a lookup with private access to the given class, or null if this runtime does not allow it
+   * @throws Exception if the class may not be accessed privately
+   */
+  public static MethodHandles.Lookup in(Class<?> type) throws Exception {
+    if (PRIVATE_LOOKUP_IN != null) {
+      return (MethodHandles.Lookup) PRIVATE_LOOKUP_IN.invoke(null, type, MethodHandles.lookup());
+    } else if (LOOKUP_CONSTRUCTOR != null) {
+      return LOOKUP_CONSTRUCTOR.newInstance(type, ALL_MODES);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,149 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+
+/**
+ * A property expression such as <code>order.items[0].sku</code> split once into its levels. Instances are interned
+ * per {@link DefaultReflectorFactory} by {@link #of(String, ReflectorFactory)}, so the expression is tokenized once
+ * and not on every {@link MetaObject} or {@link MetaClass} access.
+ * <p>
+ * Each level also remembers the getter (and, for the last level, the setter) it last resolved together with the
+ * class and {@link ReflectorFactory} it was resolved for, so walking the same path over objects of the same classes
+ * does not look the invokers up again.
+ */
+public final class PropertyPath {
+
+  private final String expression;
+  //从第i层开始的表达式
+  private final String[] expressions;
+  //第i层开始的表达式对应的标记器，带有children
+  private final PropertyTokenizer[] tokens;
+  //只包含第i层(含索引)的标记器，即ObjectWrapper.get/set收到的标记器
+  private final PropertyTokenizer[] heads;
+  private final Level[] levels;
+
+  PropertyPath(String expression) {
+    int length = 1;
+    PropertyTokenizer prop = new PropertyTokenizer(expression);
+    while (prop.hasNext()) {
+      length++;
+      prop = prop.next();
+    }
+    this.expression = expression;
+    this.expressions = new String[length];
+    this.tokens = new PropertyTokenizer[length];
+    this.heads = new PropertyTokenizer[length];
+    this.levels = new Level[length];
+    String current = expression;
+    for (int i = 0; i < length; i++) {
+      prop = new PropertyTokenizer(current);
+      expressions[i] = current;
+      tokens[i] = prop;
+      heads[i] = prop.hasNext() ? new PropertyTokenizer(prop.getIndexedName()) : prop;
+      levels[i] = new Level();
+      current = prop.getChildren();
+    }
+  }
+
+  /**
+   * @return the path interned by the given factory if it is a {@link DefaultReflectorFactory}, a new path otherwise
+   */
+  public static PropertyPath of(String expression, ReflectorFactory reflectorFactory) {
+    if (reflectorFactory instanceof DefaultReflectorFactory) {
+      return ((DefaultReflectorFactory) reflectorFactory).findPropertyPath(expression);
+    }
+    return new PropertyPath(expression);
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  /**
+   * @return the number of levels, 1 for a property without children
+   */
+  public int length() {
+    return tokens.length;
+  }
+
+  /**
+   * @return the rest of the expression starting at the given level
+   */
+  public String getExpression(int level) {
+    return expressions[level];
+  }
+
+  /**
+   * @return the tokenizer of the rest of the expression starting at the given level
+   */
+  public PropertyTokenizer getToken(int level) {
+    return tokens[level];
+  }
+
+  /**
+   * @return the tokenizer of the given level alone, including its index
+   */
+  public PropertyTokenizer getHead(int level) {
+    return heads[level];
+  }
+
+  Invoker getGetInvoker(int level, Class<?> type, ReflectorFactory reflectorFactory) {
+    Level l = levels[level];
+    Accessor getter = l.getter;
+    if (getter == null || getter.type != type || getter.reflectorFactory != reflectorFactory) {
+      getter = new Accessor(type, reflectorFactory,
+          reflectorFactory.findForClass(type).getGetInvoker(tokens[level].getName()));
+      l.getter = getter;
+    }
+    return getter.invoker;
+  }
+
+  Invoker getSetInvoker(int level, Class<?> type, ReflectorFactory reflectorFactory) {
+    Level l = levels[level];
+    Accessor setter = l.setter;
+    if (setter == null || setter.type != type || setter.reflectorFactory != reflectorFactory) {
+      setter = new Accessor(type, reflectorFactory,
+          reflectorFactory.findForClass(type).getSetInvoker(tokens[level].getName()));
+      l.setter = setter;
+    }
+    return setter.invoker;
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+
+  private static final class Level {
+    volatile Accessor getter;
+    volatile Accessor setter;
+  }
+
+  private static final class Accessor {
+    final Class<?> type;
+    final ReflectorFactory reflectorFactory;
+    final Invoker invoker;
+
+    Accessor(Class<?> type, ReflectorFactory reflectorFactory, Invoker invoker) {
+      this.type = type;
+      this.reflectorFactory = reflectorFactory;
+      this.invoker = invoker;
+    }
+  }
+}
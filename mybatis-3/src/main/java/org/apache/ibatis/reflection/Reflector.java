@@ -15,8 +15,10 @@
  */
 package org.apache.ibatis.reflection;
 
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ReflectPermission;
@@ -28,10 +30,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
-import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.Invoker;
-import org.apache.ibatis.reflection.invoker.MethodInvoker;
-import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
+import org.apache.ibatis.reflection.invoker.InvokerFactory;
+import org.apache.ibatis.reflection.invoker.ReflectionInvokerFactory;
 import org.apache.ibatis.reflection.property.PropertyNamer;
 
 /*
@@ -45,9 +46,12 @@ import org.apache.ibatis.reflection.property.PropertyNamer;
 public class Reflector {
 
   private static final String[] EMPTY_STRING_ARRAY = new String[0];
+  private static final int NOT_ASCII = -1;
 
   //对应的class类型
   private Class<?> type;
+  //创建get/set方法及字段对应Invoker的工厂
+  private final InvokerFactory invokerFactory;
   //可读的属性的名称集合，就是存在对应的get方法的属性，初始为空数组
   private String[] readablePropertyNames = EMPTY_STRING_ARRAY;
   //可写的属性的名称集合，就是存在对应的set方法的属性，初始为空数组
@@ -65,18 +69,65 @@ public class Reflector {
 
   //记录了所有的属性名称的大写
   private Map<String, String> caseInsensitivePropertyMap = new HashMap<String, String>();
+  //caseInsensitivePropertyMap的开放寻址表，按字符计算哈希，查找时不需要生成大写字符串；为null表示有非ASCII属性名，只能使用上面的Map
+  private String[] caseInsensitiveKeys;
+  private String[] caseInsensitiveNames;
+  //每个可读/可写属性最终选中的方法或字段，用于生成ReflectorIndex
+  private Map<String, Member> getMembers = new HashMap<String, Member>();
+  private Map<String, Member> setMembers = new HashMap<String, Member>();
+  //构造期间是否可以访问私有成员，只检查一次
+  private final boolean accessPrivate = canAccessPrivateMethods();
 
   public Reflector(Class<?> clazz) {
+    this(clazz, new ReflectionInvokerFactory());
+  }
+
+  public Reflector(Class<?> clazz, InvokerFactory invokerFactory) {
     //初始化type
     type = clazz;
+    this.invokerFactory = invokerFactory;
     //添加默认构造方法
     addDefaultConstructor(clazz);
+    //get和set方法共用一次类层次的方法遍历
+    Method[] methods = getClassMethods(clazz);
     //添加get方法
-    addGetMethods(clazz);
+    addGetMethods(methods);
     //添加set方法
-    addSetMethods(clazz);
+    addSetMethods(methods);
     //添加属性
     addFields(clazz);
+    initPropertyNames();
+  }
+
+  /*
+   * Rebuilds a reflector from the members a ReflectorIndex recorded for the class, without walking its methods.
+   */
+  Reflector(Class<?> clazz, InvokerFactory invokerFactory, Map<String, Member> getters, Map<String, Member> setters) {
+    type = clazz;
+    this.invokerFactory = invokerFactory;
+    addDefaultConstructor(clazz);
+    for (Map.Entry<String, Member> entry : getters.entrySet()) {
+      Member member = entry.getValue();
+      makeAccessible((AccessibleObject) member);
+      if (member instanceof Method) {
+        addGetMethod(entry.getKey(), (Method) member);
+      } else {
+        addGetField((Field) member);
+      }
+    }
+    for (Map.Entry<String, Member> entry : setters.entrySet()) {
+      Member member = entry.getValue();
+      makeAccessible((AccessibleObject) member);
+      if (member instanceof Method) {
+        addSetMethod(entry.getKey(), (Method) member);
+      } else {
+        addSetField((Field) member);
+      }
+    }
+    initPropertyNames();
+  }
+
+  private void initPropertyNames() {
     //根据getMethods集合，初始化readablePropertyNames
     readablePropertyNames = getMethods.keySet().toArray(new String[getMethods.keySet().size()]);
     //根据setMethods集合，初始化writeablePropertyNames
@@ -89,6 +140,69 @@ public class Reflector {
     for (String propName : writeablePropertyNames) {
       caseInsensitivePropertyMap.put(propName.toUpperCase(Locale.ENGLISH), propName);
     }
+    initCaseInsensitiveTable();
+  }
+
+  private void initCaseInsensitiveTable() {
+    int capacity = 4;
+    while (capacity < caseInsensitivePropertyMap.size() * 2) {
+      capacity <<= 1;
+    }
+    String[] keys = new String[capacity];
+    String[] names = new String[capacity];
+    for (Map.Entry<String, String> entry : caseInsensitivePropertyMap.entrySet()) {
+      String key = entry.getKey();
+      int hash = caseInsensitiveHash(key, false);
+      if (hash == NOT_ASCII) {
+        return;
+      }
+      int i = hash & (capacity - 1);
+      while (keys[i] != null) {
+        i = (i + 1) & (capacity - 1);
+      }
+      keys[i] = key;
+      names[i] = entry.getValue();
+    }
+    caseInsensitiveKeys = keys;
+    caseInsensitiveNames = names;
+  }
+
+  //按ASCII大写字符计算哈希，可选择跳过下划线；含非ASCII字符时返回NOT_ASCII
+  private static int caseInsensitiveHash(String name, boolean ignoreUnderscores) {
+    int hash = 0;
+    for (int i = 0, length = name.length(); i < length; i++) {
+      char c = name.charAt(i);
+      if (c >= 128) {
+        return NOT_ASCII;
+      }
+      if (c == '_' && ignoreUnderscores) {
+        continue;
+      }
+      if (c >= 'a' && c <= 'z') {
+        c -= 'a' - 'A';
+      }
+      hash = 31 * hash + c;
+    }
+    return hash & Integer.MAX_VALUE;
+  }
+
+  //name是否与大写的key相同(忽略大小写，可选择忽略name中的下划线)
+  private static boolean matches(String key, String name, boolean ignoreUnderscores) {
+    int k = 0;
+    int keyLength = key.length();
+    for (int i = 0, length = name.length(); i < length; i++) {
+      char c = name.charAt(i);
+      if (c == '_' && ignoreUnderscores) {
+        continue;
+      }
+      if (c >= 'a' && c <= 'z') {
+        c -= 'a' - 'A';
+      }
+      if (k == keyLength || key.charAt(k++) != c) {
+        return false;
+      }
+    }
+    return k == keyLength;
   }
 
   //添加默认的构造函数
@@ -97,13 +211,7 @@ public class Reflector {
     for (Constructor<?> constructor : consts) {
       //若构造函数的形参列表长度为0(即不需要传入任何参数)
       if (constructor.getParameterTypes().length == 0) {
-        if (canAccessPrivateMethods()) {
-          try {
-            constructor.setAccessible(true);
-          } catch (Exception e) {
-            // Ignored. This is only a final precaution, nothing we can do.
-          }
-        }
+        makeAccessible(constructor);
         if (constructor.isAccessible()) {
           this.defaultConstructor = constructor;
         }
@@ -112,9 +220,8 @@ public class Reflector {
   }
 
   //添加get方法
-  private void addGetMethods(Class<?> cls) {
+  private void addGetMethods(Method[] methods) {
     Map<String, List<Method>> conflictingGetters = new HashMap<String, List<Method>>();
-    Method[] methods = getClassMethods(cls);
     //遍历所有方法
     for (Method method : methods) {
       //获取方法名
@@ -172,14 +279,14 @@ public class Reflector {
 
   private void addGetMethod(String name, Method method) {
     if (isValidPropertyName(name)) {
-      getMethods.put(name, new MethodInvoker(method));
+      getMethods.put(name, invokerFactory.createMethodInvoker(method));
       getTypes.put(name, method.getReturnType());
+      getMembers.put(name, method);
     }
   }
 
-  private void addSetMethods(Class<?> cls) {
+  private void addSetMethods(Method[] methods) {
     Map<String, List<Method>> conflictingSetters = new HashMap<String, List<Method>>();
-    Method[] methods = getClassMethods(cls);
     for (Method method : methods) {
       String name = method.getName();
       if (name.startsWith("set") && name.length() > 3) {
@@ -237,21 +344,16 @@ public class Reflector {
 
   private void addSetMethod(String name, Method method) {
     if (isValidPropertyName(name)) {
-      setMethods.put(name, new MethodInvoker(method));
+      setMethods.put(name, invokerFactory.createMethodInvoker(method));
       setTypes.put(name, method.getParameterTypes()[0]);
+      setMembers.put(name, method);
     }
   }
 
   private void addFields(Class<?> clazz) {
     Field[] fields = clazz.getDeclaredFields();
     for (Field field : fields) {
-      if (canAccessPrivateMethods()) {
-        try {
-          field.setAccessible(true);
-        } catch (Exception e) {
-          // Ignored. This is only a final precaution, nothing we can do.
-        }
-      }
+      makeAccessible(field);
       if (field.isAccessible()) {
         if (!setMethods.containsKey(field.getName())) {
           // issue #379 - removed the check for final because JDK 1.5 allows
@@ -274,15 +376,17 @@ public class Reflector {
 
   private void addSetField(Field field) {
     if (isValidPropertyName(field.getName())) {
-      setMethods.put(field.getName(), new SetFieldInvoker(field));
+      setMethods.put(field.getName(), invokerFactory.createSetFieldInvoker(field));
       setTypes.put(field.getName(), field.getType());
+      setMembers.put(field.getName(), field);
     }
   }
 
   private void addGetField(Field field) {
     if (isValidPropertyName(field.getName())) {
-      getMethods.put(field.getName(), new GetFieldInvoker(field));
+      getMethods.put(field.getName(), invokerFactory.createGetFieldInvoker(field));
       getTypes.put(field.getName(), field.getType());
+      getMembers.put(field.getName(), field);
     }
   }
 
@@ -328,13 +432,7 @@ public class Reflector {
         // if it is known, then an extended class must have
         // overridden a method
         if (!uniqueMethods.containsKey(signature)) {
-          if (canAccessPrivateMethods()) {
-            try {
-              currentMethod.setAccessible(true);
-            } catch (Exception e) {
-              // Ignored. This is only a final precaution, nothing we can do.
-            }
-          }
+          makeAccessible(currentMethod);
 
           uniqueMethods.put(signature, currentMethod);
         }
@@ -343,7 +441,7 @@ public class Reflector {
   }
 
   private String getSignature(Method method) {
-    StringBuilder sb = new StringBuilder();
+    StringBuilder sb = new StringBuilder(64);
     Class<?> returnType = method.getReturnType();
     if (returnType != null) {
       sb.append(returnType.getName()).append('#');
@@ -361,6 +459,16 @@ public class Reflector {
     return sb.toString();
   }
 
+  private void makeAccessible(AccessibleObject member) {
+    if (accessPrivate) {
+      try {
+        member.setAccessible(true);
+      } catch (Exception e) {
+        // Ignored. This is only a final precaution, nothing we can do.
+      }
+    }
+  }
+
   //可以访问私有方法
   private static boolean canAccessPrivateMethods() {
     try {
@@ -477,7 +585,37 @@ public class Reflector {
     return getMethods.keySet().contains(propertyName);
   }
 
+  Map<String, Member> getGetMembers() {
+    return getMembers;
+  }
+
+  Map<String, Member> getSetMembers() {
+    return setMembers;
+  }
+
   public String findPropertyName(String name) {
-    return caseInsensitivePropertyMap.get(name.toUpperCase(Locale.ENGLISH));
+    return findPropertyName(name, false);
+  }
+
+  /**
+   * Finds a property ignoring case and, optionally, the underscores of the given name (the property names themselves
+   * are matched as they are). Does not allocate for ASCII names.
+   */
+  public String findPropertyName(String name, boolean ignoreUnderscores) {
+    String[] keys = caseInsensitiveKeys;
+    int hash = keys == null ? NOT_ASCII : caseInsensitiveHash(name, ignoreUnderscores);
+    if (hash == NOT_ASCII) {
+      if (ignoreUnderscores) {
+        name = name.replace("_", "");
+      }
+      return caseInsensitivePropertyMap.get(name.toUpperCase(Locale.ENGLISH));
+    }
+    int mask = keys.length - 1;
+    for (int i = hash & mask; keys[i] != null; i = (i + 1) & mask) {
+      if (matches(keys[i], name, ignoreUnderscores)) {
+        return caseInsensitiveNames[i];
+      }
+    }
+    return null;
   }
 }
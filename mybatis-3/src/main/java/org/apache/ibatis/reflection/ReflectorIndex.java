@@ -0,0 +1,205 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.reflection.invoker.InvokerFactory;
+
+/**
+ * The getters and setters {@link Reflector}s chose for a set of classes, persisted as text, so a later start can
+ * rebuild those reflectors from a few direct member lookups instead of walking and comparing every method of the
+ * class hierarchy.
+ * <p>
+ * The index is only a hint: a class whose recorded members cannot be found anymore is reflected again. It does not
+ * notice members added since it was written, so it must be regenerated (see
+ * {@link DefaultReflectorFactory#createIndex()}) whenever the indexed classes change.
+ * <p>
+ * Format, one entry per line:
+ * <pre>
+ * class com.example.User
+ * get id com.example.BaseEntity getId
+ * set id com.example.BaseEntity setId java.lang.Long
+ * getField name com.example.User name
+ * setField name com.example.User name
+ * </pre>
+ */
+public class ReflectorIndex {
+
+  private static final String CLASS = "class";
+  private static final String GET = "get";
+  private static final String SET = "set";
+  private static final String GET_FIELD = "getField";
+  private static final String SET_FIELD = "setField";
+
+  private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<String, Class<?>>();
+
+  static {
+    for (Class<?> primitive : new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class,
+        long.class, float.class, double.class }) {
+      PRIMITIVE_TYPES.put(primitive.getName(), primitive);
+    }
+  }
+
+  //key->类名，value->该类的各行记录(已按空格拆分)
+  private final Map<String, List<String[]>> entries = new ConcurrentHashMap<String, List<String[]>>();
+
+  public static ReflectorIndex read(Reader reader) throws IOException {
+    ReflectorIndex index = new ReflectorIndex();
+    BufferedReader in = new BufferedReader(reader);
+    List<String[]> current = null;
+    String line;
+    while ((line = in.readLine()) != null) {
+      line = line.trim();
+      if (line.length() == 0 || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split(" ");
+      if (CLASS.equals(fields[0]) && fields.length == 2) {
+        current = new ArrayList<String[]>();
+        index.entries.put(fields[1], current);
+      } else if (current != null) {
+        current.add(fields);
+      } else {
+        throw new ReflectionException("Invalid reflector index line '" + line + "'. Expected a class line first.");
+      }
+    }
+    return index;
+  }
+
+  public void add(Reflector reflector) {
+    List<String[]> lines = new ArrayList<String[]>();
+    for (Map.Entry<String, Member> entry : reflector.getGetMembers().entrySet()) {
+      lines.add(toLine(entry.getKey(), entry.getValue(), true));
+    }
+    for (Map.Entry<String, Member> entry : reflector.getSetMembers().entrySet()) {
+      lines.add(toLine(entry.getKey(), entry.getValue(), false));
+    }
+    entries.put(reflector.getType().getName(), lines);
+  }
+
+  public boolean contains(Class<?> type) {
+    return entries.containsKey(type.getName());
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public void write(Writer writer) throws IOException {
+    for (Map.Entry<String, List<String[]>> entry : entries.entrySet()) {
+      writer.write(CLASS + " " + entry.getKey() + "\n");
+      for (String[] fields : entry.getValue()) {
+        for (int i = 0; i < fields.length; i++) {
+          if (i > 0) {
+            writer.write(' ');
+          }
+          writer.write(fields[i]);
+        }
+        writer.write('\n');
+      }
+    }
+    writer.flush();
+  }
+
+  /**
+   * @return the reflector rebuilt from the index, or null if the class is not indexed or its recorded members do not
+   *         exist anymore
+   */
+  public Reflector newReflector(Class<?> type, InvokerFactory invokerFactory) {
+    List<String[]> lines = entries.get(type.getName());
+    if (lines == null) {
+      return null;
+    }
+    Map<String, Member> getters = new HashMap<String, Member>();
+    Map<String, Member> setters = new HashMap<String, Member>();
+    try {
+      for (String[] fields : lines) {
+        String kind = fields[0];
+        Class<?> declaringClass = findDeclaringClass(type, fields[2]);
+        if (declaringClass == null) {
+          return null;
+        }
+        if (GET.equals(kind)) {
+          getters.put(fields[1], declaringClass.getDeclaredMethod(fields[3]));
+        } else if (SET.equals(kind)) {
+          setters.put(fields[1], declaringClass.getDeclaredMethod(fields[3], resolveType(declaringClass, fields[4])));
+        } else if (GET_FIELD.equals(kind)) {
+          getters.put(fields[1], declaringClass.getDeclaredField(fields[3]));
+        } else if (SET_FIELD.equals(kind)) {
+          setters.put(fields[1], declaringClass.getDeclaredField(fields[3]));
+        } else {
+          return null;
+        }
+      }
+    } catch (Exception e) {
+      // stale or broken entry, reflect the class again
+      return null;
+    }
+    return new Reflector(type, invokerFactory, getters, setters);
+  }
+
+  private static String[] toLine(String property, Member member, boolean getter) {
+    String declaringClass = member.getDeclaringClass().getName();
+    if (member instanceof Field) {
+      return new String[] { getter ? GET_FIELD : SET_FIELD, property, declaringClass, member.getName() };
+    } else if (getter) {
+      return new String[] { GET, property, declaringClass, member.getName() };
+    } else {
+      String parameterType = ((Method) member).getParameterTypes()[0].getName();
+      return new String[] { SET, property, declaringClass, member.getName(), parameterType };
+    }
+  }
+
+  //在类层次(父类和接口)中按名称查找声明成员的类，不需要通过类加载器
+  private static Class<?> findDeclaringClass(Class<?> type, String name) {
+    if (type == null) {
+      return null;
+    }
+    if (type.getName().equals(name)) {
+      return type;
+    }
+    Class<?> found = findDeclaringClass(type.getSuperclass(), name);
+    if (found == null) {
+      for (Class<?> anInterface : type.getInterfaces()) {
+        found = findDeclaringClass(anInterface, name);
+        if (found != null) {
+          break;
+        }
+      }
+    }
+    return found;
+  }
+
+  private static Class<?> resolveType(Class<?> declaringClass, String name) throws ClassNotFoundException {
+    Class<?> primitive = PRIMITIVE_TYPES.get(name);
+    if (primitive != null) {
+      return primitive;
+    }
+    return Class.forName(name, false, declaringClass.getClassLoader());
+  }
+}
@@ -17,6 +17,7 @@ package org.apache.ibatis.reflection.factory;
 
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -27,7 +28,10 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.apache.ibatis.reflection.Jdk;
 import org.apache.ibatis.reflection.ReflectionException;
 
 /**
@@ -37,6 +41,11 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
 
   private static final long serialVersionUID = -8855120656740914948L;
 
+  //key->请求创建的类型，value->解析接口后的实现类的无参构造器
+  private transient volatile ConcurrentMap<Class<?>, Instantiator> instantiators;
+  //带参构造器，key->类型和参数类型
+  private transient volatile ConcurrentMap<List<Object>, Constructor<?>> constructors;
+
   @Override
   public <T> T create(Class<T> type) {
     return create(type, null, null);
@@ -45,11 +54,45 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
   @SuppressWarnings("unchecked")
   @Override
   public <T> T create(Class<T> type, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+    if (constructorArgTypes == null || constructorArgs == null) {
+      Instantiator instantiator = getInstantiator(type);
+      if (instantiator != null) {
+        try {
+          return (T) instantiator.newInstance();
+        } catch (Exception e) {
+          throw instantiationError(resolveInterface(type), null, null, e);
+        }
+      }
+    }
     Class<?> classToCreate = resolveInterface(type);
     // we know types are assignable
     return (T) instantiateClass(classToCreate, constructorArgTypes, constructorArgs);
   }
 
+  /**
+   * Creates an empty collection or map of the given type sized for the given number of elements. The hint is only
+   * applied by this class itself to {@link ArrayList}, {@link HashSet} and {@link HashMap}; everything else, and every
+   * type when called on a subclass, is created by {@link #create(Class)}.
+   *
+   * @param capacity the expected number of elements
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T create(Class<T> type, int capacity) {
+    if (getClass() != DefaultObjectFactory.class) {
+      // 子类可能重写了create方法
+      return create(type);
+    }
+    Class<?> classToCreate = resolveInterface(type);
+    if (classToCreate == ArrayList.class) {
+      return (T) new ArrayList<Object>(capacity);
+    } else if (classToCreate == HashSet.class) {
+      return (T) new HashSet<Object>(Math.max((int) (capacity / .75f) + 1, 16));
+    } else if (classToCreate == HashMap.class) {
+      return (T) new HashMap<Object, Object>(Math.max((int) (capacity / .75f) + 1, 16));
+    }
+    return create(type);
+  }
+
   @Override
   public void setProperties(Properties properties) {
     // no props for default
@@ -65,30 +108,84 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
         }
         return constructor.newInstance();
       }
-      constructor = type.getDeclaredConstructor(constructorArgTypes.toArray(new Class[constructorArgTypes.size()]));
-      if (!constructor.isAccessible()) {
-        constructor.setAccessible(true);
-      }
+      constructor = getConstructor(type, constructorArgTypes);
       return constructor.newInstance(constructorArgs.toArray(new Object[constructorArgs.size()]));
     } catch (Exception e) {
-      StringBuilder argTypes = new StringBuilder();
-      if (constructorArgTypes != null && !constructorArgTypes.isEmpty()) {
-        for (Class<?> argType : constructorArgTypes) {
-          argTypes.append(argType.getSimpleName());
-          argTypes.append(",");
-        }
-        argTypes.deleteCharAt(argTypes.length() - 1); // remove trailing ,
+      throw instantiationError(type, constructorArgTypes, constructorArgs, e);
+    }
+  }
+
+  private static ReflectionException instantiationError(Class<?> type, List<Class<?>> constructorArgTypes, List<Object> constructorArgs, Exception e) {
+    StringBuilder argTypes = new StringBuilder();
+    if (constructorArgTypes != null && !constructorArgTypes.isEmpty()) {
+      for (Class<?> argType : constructorArgTypes) {
+        argTypes.append(argType.getSimpleName());
+        argTypes.append(",");
       }
-      StringBuilder argValues = new StringBuilder();
-      if (constructorArgs != null && !constructorArgs.isEmpty()) {
-        for (Object argValue : constructorArgs) {
-          argValues.append(String.valueOf(argValue));
-          argValues.append(",");
+      argTypes.deleteCharAt(argTypes.length() - 1); // remove trailing ,
+    }
+    StringBuilder argValues = new StringBuilder();
+    if (constructorArgs != null && !constructorArgs.isEmpty()) {
+      for (Object argValue : constructorArgs) {
+        argValues.append(String.valueOf(argValue));
+        argValues.append(",");
+      }
+      argValues.deleteCharAt(argValues.length() - 1); // remove trailing ,
+    }
+    return new ReflectionException("Error instantiating " + type + " with invalid types (" + argTypes + ") or values (" + argValues + "). Cause: " + e, e);
+  }
+
+  /*
+   * Returns the cached no-arg instantiator of the class the type resolves to, or null if it has no usable no-arg
+   * constructor, in which case instantiateClass reports the error.
+   */
+  private Instantiator getInstantiator(Class<?> type) {
+    ConcurrentMap<Class<?>, Instantiator> cache = instantiators;
+    if (cache == null) {
+      cache = new ConcurrentHashMap<Class<?>, Instantiator>();
+      instantiators = cache;
+    }
+    Instantiator instantiator = cache.get(type);
+    if (instantiator == null) {
+      Class<?> classToCreate = resolveInterface(type);
+      try {
+        Constructor<?> constructor = classToCreate.getDeclaredConstructor();
+        if (!constructor.isAccessible()) {
+          constructor.setAccessible(true);
         }
-        argValues.deleteCharAt(argValues.length() - 1); // remove trailing ,
+        if (Jdk.lambdaMetafactoryExists && !Modifier.isAbstract(classToCreate.getModifiers())) {
+          instantiator = LambdaInstantiator.create(constructor);
+        }
+        if (instantiator == null) {
+          instantiator = new ConstructorInstantiator(constructor);
+        }
+      } catch (Exception e) {
+        return null;
+      }
+      cache.put(type, instantiator);
+    }
+    return instantiator;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Constructor<T> getConstructor(Class<T> type, List<Class<?>> constructorArgTypes) throws NoSuchMethodException {
+    ConcurrentMap<List<Object>, Constructor<?>> cache = constructors;
+    if (cache == null) {
+      cache = new ConcurrentHashMap<List<Object>, Constructor<?>>();
+      constructors = cache;
+    }
+    List<Object> key = new ArrayList<Object>(constructorArgTypes.size() + 1);
+    key.add(type);
+    key.addAll(constructorArgTypes);
+    Constructor<T> constructor = (Constructor<T>) cache.get(key);
+    if (constructor == null) {
+      constructor = type.getDeclaredConstructor(constructorArgTypes.toArray(new Class[constructorArgTypes.size()]));
+      if (!constructor.isAccessible()) {
+        constructor.setAccessible(true);
       }
-      throw new ReflectionException("Error instantiating " + type + " with invalid types (" + argTypes + ") or values (" + argValues + "). Cause: " + e, e);
+      cache.put(key, constructor);
     }
+    return constructor;
   }
 
   protected Class<?> resolveInterface(Class<?> type) {
@@ -112,4 +209,21 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
     return Collection.class.isAssignableFrom(type);
   }
 
+  interface Instantiator {
+    Object newInstance() throws Exception;
+  }
+
+  private static class ConstructorInstantiator implements Instantiator {
+    private final Constructor<?> constructor;
+
+    ConstructorInstantiator(Constructor<?> constructor) {
+      this.constructor = constructor;
+    }
+
+    @Override
+    public Object newInstance() throws Exception {
+      return constructor.newInstance();
+    }
+  }
+
 }
@@ -0,0 +1,72 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.factory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.lang.UsesJava8;
+import org.apache.ibatis.reflection.PrivateLookup;
+
+/**
+ * Calls a no-arg constructor through a {@link Supplier} spun by {@link LambdaMetafactory}.
+ */
+@UsesJava8
+class LambdaInstantiator implements DefaultObjectFactory.Instantiator {
+
+  private static final MethodType SUPPLIER_FACTORY = MethodType.methodType(Supplier.class);
+  private static final MethodType SUPPLIER_GET = MethodType.methodType(Object.class);
+
+  private final Supplier<Object> supplier;
+
+  private LambdaInstantiator(Supplier<Object> supplier) {
+    this.supplier = supplier;
+  }
+
+  /**
+   * @return the instantiator, or null if the constructor cannot be bound
+   */
+  @SuppressWarnings("unchecked")
+  static DefaultObjectFactory.Instantiator create(Constructor<?> constructor) {
+    try {
+      Class<?> type = constructor.getDeclaringClass();
+      MethodHandles.Lookup lookup = PrivateLookup.in(type);
+      if (lookup == null) {
+        return null;
+      }
+      CallSite site = LambdaMetafactory.metafactory(lookup, "get", SUPPLIER_FACTORY, SUPPLIER_GET,
+          lookup.unreflectConstructor(constructor), MethodType.methodType(type));
+      return new LambdaInstantiator((Supplier<Object>) site.getTarget().invokeWithArguments());
+    } catch (Throwable e) {
+      return null;
+    }
+  }
+
+  @Override
+  public Object newInstance() throws Exception {
+    try {
+      return supplier.get();
+    } catch (Throwable t) {
+      // 与Constructor.newInstance保持一致
+      throw new InvocationTargetException(t);
+    }
+  }
+}
@@ -0,0 +1,406 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.apache.ibatis.lang.UsesJava8;
+import org.apache.ibatis.reflection.PrivateLookup;
+
+/**
+ * Creates invokers that call getters and setters through a {@link Function} or {@link BiConsumer} spun once per
+ * method by {@link LambdaMetafactory}, so a call is a plain interface call instead of {@link Method#invoke}.
+ * Properties of type {@code int}, {@code long} and {@code double} are bound to the primitive specializations of
+ * those interfaces and their invokers implement {@link PrimitiveInvoker}.
+ * <p>
+ * Methods the factory cannot bind (static methods, methods of classes that cannot be looked up privately) fall back
+ * to a {@link MethodInvoker}. Field access keeps using {@link GetFieldInvoker} and {@link SetFieldInvoker}:
+ * {@link LambdaMetafactory} only binds method handles, and accessible fields are already read without an argument
+ * array.
+ * <p>
+ * The invokers extend {@link MethodInvoker}, so code that inspects the underlying method keeps working.
+ */
+@UsesJava8
+public class LambdaInvokerFactory implements InvokerFactory {
+
+  private static final MethodType FUNCTION_APPLY = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType BI_CONSUMER_ACCEPT = MethodType.methodType(void.class, Object.class, Object.class);
+  private static final int INT_RANK = 3;
+
+  @Override
+  public Invoker createMethodInvoker(Method method) {
+    int parameterCount = method.getParameterTypes().length;
+    if (parameterCount < 2 && !Modifier.isStatic(method.getModifiers())) {
+      try {
+        MethodHandles.Lookup lookup = PrivateLookup.in(method.getDeclaringClass());
+        if (lookup != null) {
+          return parameterCount == 0 ? createGetter(lookup, method) : createSetter(lookup, method);
+        }
+      } catch (Throwable e) {
+        // Ignored. The method cannot be bound, use reflection.
+      }
+    }
+    return new MethodInvoker(method);
+  }
+
+  @Override
+  public Invoker createGetFieldInvoker(Field field) {
+    return new GetFieldInvoker(field);
+  }
+
+  @Override
+  public Invoker createSetFieldInvoker(Field field) {
+    return new SetFieldInvoker(field);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Invoker createGetter(MethodHandles.Lookup lookup, Method method) throws Throwable {
+    Class<?> type = method.getReturnType();
+    Class<?> target = method.getDeclaringClass();
+    if (type == int.class) {
+      return new IntGetterInvoker(method, (ToIntFunction<Object>) bind(lookup, method, ToIntFunction.class,
+          "applyAsInt", MethodType.methodType(int.class, Object.class), MethodType.methodType(int.class, target)));
+    } else if (type == long.class) {
+      return new LongGetterInvoker(method, (ToLongFunction<Object>) bind(lookup, method, ToLongFunction.class,
+          "applyAsLong", MethodType.methodType(long.class, Object.class), MethodType.methodType(long.class, target)));
+    } else if (type == double.class) {
+      return new DoubleGetterInvoker(method, (ToDoubleFunction<Object>) bind(lookup, method, ToDoubleFunction.class,
+          "applyAsDouble", MethodType.methodType(double.class, Object.class), MethodType.methodType(double.class, target)));
+    }
+    return new GetterInvoker(method, (Function<Object, Object>) bind(lookup, method, Function.class,
+        "apply", FUNCTION_APPLY, MethodType.methodType(wrap(type), target)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Invoker createSetter(MethodHandles.Lookup lookup, Method method) throws Throwable {
+    Class<?> type = method.getParameterTypes()[0];
+    Class<?> target = method.getDeclaringClass();
+    if (type == int.class) {
+      return new IntSetterInvoker(method, (ObjIntConsumer<Object>) bind(lookup, method, ObjIntConsumer.class,
+          "accept", MethodType.methodType(void.class, Object.class, int.class), MethodType.methodType(void.class, target, int.class)));
+    } else if (type == long.class) {
+      return new LongSetterInvoker(method, (ObjLongConsumer<Object>) bind(lookup, method, ObjLongConsumer.class,
+          "accept", MethodType.methodType(void.class, Object.class, long.class), MethodType.methodType(void.class, target, long.class)));
+    } else if (type == double.class) {
+      return new DoubleSetterInvoker(method, (ObjDoubleConsumer<Object>) bind(lookup, method, ObjDoubleConsumer.class,
+          "accept", MethodType.methodType(void.class, Object.class, double.class), MethodType.methodType(void.class, target, double.class)));
+    }
+    return new SetterInvoker(method, (BiConsumer<Object, Object>) bind(lookup, method, BiConsumer.class,
+        "accept", BI_CONSUMER_ACCEPT, MethodType.methodType(void.class, target, wrap(type))));
+  }
+
+  private static Object bind(MethodHandles.Lookup lookup, Method method, Class<?> functionalInterface, String name,
+      MethodType erased, MethodType instantiated) throws Throwable {
+    CallSite site = LambdaMetafactory.metafactory(lookup, name, MethodType.methodType(functionalInterface), erased,
+        lookup.unreflect(method), instantiated);
+    return site.getTarget().invokeWithArguments();
+  }
+
+  private static Class<?> wrap(Class<?> type) {
+    return MethodType.methodType(type).wrap().returnType();
+  }
+
+  private static void checkNotNull(MethodInvoker invoker, Object value) {
+    if (value == null) {
+      // 与Method.invoke保持一致
+      throw new IllegalArgumentException("Cannot assign null to a property of primitive type " + invoker.getType());
+    }
+  }
+
+  /**
+   * Converts the argument of a setter of primitive type to its exact wrapper type, accepting the same widening
+   * conversions as {@link Method#invoke}, e.g. an {@link Integer} for a {@code long}.
+   */
+  private static Object widen(MethodInvoker invoker, Object value) {
+    checkNotNull(invoker, value);
+    Class<?> type = invoker.getType();
+    Class<?> valueType = value.getClass();
+    if (valueType == wrap(type)) {
+      return value;
+    }
+    int from = rank(valueType);
+    int to = rank(type);
+    if (from > 0 && from < to && (to >= INT_RANK || valueType == Byte.class)) {
+      Number number = value instanceof Character ? Integer.valueOf((Character) value) : (Number) value;
+      if (type == short.class) {
+        return number.shortValue();
+      } else if (type == int.class) {
+        return number.intValue();
+      } else if (type == long.class) {
+        return number.longValue();
+      } else if (type == float.class) {
+        return number.floatValue();
+      } else if (type == double.class) {
+        return number.doubleValue();
+      }
+    }
+    // 与Method.invoke保持一致
+    throw new IllegalArgumentException("argument type mismatch");
+  }
+
+  //基本类型拓宽转换的次序，char只能拓宽为int及以上
+  private static int rank(Class<?> type) {
+    if (type == byte.class || type == Byte.class) {
+      return 1;
+    } else if (type == short.class || type == Short.class || type == Character.class) {
+      return 2;
+    } else if (type == int.class || type == Integer.class) {
+      return INT_RANK;
+    } else if (type == long.class || type == Long.class) {
+      return 4;
+    } else if (type == float.class || type == Float.class) {
+      return 5;
+    } else if (type == double.class || type == Double.class) {
+      return 6;
+    }
+    return 0;
+  }
+
+  @UsesJava8
+  static class GetterInvoker extends MethodInvoker {
+
+    private final Function<Object, Object> getter;
+
+    GetterInvoker(Method method, Function<Object, Object> getter) {
+      super(method);
+      this.getter = getter;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+      try {
+        return getter.apply(target);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+  @UsesJava8
+  static class SetterInvoker extends MethodInvoker {
+
+    private final BiConsumer<Object, Object> setter;
+    private final boolean primitive;
+    private final Class<?> wrapper;
+
+    SetterInvoker(Method method, BiConsumer<Object, Object> setter) {
+      super(method);
+      this.setter = setter;
+      this.primitive = method.getParameterTypes()[0].isPrimitive();
+      this.wrapper = wrap(method.getParameterTypes()[0]);
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+      Object value = args[0];
+      if (primitive && !wrapper.isInstance(value)) {
+        value = widen(this, value);
+      }
+      try {
+        setter.accept(target, value);
+        return null;
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+  @UsesJava8
+  static class IntGetterInvoker extends MethodInvoker implements PrimitiveInvoker.IntGetter {
+
+    private final ToIntFunction<Object> getter;
+
+    IntGetterInvoker(Method method, ToIntFunction<Object> getter) {
+      super(method);
+      this.getter = getter;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+      return getInt(target);
+    }
+
+    @Override
+    public int getInt(Object target) throws InvocationTargetException {
+      try {
+        return getter.applyAsInt(target);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+  @UsesJava8
+  static class IntSetterInvoker extends MethodInvoker implements PrimitiveInvoker.IntSetter {
+
+    private final ObjIntConsumer<Object> setter;
+
+    IntSetterInvoker(Method method, ObjIntConsumer<Object> setter) {
+      super(method);
+      this.setter = setter;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+      Object arg = args[0];
+      int value = (Integer) (arg instanceof Integer ? arg : widen(this, arg));
+      try {
+        setter.accept(target, value);
+        return null;
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+
+    @Override
+    public void setInt(Object target, int value) throws InvocationTargetException {
+      try {
+        setter.accept(target, value);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+  @UsesJava8
+  static class LongGetterInvoker extends MethodInvoker implements PrimitiveInvoker.LongGetter {
+
+    private final ToLongFunction<Object> getter;
+
+    LongGetterInvoker(Method method, ToLongFunction<Object> getter) {
+      super(method);
+      this.getter = getter;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+      return getLong(target);
+    }
+
+    @Override
+    public long getLong(Object target) throws InvocationTargetException {
+      try {
+        return getter.applyAsLong(target);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+  @UsesJava8
+  static class LongSetterInvoker extends MethodInvoker implements PrimitiveInvoker.LongSetter {
+
+    private final ObjLongConsumer<Object> setter;
+
+    LongSetterInvoker(Method method, ObjLongConsumer<Object> setter) {
+      super(method);
+      this.setter = setter;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+      Object arg = args[0];
+      long value = (Long) (arg instanceof Long ? arg : widen(this, arg));
+      try {
+        setter.accept(target, value);
+        return null;
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+
+    @Override
+    public void setLong(Object target, long value) throws InvocationTargetException {
+      try {
+        setter.accept(target, value);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+  @UsesJava8
+  static class DoubleGetterInvoker extends MethodInvoker implements PrimitiveInvoker.DoubleGetter {
+
+    private final ToDoubleFunction<Object> getter;
+
+    DoubleGetterInvoker(Method method, ToDoubleFunction<Object> getter) {
+      super(method);
+      this.getter = getter;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+      return getDouble(target);
+    }
+
+    @Override
+    public double getDouble(Object target) throws InvocationTargetException {
+      try {
+        return getter.applyAsDouble(target);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+  @UsesJava8
+  static class DoubleSetterInvoker extends MethodInvoker implements PrimitiveInvoker.DoubleSetter {
+
+    private final ObjDoubleConsumer<Object> setter;
+
+    DoubleSetterInvoker(Method method, ObjDoubleConsumer<Object> setter) {
+      super(method);
+      this.setter = setter;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+      Object arg = args[0];
+      double value = (Double) (arg instanceof Double ? arg : widen(this, arg));
+      try {
+        setter.accept(target, value);
+        return null;
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+
+    @Override
+    public void setDouble(Object target, double value) throws InvocationTargetException {
+      try {
+        setter.accept(target, value);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * An {@link Invoker} of an {@code int}, {@code long} or {@code double} getter or setter that can also pass the value
+ * without boxing it. Exceptions thrown by the property accessor are wrapped like {@link #invoke(Object, Object[])}
+ * does.
+ */
+public interface PrimitiveInvoker extends Invoker {
+
+  interface IntGetter extends PrimitiveInvoker {
+    int getInt(Object target) throws InvocationTargetException;
+  }
+
+  interface IntSetter extends PrimitiveInvoker {
+    void setInt(Object target, int value) throws InvocationTargetException;
+  }
+
+  interface LongGetter extends PrimitiveInvoker {
+    long getLong(Object target) throws InvocationTargetException;
+  }
+
+  interface LongSetter extends PrimitiveInvoker {
+    void setLong(Object target, long value) throws InvocationTargetException;
+  }
+
+  interface DoubleGetter extends PrimitiveInvoker {
+    double getDouble(Object target) throws InvocationTargetException;
+  }
+
+  interface DoubleSetter extends PrimitiveInvoker {
+    void setDouble(Object target, double value) throws InvocationTargetException;
+  }
+
+}
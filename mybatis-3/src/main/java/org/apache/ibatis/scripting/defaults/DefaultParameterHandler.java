@@ -28,6 +28,7 @@ import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.PrimitiveTypeHandler;
 import org.apache.ibatis.type.TypeException;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
@@ -95,6 +96,11 @@ public class DefaultParameterHandler implements ParameterHandler {
           //适用于自定义类型的参数传递，根据参数名使用反射拿到实际属性值
           else {
             MetaObject metaObject = configuration.newMetaObject(parameterObject);
+            //属性和类型处理器都是int/long/double时不装箱直接设置参数
+            if (parameterMapping.getTypeHandler() instanceof PrimitiveTypeHandler
+                && setPrimitiveParameter(ps, i + 1, metaObject, parameterMapping)) {
+              continue;
+            }
             value = metaObject.getValue(propertyName);
           }
 
@@ -121,4 +127,26 @@ public class DefaultParameterHandler implements ParameterHandler {
     }
   }
 
+  private boolean setPrimitiveParameter(PreparedStatement ps, int i, MetaObject metaObject, ParameterMapping parameterMapping) {
+    TypeHandler<?> typeHandler = parameterMapping.getTypeHandler();
+    String propertyName = parameterMapping.getProperty();
+    JdbcType jdbcType = parameterMapping.getJdbcType();
+    try {
+      if (typeHandler instanceof PrimitiveTypeHandler.OfInt && metaObject.hasPrimitiveGetter(propertyName, int.class)) {
+        ((PrimitiveTypeHandler.OfInt) typeHandler).setInt(ps, i, metaObject.getInt(propertyName), jdbcType);
+      } else if (typeHandler instanceof PrimitiveTypeHandler.OfLong && metaObject.hasPrimitiveGetter(propertyName, long.class)) {
+        ((PrimitiveTypeHandler.OfLong) typeHandler).setLong(ps, i, metaObject.getLong(propertyName), jdbcType);
+      } else if (typeHandler instanceof PrimitiveTypeHandler.OfDouble && metaObject.hasPrimitiveGetter(propertyName, double.class)) {
+        ((PrimitiveTypeHandler.OfDouble) typeHandler).setDouble(ps, i, metaObject.getDouble(propertyName), jdbcType);
+      } else {
+        return false;
+      }
+    } catch (TypeException e) {
+      throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
+    } catch (SQLException e) {
+      throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
+    }
+    return true;
+  }
+
 }
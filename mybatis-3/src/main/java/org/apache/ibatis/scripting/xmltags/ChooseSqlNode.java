@@ -42,4 +42,12 @@ public class ChooseSqlNode implements SqlNode {
     }
     return false;
   }
+
+  List<SqlNode> getIfSqlNodes() {
+    return ifSqlNodes;
+  }
+
+  SqlNode getDefaultSqlNode() {
+    return defaultSqlNode;
+  }
 }
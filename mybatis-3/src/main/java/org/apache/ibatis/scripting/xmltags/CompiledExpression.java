@@ -0,0 +1,653 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
+
+/**
+ * Natively evaluated form of the small OGNL subset used by most dynamic SQL tests: property paths,
+ * <code>null</code>/boolean/number/string literals, <code>==</code>, <code>!=</code>, relational
+ * operators, <code>and</code>, <code>or</code>, <code>not</code> (and their symbolic forms), parentheses
+ * and the <code>size()</code>, <code>isEmpty()</code> and <code>length()</code> calls.
+ * <p>
+ * Expressions are compiled once into a tree of nodes with cached accessors. Whenever a value falls outside
+ * of what can be evaluated exactly like OGNL would (other operand types, other property accessors, null
+ * navigation, errors...) {@link #evaluate(Object)} returns {@link #UNSUPPORTED} and the caller is expected to
+ * evaluate the expression with OGNL instead, so results and error messages stay the same.
+ *
+ * @see OgnlCache
+ */
+abstract class CompiledExpression {
+
+  /**
+   * Returned by {@link #evaluate(Object)} when the expression has to be evaluated by OGNL.
+   */
+  static final Object UNSUPPORTED = new Object();
+
+  private static final Set<String> KEYWORDS = new HashSet<String>(Arrays.asList(
+      "and", "or", "not", "eq", "neq", "lt", "gt", "lte", "gte", "in", "instanceof", "shl", "shr", "ushr",
+      "band", "bor", "xor", "new", "true", "false", "null", "this"));
+
+  //OGNL的MapPropertyAccessor对这些属性名有特殊处理
+  private static final Set<String> MAP_SPECIAL_PROPERTIES = new HashSet<String>(Arrays.asList(
+      "size", "keys", "keySet", "values", "isEmpty"));
+
+  private static final DynamicContext.ContextAccessor CONTEXT_ACCESSOR = new DynamicContext.ContextAccessor();
+
+  private static final Invoker NO_GETTER = new GetFieldInvoker(null);
+
+  private static final Map<Class<?>, Map<String, Invoker>> getters = new ConcurrentHashMap<Class<?>, Map<String, Invoker>>();
+
+  abstract Object evaluate(Object root);
+
+  /**
+   * @return the compiled expression or null when it uses anything outside of the supported subset
+   */
+  static CompiledExpression compile(String expression) {
+    try {
+      Parser parser = new Parser(expression);
+      CompiledExpression compiled = parser.parseOr();
+      return parser.atEnd() ? compiled : null;
+    } catch (UnsupportedExpressionException e) {
+      return null;
+    }
+  }
+
+  // OgnlOps.booleanValue
+  static boolean booleanValue(Object value) {
+    if (value == null) {
+      return false;
+    }
+    Class<?> type = value.getClass();
+    if (type == Boolean.class) {
+      return (Boolean) value;
+    }
+    if (type == String.class) {
+      return Boolean.parseBoolean((String) value);
+    }
+    if (type == Character.class) {
+      return (Character) value != 0;
+    }
+    if (value instanceof Number) {
+      return ((Number) value).doubleValue() != 0;
+    }
+    return true;
+  }
+
+  private static boolean isIntegral(Object value) {
+    return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+  }
+
+  private static boolean isFloating(Object value) {
+    return value instanceof Double || value instanceof Float;
+  }
+
+  // OgnlOps.compareWithConversion for the types handled here, null if OGNL has to decide
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static Integer compare(Object left, Object right) {
+    if (isIntegral(left) && isIntegral(right)) {
+      long l = ((Number) left).longValue();
+      long r = ((Number) right).longValue();
+      return l == r ? 0 : (l < r ? -1 : 1);
+    }
+    if ((isIntegral(left) || isFloating(left)) && (isIntegral(right) || isFloating(right))) {
+      double l = ((Number) left).doubleValue();
+      double r = ((Number) right).doubleValue();
+      return l == r ? 0 : (l < r ? -1 : 1);
+    }
+    if (left instanceof String && right instanceof String) {
+      return ((String) left).compareTo((String) right);
+    }
+    if (left instanceof Enum && left.getClass() == right.getClass()) {
+      return ((Comparable) left).compareTo(right);
+    }
+    return null;
+  }
+
+  static Object getProperty(Object target, String name) {
+    try {
+      if (target instanceof DynamicContext.ContextMap) {
+        return CONTEXT_ACCESSOR.getProperty(null, target, name);
+      }
+      if (target instanceof Map) {
+        return MAP_SPECIAL_PROPERTIES.contains(name) ? UNSUPPORTED : ((Map<?, ?>) target).get(name);
+      }
+      if (target instanceof Collection || target instanceof Iterator || target instanceof Enumeration
+          || target.getClass().isArray()) {
+        return UNSUPPORTED;
+      }
+      Invoker getter = getGetter(target.getClass(), name);
+      return getter == NO_GETTER ? UNSUPPORTED : getter.invoke(target, null);
+    } catch (Exception e) {
+      // let OGNL report it
+      return UNSUPPORTED;
+    }
+  }
+
+  private static Invoker getGetter(Class<?> type, String name) {
+    Map<String, Invoker> typeGetters = getters.get(type);
+    if (typeGetters == null) {
+      typeGetters = new ConcurrentHashMap<String, Invoker>();
+      getters.put(type, typeGetters);
+    }
+    Invoker getter = typeGetters.get(name);
+    if (getter == null) {
+      getter = resolveGetter(type, name);
+      typeGetters.put(name, getter);
+    }
+    return getter;
+  }
+
+  //与OGNL一致：优先使用public的getXxx/isXxx方法，其次是public字段
+  private static Invoker resolveGetter(Class<?> type, String name) {
+    String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    for (String prefix : new String[] { "get", "is" }) {
+      try {
+        Method method = type.getMethod(prefix + capitalized);
+        if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class) {
+          method.setAccessible(true);
+          return new MethodInvoker(method);
+        }
+      } catch (NoSuchMethodException e) {
+        // try next
+      } catch (SecurityException e) {
+        return NO_GETTER;
+      }
+    }
+    try {
+      Field field = type.getField(name);
+      if (!Modifier.isStatic(field.getModifiers())) {
+        return new GetFieldInvoker(field);
+      }
+    } catch (NoSuchFieldException e) {
+      // no getter
+    } catch (SecurityException e) {
+      // no getter
+    }
+    return NO_GETTER;
+  }
+
+  static Object invokeMethod(Object target, String name) {
+    if ("size".equals(name)) {
+      if (target instanceof Collection) {
+        return ((Collection<?>) target).size();
+      }
+      if (target instanceof Map) {
+        return ((Map<?, ?>) target).size();
+      }
+    } else if ("isEmpty".equals(name)) {
+      if (target instanceof Collection) {
+        return ((Collection<?>) target).isEmpty();
+      }
+      if (target instanceof Map) {
+        return ((Map<?, ?>) target).isEmpty();
+      }
+      if (target instanceof String) {
+        return ((String) target).length() == 0;
+      }
+    } else if ("length".equals(name) && target instanceof CharSequence) {
+      return ((CharSequence) target).length();
+    }
+    return UNSUPPORTED;
+  }
+
+  private static final class Literal extends CompiledExpression {
+    private final Object value;
+
+    Literal(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    Object evaluate(Object root) {
+      return value;
+    }
+  }
+
+  private static final class Path extends CompiledExpression {
+    private final String[] names;
+    //对应的名称是否为无参方法调用
+    private final boolean[] calls;
+
+    Path(String[] names, boolean[] calls) {
+      this.names = names;
+      this.calls = calls;
+    }
+
+    @Override
+    Object evaluate(Object root) {
+      Object value = root;
+      for (int i = 0; i < names.length; i++) {
+        if (value == null) {
+          return UNSUPPORTED;
+        }
+        value = calls[i] ? invokeMethod(value, names[i]) : getProperty(value, names[i]);
+        if (value == UNSUPPORTED) {
+          return value;
+        }
+      }
+      return value;
+    }
+  }
+
+  private static final class Not extends CompiledExpression {
+    private final CompiledExpression operand;
+
+    Not(CompiledExpression operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    Object evaluate(Object root) {
+      Object value = operand.evaluate(root);
+      if (value == UNSUPPORTED) {
+        return value;
+      }
+      return booleanValue(value) ? Boolean.FALSE : Boolean.TRUE;
+    }
+  }
+
+  // like OGNL, "and"/"or" return the value of the last evaluated operand
+  private static final class Junction extends CompiledExpression {
+    private final CompiledExpression[] operands;
+    private final boolean and;
+
+    Junction(List<CompiledExpression> operands, boolean and) {
+      this.operands = operands.toArray(new CompiledExpression[operands.size()]);
+      this.and = and;
+    }
+
+    @Override
+    Object evaluate(Object root) {
+      Object value = null;
+      for (int i = 0; i < operands.length; i++) {
+        value = operands[i].evaluate(root);
+        if (value == UNSUPPORTED || booleanValue(value) != and) {
+          return value;
+        }
+      }
+      return value;
+    }
+  }
+
+  private static final class Equality extends CompiledExpression {
+    private final CompiledExpression left;
+    private final CompiledExpression right;
+    private final boolean negate;
+
+    Equality(CompiledExpression left, CompiledExpression right, boolean negate) {
+      this.left = left;
+      this.right = right;
+      this.negate = negate;
+    }
+
+    @Override
+    Object evaluate(Object root) {
+      Object l = left.evaluate(root);
+      if (l == UNSUPPORTED) {
+        return l;
+      }
+      Object r = right.evaluate(root);
+      if (r == UNSUPPORTED) {
+        return r;
+      }
+      boolean equal;
+      if (l == r) {
+        equal = true;
+      } else if (l == null || r == null) {
+        equal = false;
+      } else if ((l instanceof Boolean && r instanceof Boolean) || (l instanceof String && r instanceof String)) {
+        equal = l.equals(r);
+      } else {
+        Integer comparison = compare(l, r);
+        if (comparison == null) {
+          return UNSUPPORTED;
+        }
+        equal = comparison == 0;
+      }
+      return equal != negate ? Boolean.TRUE : Boolean.FALSE;
+    }
+  }
+
+  private static final class Comparison extends CompiledExpression {
+    private final CompiledExpression left;
+    private final CompiledExpression right;
+    private final String operator;
+
+    Comparison(CompiledExpression left, CompiledExpression right, String operator) {
+      this.left = left;
+      this.right = right;
+      this.operator = operator;
+    }
+
+    @Override
+    Object evaluate(Object root) {
+      Object l = left.evaluate(root);
+      if (l == UNSUPPORTED) {
+        return l;
+      }
+      Object r = right.evaluate(root);
+      if (r == UNSUPPORTED || l == null || r == null) {
+        return UNSUPPORTED;
+      }
+      Integer comparison = compare(l, r);
+      if (comparison == null) {
+        return UNSUPPORTED;
+      }
+      boolean result;
+      if ("<".equals(operator)) {
+        result = comparison < 0;
+      } else if ("<=".equals(operator)) {
+        result = comparison <= 0;
+      } else if (">".equals(operator)) {
+        result = comparison > 0;
+      } else {
+        result = comparison >= 0;
+      }
+      return result ? Boolean.TRUE : Boolean.FALSE;
+    }
+  }
+
+  private static final class UnsupportedExpressionException extends Exception {
+    private static final long serialVersionUID = -5062532302398471734L;
+  }
+
+  /**
+   * Recursive descent parser following OGNL operator precedence. Anything it does not know about makes the
+   * whole expression fall back to OGNL.
+   */
+  private static final class Parser {
+    private final String expression;
+    private int position;
+
+    Parser(String expression) {
+      this.expression = expression;
+    }
+
+    boolean atEnd() {
+      skipWhitespace();
+      return position == expression.length();
+    }
+
+    CompiledExpression parseOr() throws UnsupportedExpressionException {
+      List<CompiledExpression> operands = new ArrayList<CompiledExpression>();
+      operands.add(parseAnd());
+      while (acceptOperator("||") || acceptKeyword("or")) {
+        operands.add(parseAnd());
+      }
+      return operands.size() == 1 ? operands.get(0) : new Junction(operands, false);
+    }
+
+    private CompiledExpression parseAnd() throws UnsupportedExpressionException {
+      List<CompiledExpression> operands = new ArrayList<CompiledExpression>();
+      operands.add(parseEquality());
+      while (acceptOperator("&&") || acceptKeyword("and")) {
+        operands.add(parseEquality());
+      }
+      return operands.size() == 1 ? operands.get(0) : new Junction(operands, true);
+    }
+
+    private CompiledExpression parseEquality() throws UnsupportedExpressionException {
+      CompiledExpression left = parseRelational();
+      while (true) {
+        if (acceptOperator("==") || acceptKeyword("eq")) {
+          left = new Equality(left, parseRelational(), false);
+        } else if (acceptOperator("!=") || acceptKeyword("neq")) {
+          left = new Equality(left, parseRelational(), true);
+        } else {
+          return left;
+        }
+      }
+    }
+
+    private CompiledExpression parseRelational() throws UnsupportedExpressionException {
+      CompiledExpression left = parseUnary();
+      while (true) {
+        if (acceptOperator("<=") || acceptKeyword("lte")) {
+          left = new Comparison(left, parseUnary(), "<=");
+        } else if (acceptOperator(">=") || acceptKeyword("gte")) {
+          left = new Comparison(left, parseUnary(), ">=");
+        } else if (acceptOperator("<") || acceptKeyword("lt")) {
+          left = new Comparison(left, parseUnary(), "<");
+        } else if (acceptOperator(">") || acceptKeyword("gt")) {
+          left = new Comparison(left, parseUnary(), ">");
+        } else {
+          return left;
+        }
+      }
+    }
+
+    private CompiledExpression parseUnary() throws UnsupportedExpressionException {
+      if (acceptOperator("!") || acceptKeyword("not")) {
+        return new Not(parseUnary());
+      }
+      return parsePrimary();
+    }
+
+    private CompiledExpression parsePrimary() throws UnsupportedExpressionException {
+      skipWhitespace();
+      if (position >= expression.length()) {
+        throw new UnsupportedExpressionException();
+      }
+      char c = expression.charAt(position);
+      if (c == '(') {
+        position++;
+        CompiledExpression inner = parseOr();
+        if (!acceptOperator(")")) {
+          throw new UnsupportedExpressionException();
+        }
+        return inner;
+      }
+      if (c == '\'' || c == '"') {
+        return parseString(c);
+      }
+      if (Character.isDigit(c)) {
+        return parseNumber();
+      }
+      if (Character.isJavaIdentifierStart(c)) {
+        return parsePath();
+      }
+      throw new UnsupportedExpressionException();
+    }
+
+    private CompiledExpression parsePath() throws UnsupportedExpressionException {
+      String first = readIdentifier();
+      if ("null".equals(first)) {
+        return new Literal(null);
+      } else if ("true".equals(first)) {
+        return new Literal(Boolean.TRUE);
+      } else if ("false".equals(first)) {
+        return new Literal(Boolean.FALSE);
+      } else if (KEYWORDS.contains(first) || peek('(')) {
+        throw new UnsupportedExpressionException();
+      }
+      List<String> names = new ArrayList<String>();
+      List<Boolean> calls = new ArrayList<Boolean>();
+      names.add(first);
+      calls.add(Boolean.FALSE);
+      while (peek('.')) {
+        position++;
+        skipWhitespace();
+        if (position >= expression.length() || !Character.isJavaIdentifierStart(expression.charAt(position))) {
+          throw new UnsupportedExpressionException();
+        }
+        String name = readIdentifier();
+        if (KEYWORDS.contains(name)) {
+          throw new UnsupportedExpressionException();
+        }
+        boolean call = false;
+        if (peek('(')) {
+          position++;
+          if (!acceptOperator(")")) {
+            throw new UnsupportedExpressionException();
+          }
+          call = true;
+        }
+        names.add(name);
+        calls.add(call);
+      }
+      if (peek('[') || peek('{') || peek('@') || peek('#')) {
+        throw new UnsupportedExpressionException();
+      }
+      boolean[] callArray = new boolean[calls.size()];
+      for (int i = 0; i < callArray.length; i++) {
+        callArray[i] = calls.get(i);
+      }
+      return new Path(names.toArray(new String[names.size()]), callArray);
+    }
+
+    // OGNL turns a single quoted single character into a Character
+    private CompiledExpression parseString(char quote) throws UnsupportedExpressionException {
+      position++;
+      StringBuilder value = new StringBuilder();
+      while (true) {
+        if (position >= expression.length()) {
+          throw new UnsupportedExpressionException();
+        }
+        char c = expression.charAt(position++);
+        if (c == quote) {
+          break;
+        }
+        if (c == '\\') {
+          if (position >= expression.length()) {
+            throw new UnsupportedExpressionException();
+          }
+          char escaped = expression.charAt(position++);
+          switch (escaped) {
+            case '\\':
+            case '\'':
+            case '"':
+              value.append(escaped);
+              break;
+            case 'n':
+              value.append('\n');
+              break;
+            case 't':
+              value.append('\t');
+              break;
+            case 'r':
+              value.append('\r');
+              break;
+            default:
+              throw new UnsupportedExpressionException();
+          }
+        } else {
+          value.append(c);
+        }
+      }
+      if (quote == '\'' && value.length() == 1) {
+        return new Literal(value.charAt(0));
+      }
+      return new Literal(value.toString());
+    }
+
+    private CompiledExpression parseNumber() throws UnsupportedExpressionException {
+      int start = position;
+      while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+        position++;
+      }
+      boolean decimal = false;
+      if (position < expression.length() && expression.charAt(position) == '.') {
+        decimal = true;
+        position++;
+        while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+          position++;
+        }
+      }
+      // suffixes (L, B, H, D, F...), exponents, hex and octal literals are left to OGNL
+      if (position < expression.length() && Character.isLetterOrDigit(expression.charAt(position))) {
+        throw new UnsupportedExpressionException();
+      }
+      String text = expression.substring(start, position);
+      if (!decimal && text.length() > 1 && text.charAt(0) == '0') {
+        throw new UnsupportedExpressionException();
+      }
+      try {
+        return new Literal(decimal ? (Object) Double.valueOf(text) : (Object) Integer.valueOf(text));
+      } catch (NumberFormatException e) {
+        throw new UnsupportedExpressionException();
+      }
+    }
+
+    private String readIdentifier() {
+      int start = position;
+      position++;
+      while (position < expression.length() && Character.isJavaIdentifierPart(expression.charAt(position))) {
+        position++;
+      }
+      return expression.substring(start, position);
+    }
+
+    private boolean peek(char c) {
+      skipWhitespace();
+      return position < expression.length() && expression.charAt(position) == c;
+    }
+
+    private boolean acceptOperator(String operator) {
+      skipWhitespace();
+      if (!expression.startsWith(operator, position)) {
+        return false;
+      }
+      int end = position + operator.length();
+      // do not take "<" out of "<<", "!" out of "!=", "=" alone is an assignment...
+      if (end < expression.length()) {
+        char next = expression.charAt(end);
+        if (next == '=' || ((operator.equals("<") || operator.equals(">")) && next == operator.charAt(0))
+            || (operator.equals("&&") && next == '&') || (operator.equals("||") && next == '|')) {
+          return false;
+        }
+      }
+      position = end;
+      return true;
+    }
+
+    private boolean acceptKeyword(String keyword) {
+      skipWhitespace();
+      if (!expression.startsWith(keyword, position)) {
+        return false;
+      }
+      int end = position + keyword.length();
+      if (end < expression.length() && Character.isJavaIdentifierPart(expression.charAt(end))) {
+        return false;
+      }
+      position = end;
+      return true;
+    }
+
+    private void skipWhitespace() {
+      while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+        position++;
+      }
+    }
+  }
+
+}
@@ -39,16 +39,24 @@ public class DynamicContext {
   }
 
   private final ContextMap bindings;
-  private final StringBuilder sqlBuilder = new StringBuilder();
+  private final StringBuilder sqlBuilder;
   private int uniqueNumber = 0;
 
   public DynamicContext(Configuration configuration, Object parameterObject) {
+    this(configuration, parameterObject, 0, 16);
+  }
+
+  /**
+   * Creates a context whose bindings and SQL buffer are sized for the given number of bindings and SQL length, so
+   * they do not have to grow while the SQL is generated.
+   */
+  DynamicContext(Configuration configuration, Object parameterObject, int expectedBindings, int expectedSqlLength) {
     if (parameterObject != null && !(parameterObject instanceof Map)) {
-      MetaObject metaObject = configuration.newMetaObject(parameterObject);
-      bindings = new ContextMap(metaObject);
+      bindings = new ContextMap(configuration, parameterObject, expectedBindings);
     } else {
-      bindings = new ContextMap(null);
+      bindings = new ContextMap(null, null, expectedBindings);
     }
+    sqlBuilder = new StringBuilder(expectedSqlLength);
     bindings.put(PARAMETER_OBJECT_KEY, parameterObject);
     bindings.put(DATABASE_ID_KEY, configuration.getDatabaseId());
   }
@@ -66,6 +74,11 @@ public class DynamicContext {
     sqlBuilder.append(" ");
   }
 
+  //供SqlProgram直接写入，调用方需自行处理appendSql追加的空格
+  StringBuilder getSqlBuilder() {
+    return sqlBuilder;
+  }
+
   public String getSql() {
     return sqlBuilder.toString().trim();
   }
@@ -78,8 +91,14 @@ public class DynamicContext {
     private static final long serialVersionUID = 2977601501966151582L;
 
     private MetaObject parameterMetaObject;
-    public ContextMap(MetaObject parameterMetaObject) {
-      this.parameterMetaObject = parameterMetaObject;
+    //参数对象的MetaObject在第一次读取不在绑定中的属性时才创建
+    private final Configuration configuration;
+    private final Object parameterObject;
+
+    ContextMap(Configuration configuration, Object parameterObject, int expectedSize) {
+      super(expectedSize <= 0 ? 16 : (int) (expectedSize / 0.75f) + 1);
+      this.configuration = configuration;
+      this.parameterObject = parameterObject;
     }
 
     @Override
@@ -89,6 +108,9 @@ public class DynamicContext {
         return super.get(strKey);
       }
 
+      if (parameterMetaObject == null && parameterObject != null) {
+        parameterMetaObject = configuration.newMetaObject(parameterObject);
+      }
       if (parameterMetaObject != null) {
         // issue #61 do not modify the context when reading
         return parameterMetaObject.getValue(strKey);
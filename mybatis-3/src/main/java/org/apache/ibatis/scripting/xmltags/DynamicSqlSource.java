@@ -15,9 +15,13 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.builder.SqlSourceTemplate;
+import org.apache.ibatis.builder.SqlSourceTemplateCache;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.session.Configuration;
@@ -29,24 +33,131 @@ public class DynamicSqlSource implements SqlSource {
 
   private Configuration configuration;
   private SqlNode rootSqlNode;
+  //由rootSqlNode编译而成的扁平指令序列，生成SQL时代替rootSqlNode.apply
+  private final SqlProgram program;
+  //已解析过#{}占位符的SQL模板，按Shape(或生成的SQL文本)和参数类型缓存，容量由 dynamicSqlCacheSize 决定
+  private final SqlSourceTemplateCache templates;
+  //上一次生成SQL时的绑定数量和SQL长度，用于预先分配DynamicContext的容量
+  private volatile int bindingsHint;
+  private volatile int sqlLengthHint = 16;
 
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
     this.configuration = configuration;
     this.rootSqlNode = rootSqlNode;
+    this.program = SqlProgram.compile(configuration, rootSqlNode);
+    this.templates = new SqlSourceTemplateCache(configuration);
+  }
+
+  /**
+   * Returns the number of executions needed for the parameter when the statement has an <code>IN (...)</code> list
+   * with a <code>chunkSize</code> and the list is longer than it, or 1.
+   */
+  public int getChunkCount(Object parameterObject) {
+    int chunkSize = program.getChunkSize();
+    if (chunkSize <= 0) {
+      return 1;
+    }
+    int size = program.getChunkableSize(newContext(parameterObject, false));
+    return size <= chunkSize ? 1 : (size + chunkSize - 1) / chunkSize;
+  }
+
+  /**
+   * Returns the clause that prevents this statement from being selected in chunks, such as <code>ORDER BY</code> or
+   * an aggregate function, or null when there is none or the statement has no list with a <code>chunkSize</code>.
+   */
+  public String getUnchunkableClause() {
+    return program.findUnchunkableClause();
+  }
+
+  /**
+   * Returns a source that only expands the <code>chunk</code>-th part of the <code>IN (...)</code> list of this one.
+   */
+  public SqlSource getChunk(int chunk) {
+    int chunkSize = program.getChunkSize();
+    if (chunkSize <= 0) {
+      throw new IllegalStateException("The statement has no foreach with a chunkSize.");
+    }
+    return new ChunkSqlSource(this, chunk * chunkSize, chunk * chunkSize + chunkSize);
   }
 
   @Override
   public BoundSql getBoundSql(Object parameterObject) {
-    DynamicContext context = new DynamicContext(configuration, parameterObject);
-    rootSqlNode.apply(context);
-    SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+    return getBoundSql(parameterObject, 0, Integer.MAX_VALUE);
+  }
+
+  private BoundSql getBoundSql(Object parameterObject, int chunkFrom, int chunkTo) {
     Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-    SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
-    BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
-    for (Map.Entry<String, Object> entry : context.getBindings().entrySet()) {
-      boundSql.setAdditionalParameter(entry.getKey(), entry.getValue());
+    boolean shapeCached = program.isShapeDetermined() && templates.isEnabled();
+    DynamicContext context = newContext(parameterObject, !shapeCached);
+    SqlSource sqlSource;
+    if (shapeCached) {
+      //只计算测试条件和循环次数，命中缓存时不需要生成SQL
+      SqlProgram.Shape shape = program.shape(context, chunkFrom, chunkTo);
+      SqlSourceTemplate template = templates.get(shape, parameterType);
+      if (template != null && template.matches(configuration.newMetaObject(context.getBindings()))) {
+        sqlSource = template;
+      } else {
+        context = newContext(parameterObject, true);
+        List<String> placeholders = execute(context, chunkFrom, chunkTo);
+        template = new SqlSourceBuilder(configuration).parseTemplate(context.getSql(), placeholders, parameterType, context.getBindings());
+        templates.put(shape, parameterType, template);
+        sqlSource = template;
+      }
+    } else {
+      List<String> placeholders = execute(context, chunkFrom, chunkTo);
+      sqlSource = getSqlSource(context.getSql(), placeholders, parameterType, context.getBindings());
     }
+    bindingsHint = context.getBindings().size();
+    BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+    //绑定只属于这一次生成的SQL，直接作为附加参数使用，不再逐个复制
+    boundSql.setAdditionalParameters(context.getBindings());
     return boundSql;
   }
 
+  //只计算Shape的上下文不会生成SQL，不需要预留SQL缓冲区
+  private DynamicContext newContext(Object parameterObject, boolean generatesSql) {
+    return new DynamicContext(configuration, parameterObject, bindingsHint, generatesSql ? sqlLengthHint : 0);
+  }
+
+  //生成的SQL中#{}已替换为?，返回各占位符的内容
+  private List<String> execute(DynamicContext context, int chunkFrom, int chunkTo) {
+    List<String> placeholders = program.executeParsed(context, chunkFrom, chunkTo);
+    sqlLengthHint = context.getSqlBuilder().length();
+    return placeholders;
+  }
+
+  //复用相同SQL文本解析出的模板，只有缓存未命中时才重新解析#{}占位符
+  private SqlSource getSqlSource(String sql, List<String> placeholders, Class<?> parameterType, Map<String, Object> bindings) {
+    SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+    if (!templates.isEnabled()) {
+      return sqlSourceParser.parseTemplate(sql, placeholders, parameterType, bindings);
+    }
+    //?替换后的SQL文本和占位符内容一起确定解析结果
+    List<Object> key = Arrays.<Object>asList(sql, placeholders);
+    SqlSourceTemplate template = templates.get(key, parameterType);
+    if (template == null || !template.matches(configuration.newMetaObject(bindings))) {
+      template = sqlSourceParser.parseTemplate(sql, placeholders, parameterType, bindings);
+      templates.put(key, parameterType, template);
+    }
+    return template;
+  }
+
+  //只展开IN列表中 [chunkFrom, chunkTo) 范围元素的视图，分段执行时作为各段语句的SqlSource
+  private static final class ChunkSqlSource implements SqlSource {
+    private final DynamicSqlSource sqlSource;
+    private final int chunkFrom;
+    private final int chunkTo;
+
+    ChunkSqlSource(DynamicSqlSource sqlSource, int chunkFrom, int chunkTo) {
+      this.sqlSource = sqlSource;
+      this.chunkFrom = chunkFrom;
+      this.chunkTo = chunkTo;
+    }
+
+    @Override
+    public BoundSql getBoundSql(Object parameterObject) {
+      return sqlSource.getBoundSql(parameterObject, chunkFrom, chunkTo);
+    }
+  }
+
 }
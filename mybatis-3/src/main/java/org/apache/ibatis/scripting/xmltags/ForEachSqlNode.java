@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.Locale;
 import java.util.Map;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
@@ -26,6 +27,8 @@ import org.apache.ibatis.session.Configuration;
  */
 public class ForEachSqlNode implements SqlNode {
   public static final String ITEM_PREFIX = "__frch_";
+  //生成循环体模板时代替唯一编号的占位字符
+  private static final String UNIQUE_NUMBER = "\u0000";
 
   private ExpressionEvaluator evaluator;
   private String collectionExpression;
@@ -36,8 +39,18 @@ public class ForEachSqlNode implements SqlNode {
   private String item;
   private String index;
   private Configuration configuration;
+  //循环体只有一段静态文本时，按唯一编号拆开的文本片段，null表示需要逐个元素执行循环体
+  private final String[] itemTemplate;
+  //形如 IN (#{item}) 的参数列表，可以补齐长度或分段执行
+  private final boolean inList;
+  //显式指定时，列表超过该长度则分段执行语句，null表示不分段
+  private final Integer chunkSize;
 
   public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator) {
+    this(configuration, contents, collectionExpression, index, item, open, close, separator, null);
+  }
+
+  public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator, Integer chunkSize) {
     this.evaluator = new ExpressionEvaluator();
     this.collectionExpression = collectionExpression;
     this.contents = contents;
@@ -47,6 +60,9 @@ public class ForEachSqlNode implements SqlNode {
     this.index = index;
     this.item = item;
     this.configuration = configuration;
+    this.itemTemplate = itemTemplate(contents, item, index);
+    this.inList = itemTemplate != null && itemTemplate.length == 2 && isInList(open, close, separator);
+    this.chunkSize = chunkSize;
   }
 
   @Override
@@ -56,6 +72,10 @@ public class ForEachSqlNode implements SqlNode {
     if (!iterable.iterator().hasNext()) {
       return true;
     }
+    if (itemTemplate != null) {
+      applyItems(context, iterable);
+      return true;
+    }
     boolean first = true;
     applyOpen(context);
     int i = 0;
@@ -90,6 +110,67 @@ public class ForEachSqlNode implements SqlNode {
     return true;
   }
 
+  //循环体是静态文本时不需要为每个元素创建上下文，直接绑定参数并追加改写好的文本
+  private void applyItems(DynamicContext context, Iterable<?> iterable) {
+    applyOpen(context);
+    StringBuilder itemSql = new StringBuilder();
+    Object indexValue = null;
+    Object itemValue = null;
+    int i = 0;
+    for (Object o : iterable) {
+      // Issue #709
+      if (o instanceof Map.Entry) {
+        Map.Entry<?, ?> mapEntry = (Map.Entry<?, ?>) o;
+        indexValue = mapEntry.getKey();
+        itemValue = mapEntry.getValue();
+      } else {
+        indexValue = i;
+        itemValue = o;
+      }
+      applyItem(context, itemSql, i, indexValue, itemValue);
+      i++;
+    }
+    for (int padded = getPaddedSize(i); i < padded; i++) {
+      applyItem(context, itemSql, i, indexValue, itemValue);
+    }
+    if (index != null) {
+      context.bind(index, indexValue);
+    }
+    if (item != null) {
+      context.bind(item, itemValue);
+    }
+    applyClose(context);
+  }
+
+  private void applyItem(DynamicContext context, StringBuilder itemSql, int i, Object indexValue, Object itemValue) {
+    int uniqueNumber = context.getUniqueNumber();
+    bindItem(context, uniqueNumber, indexValue, itemValue);
+    context.appendSql(i == 0 || separator == null ? "" : separator);
+    itemSql.setLength(0);
+    appendItem(itemSql, itemTemplate, uniqueNumber);
+    context.appendSql(itemSql.toString());
+  }
+
+  void bindItem(DynamicContext context, int uniqueNumber, Object indexValue, Object itemValue) {
+    if (index != null) {
+      context.bind(itemizeItem(index, uniqueNumber), indexValue);
+    }
+    if (item != null) {
+      context.bind(itemizeItem(item, uniqueNumber), itemValue);
+    }
+  }
+
+  /**
+   * The number of items to generate for a list of <code>size</code> items: with in list padding enabled the list is
+   * repeating its last item up to the next power of two, so lists of different sizes share a few SQL statements.
+   */
+  int getPaddedSize(int size) {
+    if (!inList || size <= 1 || configuration == null || !configuration.isInListPaddingEnabled()) {
+      return size;
+    }
+    return Integer.highestOneBit(size - 1) << 1;
+  }
+
   private void applyIndex(DynamicContext context, Object o, int i) {
     if (index != null) {
       context.bind(index, o);
@@ -116,10 +197,106 @@ public class ForEachSqlNode implements SqlNode {
     }
   }
 
-  private static String itemizeItem(String item, int i) {
+  static String itemizeItem(String item, int i) {
     return new StringBuilder(ITEM_PREFIX).append(item).append("_").append(i).toString();
   }
 
+  private static String itemizeItem(String item, String i) {
+    return new StringBuilder(ITEM_PREFIX).append(item).append("_").append(i).toString();
+  }
+
+  //将#{item}/#{index}改写为本次迭代绑定的唯一名称，如#{__frch_item_0}
+  static String itemizeTokens(String sql, String item, String itemIndex, int index) {
+    return itemizeTokens(sql, item, itemIndex, String.valueOf(index));
+  }
+
+  private static String itemizeTokens(String sql, final String item, final String itemIndex, final String index) {
+    GenericTokenParser parser = new GenericTokenParser("#{", "}", new TokenHandler() {
+      @Override
+      public String handleToken(String content) {
+        String newContent = content.replaceFirst("^\\s*" + item + "(?![^.,:\\s])", itemizeItem(item, index));
+        if (itemIndex != null && newContent.equals(content)) {
+          newContent = content.replaceFirst("^\\s*" + itemIndex + "(?![^.,:\\s])", itemizeItem(itemIndex, index));
+        }
+        return new StringBuilder("#{").append(newContent).append("}").toString();
+      }
+    });
+    return parser.parse(sql);
+  }
+
+  //循环体只有一段非空的静态文本时，把它按改写后#{}中的唯一编号拆开，运行时只需拼接片段和编号
+  private static String[] itemTemplate(SqlNode contents, String item, String index) {
+    SqlNode node = contents;
+    if (node instanceof MixedSqlNode && ((MixedSqlNode) node).getContents().size() == 1) {
+      node = ((MixedSqlNode) node).getContents().get(0);
+    }
+    if (node == null || node.getClass() != StaticTextSqlNode.class) {
+      return null;
+    }
+    String text = ((StaticTextSqlNode) node).getText();
+    if (text.trim().length() == 0 || text.indexOf(UNIQUE_NUMBER) > -1) {
+      return null;
+    }
+    return itemizeTokens(text, item, index, UNIQUE_NUMBER).split(UNIQUE_NUMBER, -1);
+  }
+
+  static void appendItem(StringBuilder sql, String[] itemTemplate, int uniqueNumber) {
+    sql.append(itemTemplate[0]);
+    for (int i = 1; i < itemTemplate.length; i++) {
+      sql.append(uniqueNumber).append(itemTemplate[i]);
+    }
+  }
+
+  // open 以 "IN (" 结尾(不是 NOT IN)、close 以 ")" 开头、以 "," 分隔；VALUES (...) 或函数参数列表不能补齐或分段
+  private static boolean isInList(String open, String close, String separator) {
+    if (open == null || close == null || separator == null
+        || !close.trim().startsWith(")") || !",".equals(separator.trim())) {
+      return false;
+    }
+    String upperOpen = open.toUpperCase(Locale.ENGLISH);
+    return upperOpen.matches("(?s).*\\bIN\\s*\\(\\s*") && !upperOpen.matches("(?s).*\\bNOT\\s+IN\\s*\\(\\s*");
+  }
+
+  String[] getItemTemplate() {
+    return itemTemplate;
+  }
+
+  boolean isInList() {
+    return inList;
+  }
+
+  Integer getChunkSize() {
+    return chunkSize;
+  }
+
+  String getCollectionExpression() {
+    return collectionExpression;
+  }
+
+  SqlNode getContents() {
+    return contents;
+  }
+
+  String getOpen() {
+    return open;
+  }
+
+  String getClose() {
+    return close;
+  }
+
+  String getSeparator() {
+    return separator;
+  }
+
+  String getItem() {
+    return item;
+  }
+
+  String getIndex() {
+    return index;
+  }
+
   private static class FilteredDynamicContext extends DynamicContext {
     private DynamicContext delegate;
     private int index;
@@ -151,18 +328,7 @@ public class ForEachSqlNode implements SqlNode {
 
     @Override
     public void appendSql(String sql) {
-      GenericTokenParser parser = new GenericTokenParser("#{", "}", new TokenHandler() {
-        @Override
-        public String handleToken(String content) {
-          String newContent = content.replaceFirst("^\\s*" + item + "(?![^.,:\\s])", itemizeItem(item, index));
-          if (itemIndex != null && newContent.equals(content)) {
-            newContent = content.replaceFirst("^\\s*" + itemIndex + "(?![^.,:\\s])", itemizeItem(itemIndex, index));
-          }
-          return new StringBuilder("#{").append(newContent).append("}").toString();
-        }
-      });
-
-      delegate.appendSql(parser.parse(sql));
+      delegate.appendSql(itemizeTokens(sql, item, itemIndex, index));
     }
 
     @Override
@@ -34,4 +34,8 @@ public class MixedSqlNode implements SqlNode {
     }
     return true;
   }
+
+  List<SqlNode> getContents() {
+    return contents;
+  }
 }
@@ -25,7 +25,10 @@ import org.apache.ibatis.builder.BuilderException;
 
 /**
  * Caches OGNL parsed expressions.
- *  
+ * <p>
+ * Expressions within the subset supported by {@link CompiledExpression} are evaluated natively and only fall
+ * back to the OGNL interpreter when needed.
+ *
  * @see http://code.google.com/p/mybatis/issues/detail?id=342
  *
  * @author Eduardo Macarron
@@ -33,14 +36,32 @@ import org.apache.ibatis.builder.BuilderException;
 public final class OgnlCache {
 
   private static final Map<String, Object> expressionCache = new ConcurrentHashMap<String, Object>();
+  //编译后的表达式，NOT_COMPILABLE表示该表达式只能交给OGNL解释执行
+  private static final Map<String, Object> compiledExpressionCache = new ConcurrentHashMap<String, Object>();
+  private static final Object NOT_COMPILABLE = new Object();
+  private static final OgnlClassResolver CLASS_RESOLVER = new OgnlClassResolver();
 
   private OgnlCache() {
     // Prevent Instantiation of Static Class
   }
 
   public static Object getValue(String expression, Object root) {
+    Object compiled = compiledExpressionCache.get(expression);
+    if (compiled == null) {
+      compiled = CompiledExpression.compile(expression);
+      if (compiled == null) {
+        compiled = NOT_COMPILABLE;
+      }
+      compiledExpressionCache.put(expression, compiled);
+    }
+    if (compiled != NOT_COMPILABLE) {
+      Object value = ((CompiledExpression) compiled).evaluate(root);
+      if (value != CompiledExpression.UNSUPPORTED) {
+        return value;
+      }
+    }
     try {
-      Map<Object, OgnlClassResolver> context = Ognl.createDefaultContext(root, new OgnlClassResolver());
+      Map<Object, OgnlClassResolver> context = Ognl.createDefaultContext(root, CLASS_RESOLVER);
       return Ognl.getValue(parseExpression(expression), context, root);
     } catch (OgnlException e) {
       throw new BuilderException("Error evaluating expression '" + expression + "'. Cause: " + e, e);
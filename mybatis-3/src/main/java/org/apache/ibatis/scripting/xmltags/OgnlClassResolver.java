@@ -15,8 +15,8 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import ognl.ClassResolver;
 
@@ -34,7 +34,8 @@ import org.apache.ibatis.io.Resources;
  */
 public class OgnlClassResolver implements ClassResolver {
 
-  private Map<String, Class<?>> classes = new HashMap<String, Class<?>>(101);
+  //OgnlCache中所有表达式共用同一个实例，因此需要线程安全
+  private Map<String, Class<?>> classes = new ConcurrentHashMap<String, Class<?>>(101);
 
   @Override
   public Class classForName(String className, Map context) throws ClassNotFoundException {
@@ -48,7 +49,9 @@ public class OgnlClassResolver implements ClassResolver {
           classes.put("java.lang." + className, result);
         }
       }
-      classes.put(className, result);
+      if (result != null) {
+        classes.put(className, result);
+      }
     }
     return result;
   }
@@ -0,0 +1,982 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.parsing.GenericTokenParser;
+import org.apache.ibatis.parsing.TokenizedText;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * A {@link SqlNode} tree compiled into a flat list of append, branch and loop instructions.
+ * <p>
+ * Running the program produces the same SQL as {@link SqlNode#apply(DynamicContext)} on the tree it was compiled
+ * from, but without the recursion and the per node wrapping contexts: all the text is written once into the SQL
+ * buffer of the root {@link DynamicContext}. A <code>&lt;trim&gt;</code>, <code>&lt;where&gt;</code> or
+ * <code>&lt;set&gt;</code> only remembers where its output starts and fixes its prefix and suffix in place when it
+ * ends, and <code>&lt;foreach&gt;</code> separators are inserted in place as well.
+ * <p>
+ * Nodes of unknown or subclassed types are not compiled; they are called through a context that forwards to the
+ * program, so custom {@link SqlNode} implementations keep working.
+ * <p>
+ * When the program has no <code>${}</code> text, <code>&lt;bind&gt;</code> or uncompiled node, the generated SQL only
+ * depends on the outcome of its tests and on the number of iterations of its loops. {@link #shape(DynamicContext)}
+ * records those without building any SQL, so it can be used as a cache key for the SQL.
+ * <p>
+ * A <code>&lt;foreach&gt;</code> whose body is a single static text is run as one instruction that binds the items
+ * and appends the rewritten body without visiting it. When such a loop is an <code>IN (...)</code> list outside of any
+ * other loop and declares a <code>chunkSize</code>, it can be limited to a window of its items so the statement can be
+ * executed in chunks.
+ * <p>
+ * Static text outside of trims and loops is final as soon as it is written. Consecutive pieces of it are merged into
+ * one fragment whose <code>#{}</code> placeholders are found when the program is compiled;
+ * {@link #executeParsed(DynamicContext, int, int)} writes them as <code>?</code> and only scans the text produced by
+ * trims, loops and <code>${}</code> at run time.
+ *
+ * @see DynamicSqlSource
+ */
+class SqlProgram {
+
+  private static final GenericTokenParser PLACEHOLDER_PARSER = new GenericTokenParser("#{", "}");
+  //各段结果依次拼接后含义会改变的子句
+  private static final Pattern UNCHUNKABLE_CLAUSE = Pattern.compile(
+      "\\b(ORDER\\s+BY|GROUP\\s+BY|HAVING|DISTINCT|UNION|INTERSECT|EXCEPT|LIMIT|OFFSET|FETCH\\s+FIRST|(COUNT|SUM|AVG|MIN|MAX)\\s*\\()",
+      Pattern.CASE_INSENSITIVE);
+
+  private final Configuration configuration;
+  private final Instruction[] instructions;
+  private final boolean shapeDetermined;
+  //声明了 chunkSize 的 IN (...) 列表，没有时为null
+  private final ForEachList chunkable;
+  //所有静态文本(包括${}之外的字面部分)，用于检查分段执行的select语句
+  private final String text;
+
+  private SqlProgram(Configuration configuration, List<Instruction> instructions, ForEachList chunkable, String text) {
+    this.configuration = configuration;
+    this.instructions = instructions.toArray(new Instruction[instructions.size()]);
+    this.chunkable = chunkable;
+    this.text = text;
+    if (chunkable != null) {
+      chunkable.chunkable = true;
+    }
+    boolean determined = true;
+    for (Instruction instruction : instructions) {
+      if (instruction instanceof AppendText || instruction instanceof Call) {
+        determined = false;
+      }
+    }
+    this.shapeDetermined = determined;
+  }
+
+  static SqlProgram compile(Configuration configuration, SqlNode rootSqlNode) {
+    Compiler compiler = new Compiler();
+    compiler.compile(rootSqlNode);
+    return new SqlProgram(configuration, compiler.instructions, compiler.chunkable, compiler.text.toString());
+  }
+
+  void execute(DynamicContext context) {
+    execute(context, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Runs the program with the chunkable list limited to its items from <code>from</code> (inclusive) to
+   * <code>to</code> (exclusive).
+   */
+  void execute(DynamicContext context, int from, int to) {
+    run(new Runtime(configuration, context, false, from, to));
+  }
+
+  /**
+   * Same as {@link #execute(DynamicContext, int, int)}, but the <code>#{}</code> placeholders are replaced by
+   * <code>?</code> in the generated SQL and their contents are returned in the order they appear.
+   */
+  List<String> executeParsed(DynamicContext context, int from, int to) {
+    Runtime runtime = new Runtime(configuration, context, false, from, to);
+    runtime.placeholders = new ArrayList<String>();
+    run(runtime);
+    return runtime.placeholders;
+  }
+
+  /**
+   * Whether the program has an <code>IN (...)</code> list that can be executed in chunks.
+   */
+  boolean isChunkable() {
+    return chunkable != null;
+  }
+
+  /**
+   * The <code>chunkSize</code> of the chunkable list, or 0 when the program has none.
+   */
+  int getChunkSize() {
+    return chunkable == null ? 0 : chunkable.node.getChunkSize();
+  }
+
+  /**
+   * Returns the first clause of the text of a chunkable program whose result changes when the results of the chunks
+   * are concatenated, such as <code>ORDER BY</code>, <code>DISTINCT</code> or an aggregate function, or null.
+   */
+  String findUnchunkableClause() {
+    if (chunkable == null) {
+      return null;
+    }
+    Matcher matcher = UNCHUNKABLE_CLAUSE.matcher(text);
+    if (!matcher.find()) {
+      return null;
+    }
+    String clause = matcher.group(2) != null ? matcher.group(2) + "()" : matcher.group(1).replaceAll("\\s+", " ");
+    return clause.toUpperCase(Locale.ENGLISH);
+  }
+
+  /**
+   * Runs the program without generating SQL and returns the number of items of the chunkable list, or -1 when the
+   * list is not reached.
+   */
+  int getChunkableSize(DynamicContext context) {
+    Runtime runtime = new Runtime(configuration, context, true, 0, Integer.MAX_VALUE);
+    run(runtime);
+    return runtime.chunkableSize;
+  }
+
+  /**
+   * Whether the generated SQL is fully determined by {@link #shape(DynamicContext)}.
+   */
+  boolean isShapeDetermined() {
+    return shapeDetermined;
+  }
+
+  /**
+   * Runs the tests and loops of the program, binding the loop variables into the context exactly as
+   * {@link #execute(DynamicContext)} does, but without generating any SQL.
+   */
+  Shape shape(DynamicContext context) {
+    return shape(context, 0, Integer.MAX_VALUE);
+  }
+
+  Shape shape(DynamicContext context, int from, int to) {
+    Runtime runtime = new Runtime(configuration, context, true, from, to);
+    run(runtime);
+    return runtime.shape;
+  }
+
+  private void run(Runtime runtime) {
+    int pc = 0;
+    while (pc < instructions.length) {
+      pc = instructions[pc].execute(runtime, pc);
+    }
+  }
+
+  int size() {
+    return instructions.length;
+  }
+
+  private static final class Compiler {
+    private final List<Instruction> instructions = new ArrayList<Instruction>();
+    private ForEachList chunkable;
+    private final StringBuilder text = new StringBuilder();
+    private int loopDepth;
+    //当前位置外层trim和foreach的层数，为0时输出的文本不会再被改动
+    private int nesting;
+    //最近一次跳转目标的位置，该位置的指令不能与前一条合并
+    private int lastTarget = -1;
+
+    void compile(SqlNode node) {
+      Class<?> type = node.getClass();
+      if (type == MixedSqlNode.class) {
+        for (SqlNode child : ((MixedSqlNode) node).getContents()) {
+          compile(child);
+        }
+      } else if (type == StaticTextSqlNode.class) {
+        text.append(((StaticTextSqlNode) node).getText()).append(' ');
+        addStaticText(((StaticTextSqlNode) node).getText());
+      } else if (type == TextSqlNode.class) {
+        TextSqlNode textSqlNode = (TextSqlNode) node;
+        text.append(textSqlNode.getText()).append(' ');
+        if (textSqlNode.isDynamic()) {
+          instructions.add(new AppendText(textSqlNode));
+        } else {
+          // without ${} the text never needs the context
+          addStaticText(textSqlNode.render(null));
+        }
+      } else if (type == VarDeclSqlNode.class) {
+        instructions.add(new Call(node));
+      } else if (type == IfSqlNode.class) {
+        IfSqlNode ifSqlNode = (IfSqlNode) node;
+        JumpUnless jump = new JumpUnless(ifSqlNode.getTest());
+        instructions.add(jump);
+        compile(ifSqlNode.getContents());
+        jump.target = target();
+      } else if (type == ChooseSqlNode.class && isCompilable((ChooseSqlNode) node)) {
+        compileChoose((ChooseSqlNode) node);
+      } else if (type == TrimSqlNode.class || type == WhereSqlNode.class || type == SetSqlNode.class) {
+        TrimSqlNode trimSqlNode = (TrimSqlNode) node;
+        instructions.add(new TrimStart());
+        nesting++;
+        compile(trimSqlNode.getContents());
+        nesting--;
+        instructions.add(new TrimEnd(trimSqlNode));
+      } else if (type == ForEachSqlNode.class) {
+        compileForEach((ForEachSqlNode) node);
+      } else {
+        instructions.add(new Call(node));
+      }
+    }
+
+    // ChooseSqlNode relies on the result of apply(), which is only known here for <when> (IfSqlNode)
+    private boolean isCompilable(ChooseSqlNode node) {
+      for (SqlNode when : node.getIfSqlNodes()) {
+        if (when.getClass() != IfSqlNode.class) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void compileChoose(ChooseSqlNode node) {
+      List<Jump> exits = new ArrayList<Jump>();
+      for (SqlNode when : node.getIfSqlNodes()) {
+        IfSqlNode ifSqlNode = (IfSqlNode) when;
+        JumpUnless next = new JumpUnless(ifSqlNode.getTest());
+        instructions.add(next);
+        compile(ifSqlNode.getContents());
+        Jump exit = new Jump();
+        instructions.add(exit);
+        exits.add(exit);
+        next.target = target();
+      }
+      if (node.getDefaultSqlNode() != null) {
+        compile(node.getDefaultSqlNode());
+      }
+      for (Jump exit : exits) {
+        exit.target = target();
+      }
+    }
+
+    private int target() {
+      lastTarget = instructions.size();
+      return lastTarget;
+    }
+
+    // 最外层相邻的静态文本合并为一个片段，与分别追加一样以空格分隔
+    private void addStaticText(String text) {
+      if (nesting > 0) {
+        instructions.add(new Append(text));
+        return;
+      }
+      int last = instructions.size() - 1;
+      if (last >= 0 && last + 1 != lastTarget && instructions.get(last) instanceof Fragment) {
+        instructions.set(last, new Fragment(((Fragment) instructions.get(last)).text + " " + text));
+      } else {
+        instructions.add(new Fragment(text));
+      }
+    }
+
+    private void compileForEach(ForEachSqlNode node) {
+      if (node.getChunkSize() != null) {
+        //分段执行会合并各段的结果，只允许用于语句中唯一一个不在其他循环中的 IN (...) 列表
+        if (node.getItemTemplate() == null || !node.isInList() || loopDepth > 0 || chunkable != null) {
+          throw new BuilderException("chunkSize can only be set on one foreach per statement whose body is a single "
+              + "parameter, that is opened with \"IN (\", closed with \")\", separated with \",\" and not nested in another foreach.");
+        }
+      }
+      if (node.getItemTemplate() != null) {
+        ForEachList list = new ForEachList(node);
+        if (node.getChunkSize() != null) {
+          chunkable = list;
+        }
+        instructions.add(list);
+        return;
+      }
+      loopDepth++;
+      ForEachStart start = new ForEachStart(node);
+      instructions.add(start);
+      start.bodyStart = instructions.size();
+      nesting++;
+      compile(node.getContents());
+      nesting--;
+      instructions.add(new ForEachEnd(start));
+      start.end = instructions.size();
+      loopDepth--;
+    }
+  }
+
+  /**
+   * Receives text already written at the end of the SQL buffer, from <code>start</code> on, and applies what the
+   * matching {@link DynamicContext#appendSql(String)} would have done with it.
+   */
+  private abstract static class Sink {
+    abstract void appended(Runtime runtime, int start);
+  }
+
+  // DynamicContext.appendSql
+  private static final class RootSink extends Sink {
+    static final RootSink INSTANCE = new RootSink();
+
+    @Override
+    void appended(Runtime runtime, int start) {
+      if (runtime.placeholders != null) {
+        runtime.replacePlaceholders(start);
+      }
+      runtime.sql.append(' ');
+    }
+  }
+
+  // TrimSqlNode.FilteredDynamicContext only collects the text until the trim ends
+  private static final class TrimSink extends Sink {
+    static final TrimSink INSTANCE = new TrimSink();
+
+    @Override
+    void appended(Runtime runtime, int start) {
+      // collected as is
+    }
+  }
+
+  // ForEachSqlNode.PrefixedContext
+  private static final class PrefixedSink extends Sink {
+    private final Sink parent;
+    private final String prefix;
+    private boolean prefixApplied;
+
+    PrefixedSink(Sink parent, String prefix) {
+      this.parent = parent;
+      this.prefix = prefix;
+    }
+
+    @Override
+    void appended(Runtime runtime, int start) {
+      StringBuilder sql = runtime.sql;
+      if (!prefixApplied && !isBlank(sql, start, sql.length())) {
+        prefixApplied = true;
+        String text = sql.substring(start);
+        sql.setLength(start);
+        sql.append(prefix);
+        parent.appended(runtime, start);
+        int textStart = sql.length();
+        sql.append(text);
+        parent.appended(runtime, textStart);
+      } else {
+        parent.appended(runtime, start);
+      }
+    }
+  }
+
+  // ForEachSqlNode.FilteredDynamicContext
+  private static final class ItemSink extends Sink {
+    private final Sink parent;
+    private final String item;
+    private final String index;
+    private final int uniqueNumber;
+
+    ItemSink(Sink parent, String item, String index, int uniqueNumber) {
+      this.parent = parent;
+      this.item = item;
+      this.index = index;
+      this.uniqueNumber = uniqueNumber;
+    }
+
+    @Override
+    void appended(Runtime runtime, int start) {
+      StringBuilder sql = runtime.sql;
+      if (sql.indexOf("#{", start) > -1) {
+        String itemized = ForEachSqlNode.itemizeTokens(sql.substring(start), item, index, uniqueNumber);
+        sql.setLength(start);
+        sql.append(itemized);
+      }
+      parent.appended(runtime, start);
+    }
+  }
+
+  /**
+   * The sequence of test outcomes and loop continuations of one run.
+   */
+  static final class Shape {
+    private long[] bits = new long[1];
+    private int length;
+    private int hashCode = 1;
+
+    void record(boolean bit) {
+      if (length == bits.length * 64) {
+        long[] newBits = new long[bits.length * 2];
+        System.arraycopy(bits, 0, newBits, 0, bits.length);
+        bits = newBits;
+      }
+      if (bit) {
+        bits[length >> 6] |= 1L << (length & 63);
+      }
+      length++;
+      hashCode = 31 * hashCode + (bit ? 1231 : 1237);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Shape)) {
+        return false;
+      }
+      Shape other = (Shape) o;
+      if (hashCode != other.hashCode || length != other.length) {
+        return false;
+      }
+      int words = (length + 63) >> 6;
+      for (int i = 0; i < words; i++) {
+        if (bits[i] != other.bits[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class Loop {
+    private final Iterator<?> iterator;
+    private final Sink parent;
+    private boolean first = true;
+    private int i;
+    private PrefixedSink prefixedSink;
+
+    Loop(Iterator<?> iterator, Sink parent) {
+      this.iterator = iterator;
+      this.parent = parent;
+    }
+  }
+
+  private static final class Runtime {
+    private final Configuration configuration;
+    private final DynamicContext context;
+    private final StringBuilder sql;
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    //只计算Shape，不生成SQL
+    private final boolean dryRun;
+    private final Shape shape;
+    private Sink sink = RootSink.INSTANCE;
+    private List<Loop> loops;
+    //嵌套trim的外层Sink及trim在sql中的起始位置
+    private Sink[] trimParents;
+    private int[] trimStarts;
+    private int trimDepth;
+    //分段执行时可分段列表要展开的元素范围
+    private final int chunkFrom;
+    private final int chunkTo;
+    private int chunkableSize = -1;
+    //不为null时#{}在写入时就替换为?，这里按顺序记录其内容
+    private List<String> placeholders;
+
+    Runtime(Configuration configuration, DynamicContext context, boolean dryRun, int chunkFrom, int chunkTo) {
+      this.configuration = configuration;
+      this.context = context;
+      this.sql = context.getSqlBuilder();
+      this.dryRun = dryRun;
+      this.shape = dryRun ? new Shape() : null;
+      this.chunkFrom = chunkFrom;
+      this.chunkTo = chunkTo;
+    }
+
+    void startTrim() {
+      if (trimParents == null) {
+        trimParents = new Sink[4];
+        trimStarts = new int[4];
+      } else if (trimDepth == trimParents.length) {
+        trimParents = Arrays.copyOf(trimParents, trimDepth * 2);
+        trimStarts = Arrays.copyOf(trimStarts, trimDepth * 2);
+      }
+      trimParents[trimDepth] = sink;
+      trimStarts[trimDepth] = sql.length();
+      trimDepth++;
+      sink = TrimSink.INSTANCE;
+    }
+
+    int endTrim() {
+      trimDepth--;
+      sink = trimParents[trimDepth];
+      trimParents[trimDepth] = null;
+      return trimStarts[trimDepth];
+    }
+
+    boolean record(boolean bit) {
+      if (shape != null) {
+        shape.record(bit);
+      }
+      return bit;
+    }
+
+    void append(Sink target, String text) {
+      if (dryRun) {
+        return;
+      }
+      int start = sql.length();
+      sql.append(text);
+      target.appended(this, start);
+    }
+
+    void replacePlaceholders(int start) {
+      if (sql.indexOf("#{", start) == -1) {
+        return;
+      }
+      TokenizedText parsed = PLACEHOLDER_PARSER.tokenize(sql.substring(start));
+      sql.setLength(start);
+      appendParsed(parsed);
+    }
+
+    void appendParsed(TokenizedText parsed) {
+      sql.append(parsed.getLiteral(0));
+      for (int i = 0; i < parsed.getTokenCount(); i++) {
+        sql.append('?');
+        placeholders.add(parsed.getToken(i));
+        sql.append(parsed.getLiteral(i + 1));
+      }
+    }
+
+    void appendItem(Sink target, String[] itemTemplate, int uniqueNumber) {
+      if (dryRun) {
+        return;
+      }
+      int start = sql.length();
+      ForEachSqlNode.appendItem(sql, itemTemplate, uniqueNumber);
+      target.appended(this, start);
+    }
+  }
+
+  private abstract static class Instruction {
+    abstract int execute(Runtime runtime, int pc);
+  }
+
+  private static final class Append extends Instruction {
+    private final String text;
+
+    Append(String text) {
+      this.text = text;
+    }
+
+    @Override
+    int execute(Runtime runtime, int pc) {
+      runtime.append(runtime.sink, text);
+      return pc + 1;
+    }
+  }
+
+  // static text written to the root context, with its placeholders found at compile time
+  private static final class Fragment extends Instruction {
+    private final String text;
+    private final TokenizedText parsed;
+
+    Fragment(String text) {
+      this.text = text;
+      this.parsed = PLACEHOLDER_PARSER.tokenize(text);
+    }
+
+    @Override
+    int execute(Runtime runtime, int pc) {
+      if (runtime.placeholders == null) {
+        runtime.append(runtime.sink, text);
+      } else if (!runtime.dryRun) {
+        runtime.appendParsed(parsed);
+        runtime.sql.append(' ');
+      }
+      return pc + 1;
+    }
+  }
+
+  private static final class AppendText extends Instruction {
+    private final TextSqlNode node;
+
+    AppendText(TextSqlNode node) {
+      this.node = node;
+    }
+
+    @Override
+    int execute(Runtime runtime, int pc) {
+      if (runtime.dryRun) {
+        node.render(runtime.context);
+        return pc + 1;
+      }
+      // ${}的值直接写入SQL缓冲区
+      StringBuilder sql = runtime.sql;
+      int start = sql.length();
+      node.render(runtime.context, sql);
+      runtime.sink.appended(runtime, start);
+      return pc + 1;
+    }
+  }
+
+  private static class Jump extends Instruction {
+    int target;
+
+    @Override
+    int execute(Runtime runtime, int pc) {
+      return target;
+    }
+  }
+
+  private static final class JumpUnless extends Jump {
+    private final String test;
+
+    JumpUnless(String test) {
+      this.test = test;
+    }
+
+    @Override
+    int execute(Runtime runtime, int pc) {
+      return runtime.record(runtime.evaluator.evaluateBoolean(test, runtime.context.getBindings())) ? pc + 1 : target;
+    }
+  }
+
+  private static final class TrimStart extends Instruction {
+    @Override
+    int execute(Runtime runtime, int pc) {
+      runtime.startTrim();
+      return pc + 1;
+    }
+  }
+
+  // same steps as TrimSqlNode.FilteredDynamicContext.applyAll(), on the trim's own part of the buffer
+  private static final class TrimEnd extends Instruction {
+    private final String prefix;
+    private final String suffix;
+    private final List<String> prefixesToOverride;
+    private final List<String> suffixesToOverride;
+
+    TrimEnd(TrimSqlNode node) {
+      this.prefix = node.getPrefix();
+      this.suffix = node.getSuffix();
+      this.prefixesToOverride = node.getPrefixesToOverride();
+      this.suffixesToOverride = node.getSuffixesToOverride();
+    }
+
+    @Override
+    int execute(Runtime runtime, int pc) {
+      int start = runtime.endTrim();
+      if (runtime.dryRun) {
+        return pc + 1;
+      }
+      StringBuilder sql = runtime.sql;
+      int end = sql.length();
+      while (end > start && sql.charAt(end - 1) <= ' ') {
+        end--;
+      }
+      sql.setLength(end);
+      int first = start;
+      while (first < end && sql.charAt(first) <= ' ') {
+        first++;
+      }
+      sql.delete(start, first);
+      if (sql.length() > start) {
+        // the suffix is checked on the trimmed text before the prefix is changed, as TrimSqlNode does
+        String suffixToRemove = null;
+        if (suffixesToOverride != null) {
+          for (String toRemove : suffixesToOverride) {
+            if (endsWithIgnoreCase(sql, start, toRemove) || endsWithIgnoreCase(sql, start, toRemove.trim())) {
+              suffixToRemove = toRemove;
+              break;
+            }
+          }
+        }
+        if (prefixesToOverride != null) {
+          for (String toRemove : prefixesToOverride) {
+            if (startsWithIgnoreCase(sql, start, toRemove)) {
+              sql.delete(start, start + toRemove.trim().length());
+              break;
+            }
+          }
+        }
+        if (prefix != null) {
+          sql.insert(start, ' ');
+          sql.insert(start, prefix);
+        }
+        if (suffixToRemove != null) {
+          int length = suffixToRemove.trim().length();
+          sql.delete(sql.length() - length, sql.length());
+        }
+        if (suffix != null) {
+          sql.append(' ');
+          sql.append(suffix);
+        }
+      }
+      runtime.sink.appended(runtime, start);
+      return pc + 1;
+    }
+  }
+
+  private static final class ForEachStart extends Instruction {
+    private final String collectionExpression;
+    private final String open;
+    private final String close;
+    private final String separator;
+    private final String item;
+    private final String index;
+    int bodyStart;
+    int end;
+
+    ForEachStart(ForEachSqlNode node) {
+      this.collectionExpression = node.getCollectionExpression();
+      this.open = node.getOpen();
+      this.close = node.getClose();
+      this.separator = node.getSeparator();
+      this.item = node.getItem();
+      this.index = node.getIndex();
+    }
+
+    @Override
+    int execute(Runtime runtime, int pc) {
+      Iterator<?> iterator = runtime.evaluator.evaluateIterable(collectionExpression, runtime.context.getBindings()).iterator();
+      if (!runtime.record(iterator.hasNext())) {
+        return end;
+      }
+      if (open != null) {
+        runtime.append(runtime.sink, open);
+      }
+      Loop loop = new Loop(iterator, runtime.sink);
+      if (runtime.loops == null) {
+        runtime.loops = new ArrayList<Loop>();
+      }
+      runtime.loops.add(loop);
+      return nextItem(runtime, loop);
+    }
+
+    int nextItem(Runtime runtime, Loop loop) {
+      Object o = loop.iterator.next();
+      loop.prefixedSink = new PrefixedSink(loop.parent, loop.first || separator == null ? "" : separator);
+      int uniqueNumber = runtime.context.getUniqueNumber();
+      // Issue #709
+      if (o instanceof Map.Entry) {
+        Map.Entry<?, ?> mapEntry = (Map.Entry<?, ?>) o;
+        bind(runtime, mapEntry.getKey(), mapEntry.getValue(), uniqueNumber);
+      } else {
+        bind(runtime, loop.i, o, uniqueNumber);
+      }
+      runtime.sink = new ItemSink(loop.prefixedSink, item, index, uniqueNumber);
+      return bodyStart;
+    }
+
+    private void bind(Runtime runtime, Object indexValue, Object itemValue, int uniqueNumber) {
+      DynamicContext context = runtime.context;
+      if (index != null) {
+        context.bind(index, indexValue);
+        context.bind(ForEachSqlNode.itemizeItem(index, uniqueNumber), indexValue);
+      }
+      if (item != null) {
+        context.bind(item, itemValue);
+        context.bind(ForEachSqlNode.itemizeItem(item, uniqueNumber), itemValue);
+      }
+    }
+  }
+
+  private static final class ForEachEnd extends Instruction {
+    private final ForEachStart start;
+
+    ForEachEnd(ForEachStart start) {
+      this.start = start;
+    }
+
+    @Override
+    int execute(Runtime runtime, int pc) {
+      Loop loop = runtime.loops.get(runtime.loops.size() - 1);
+      runtime.sink = loop.parent;
+      if (loop.first) {
+        loop.first = !loop.prefixedSink.prefixApplied;
+      }
+      loop.i++;
+      if (runtime.record(loop.iterator.hasNext())) {
+        return start.nextItem(runtime, loop);
+      }
+      runtime.loops.remove(runtime.loops.size() - 1);
+      if (start.close != null) {
+        runtime.append(runtime.sink, start.close);
+      }
+      return pc + 1;
+    }
+  }
+
+  // a <foreach> with a static body: the same SQL and bindings as ForEachStart/ForEachEnd, without the sinks
+  private static final class ForEachList extends Instruction {
+    private final ForEachSqlNode node;
+    private final String collectionExpression;
+    private final String open;
+    private final String close;
+    private final String separator;
+    private final String item;
+    private final String index;
+    private final String[] itemTemplate;
+    boolean chunkable;
+
+    ForEachList(ForEachSqlNode node) {
+      this.node = node;
+      this.collectionExpression = node.getCollectionExpression();
+      this.open = node.getOpen();
+      this.close = node.getClose();
+      this.separator = node.getSeparator();
+      this.item = node.getItem();
+      this.index = node.getIndex();
+      this.itemTemplate = node.getItemTemplate();
+    }
+
+    @Override
+    int execute(Runtime runtime, int pc) {
+      Iterable<?> iterable = runtime.evaluator.evaluateIterable(collectionExpression, runtime.context.getBindings());
+      int from = chunkable ? runtime.chunkFrom : 0;
+      int to = chunkable ? runtime.chunkTo : Integer.MAX_VALUE;
+      DynamicContext context = runtime.context;
+      Object indexValue = null;
+      Object itemValue = null;
+      int i = 0;
+      int count = 0;
+      for (Object o : iterable) {
+        if (i >= to) {
+          break;
+        }
+        if (i >= from) {
+          // Issue #709
+          if (o instanceof Map.Entry) {
+            Map.Entry<?, ?> mapEntry = (Map.Entry<?, ?>) o;
+            indexValue = mapEntry.getKey();
+            itemValue = mapEntry.getValue();
+          } else {
+            indexValue = i;
+            itemValue = o;
+          }
+          appendItem(runtime, count++, indexValue, itemValue);
+        }
+        i++;
+      }
+      if (chunkable) {
+        runtime.chunkableSize = i;
+      }
+      if (count == 0) {
+        runtime.record(false);
+        return pc + 1;
+      }
+      for (int padded = node.getPaddedSize(count); count < padded; count++) {
+        appendItem(runtime, count, indexValue, itemValue);
+      }
+      runtime.record(false);
+      if (index != null) {
+        context.bind(index, indexValue);
+      }
+      if (item != null) {
+        context.bind(item, itemValue);
+      }
+      if (close != null) {
+        runtime.append(runtime.sink, close);
+      }
+      return pc + 1;
+    }
+
+    private void appendItem(Runtime runtime, int n, Object indexValue, Object itemValue) {
+      runtime.record(true);
+      if (n == 0 && open != null) {
+        runtime.append(runtime.sink, open);
+      }
+      int uniqueNumber = runtime.context.getUniqueNumber();
+      node.bindItem(runtime.context, uniqueNumber, indexValue, itemValue);
+      runtime.append(runtime.sink, n == 0 || separator == null ? "" : separator);
+      runtime.appendItem(runtime.sink, itemTemplate, uniqueNumber);
+    }
+  }
+
+  // nodes that are not compiled are applied to a context writing to the current sink
+  private static final class Call extends Instruction {
+    private final SqlNode node;
+
+    Call(SqlNode node) {
+      this.node = node;
+    }
+
+    @Override
+    int execute(Runtime runtime, int pc) {
+      node.apply(new SinkContext(runtime, runtime.sink));
+      return pc + 1;
+    }
+  }
+
+  private static final class SinkContext extends DynamicContext {
+    private final Runtime runtime;
+    private final Sink sink;
+
+    SinkContext(Runtime runtime, Sink sink) {
+      super(runtime.configuration, null);
+      this.runtime = runtime;
+      this.sink = sink;
+    }
+
+    @Override
+    public Map<String, Object> getBindings() {
+      return runtime.context.getBindings();
+    }
+
+    @Override
+    public void bind(String name, Object value) {
+      runtime.context.bind(name, value);
+    }
+
+    @Override
+    public void appendSql(String sql) {
+      runtime.append(sink, sql);
+    }
+
+    @Override
+    public String getSql() {
+      return runtime.context.getSql();
+    }
+
+    @Override
+    public int getUniqueNumber() {
+      return runtime.context.getUniqueNumber();
+    }
+  }
+
+  private static boolean isBlank(StringBuilder sql, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (sql.charAt(i) > ' ') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // TrimSqlNode upper cases the whole text and compares it with the (upper cased) overrides
+  private static boolean startsWithIgnoreCase(StringBuilder sql, int start, String prefix) {
+    return sql.length() - start >= prefix.length() && regionMatches(sql, start, prefix);
+  }
+
+  private static boolean endsWithIgnoreCase(StringBuilder sql, int start, String suffix) {
+    int offset = sql.length() - suffix.length();
+    return offset >= start && regionMatches(sql, offset, suffix);
+  }
+
+  private static boolean regionMatches(StringBuilder sql, int offset, String upperCased) {
+    for (int i = 0; i < upperCased.length(); i++) {
+      if (Character.toUpperCase(sql.charAt(offset + i)) != upperCased.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -18,7 +18,7 @@ package org.apache.ibatis.scripting.xmltags;
 import java.util.regex.Pattern;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
-import org.apache.ibatis.parsing.TokenHandler;
+import org.apache.ibatis.parsing.TokenizedText;
 import org.apache.ibatis.scripting.ScriptingException;
 import org.apache.ibatis.type.SimpleTypeRegistry;
 
@@ -28,6 +28,8 @@ import org.apache.ibatis.type.SimpleTypeRegistry;
 public class TextSqlNode implements SqlNode {
   private String text;
   private Pattern injectionFilter;
+  //创建时按${}拆好的文本，运行时只需拼接字面部分和表达式的值
+  private final TokenizedText tokenizedText;
 
   public TextSqlNode(String text) {
     this(text, null);
@@ -36,74 +38,58 @@ public class TextSqlNode implements SqlNode {
   public TextSqlNode(String text, Pattern injectionFilter) {
     this.text = text;
     this.injectionFilter = injectionFilter;
+    this.tokenizedText = new GenericTokenParser("${", "}").tokenize(text);
   }
   
+  String getText() {
+    return text;
+  }
+
   public boolean isDynamic() {
-    DynamicCheckerTokenParser checker = new DynamicCheckerTokenParser();
-    GenericTokenParser parser = createParser(checker);
-    parser.parse(text);
-    return checker.isDynamic();
+    return tokenizedText.hasTokens();
   }
 
   @Override
   public boolean apply(DynamicContext context) {
-    GenericTokenParser parser = createParser(new BindingTokenParser(context, injectionFilter));
-    context.appendSql(parser.parse(text));
+    context.appendSql(render(context));
     return true;
   }
-  
-  private GenericTokenParser createParser(TokenHandler handler) {
-    return new GenericTokenParser("${", "}", handler);
-  }
-
-  private static class BindingTokenParser implements TokenHandler {
-
-    private DynamicContext context;
-    private Pattern injectionFilter;
-
-    public BindingTokenParser(DynamicContext context, Pattern injectionFilter) {
-      this.context = context;
-      this.injectionFilter = injectionFilter;
-    }
 
-    @Override
-    public String handleToken(String content) {
-      Object parameter = context.getBindings().get("_parameter");
-      if (parameter == null) {
-        context.getBindings().put("value", null);
-      } else if (SimpleTypeRegistry.isSimpleType(parameter.getClass())) {
-        context.getBindings().put("value", parameter);
-      }
-      Object value = OgnlCache.getValue(content, context.getBindings());
-      String srtValue = (value == null ? "" : String.valueOf(value)); // issue #274 return "" instead of "null"
-      checkInjection(srtValue);
-      return srtValue;
-    }
-
-    private void checkInjection(String value) {
-      if (injectionFilter != null && !injectionFilter.matcher(value).matches()) {
-        throw new ScriptingException("Invalid input. Please conform to regex" + injectionFilter.pattern());
-      }
+  //替换${}后的文本
+  String render(DynamicContext context) {
+    if (!tokenizedText.hasTokens()) {
+      return tokenizedText.getLiteral(0);
     }
+    StringBuilder sql = new StringBuilder();
+    render(context, sql);
+    return sql.toString();
   }
-  
-  private static class DynamicCheckerTokenParser implements TokenHandler {
-
-    private boolean isDynamic;
 
-    public DynamicCheckerTokenParser() {
-      // Prevent Synthetic Access
+  void render(DynamicContext context, StringBuilder sql) {
+    sql.append(tokenizedText.getLiteral(0));
+    for (int i = 0; i < tokenizedText.getTokenCount(); i++) {
+      sql.append(resolve(context, tokenizedText.getToken(i)));
+      sql.append(tokenizedText.getLiteral(i + 1));
     }
+  }
 
-    public boolean isDynamic() {
-      return isDynamic;
+  private String resolve(DynamicContext context, String content) {
+    Object parameter = context.getBindings().get("_parameter");
+    if (parameter == null) {
+      context.getBindings().put("value", null);
+    } else if (SimpleTypeRegistry.isSimpleType(parameter.getClass())) {
+      context.getBindings().put("value", parameter);
     }
+    Object value = OgnlCache.getValue(content, context.getBindings());
+    String srtValue = (value == null ? "" : String.valueOf(value)); // issue #274 return "" instead of "null"
+    checkInjection(srtValue);
+    return srtValue;
+  }
 
-    @Override
-    public String handleToken(String content) {
-      this.isDynamic = true;
-      return null;
+  private void checkInjection(String value) {
+    if (injectionFilter != null && !injectionFilter.matcher(value).matches()) {
+      throw new ScriptingException("Invalid input. Please conform to regex" + injectionFilter.pattern());
     }
   }
-  
-}
\ No newline at end of file
+
+}
@@ -57,6 +57,26 @@ public class TrimSqlNode implements SqlNode {
     return result;
   }
 
+  SqlNode getContents() {
+    return contents;
+  }
+
+  String getPrefix() {
+    return prefix;
+  }
+
+  String getSuffix() {
+    return suffix;
+  }
+
+  List<String> getPrefixesToOverride() {
+    return prefixesToOverride;
+  }
+
+  List<String> getSuffixesToOverride() {
+    return suffixesToOverride;
+  }
+
   private static List<String> parseOverrides(String overrides) {
     if (overrides != null) {
       final StringTokenizer parser = new StringTokenizer(overrides, "|", false);
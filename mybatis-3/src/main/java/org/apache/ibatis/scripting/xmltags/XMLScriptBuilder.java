@@ -181,7 +181,11 @@ public class XMLScriptBuilder extends BaseBuilder {
       String open = nodeToHandle.getStringAttribute("open");
       String close = nodeToHandle.getStringAttribute("close");
       String separator = nodeToHandle.getStringAttribute("separator");
-      ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator);
+      Integer chunkSize = nodeToHandle.getIntAttribute("chunkSize");
+      if (chunkSize != null && chunkSize <= 0) {
+        throw new BuilderException("The chunkSize of a foreach element must be positive, but was " + chunkSize + ".");
+      }
+      ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator, chunkSize);
       targetContents.add(forEachSqlNode);
     }
   }
@@ -195,7 +199,7 @@ public class XMLScriptBuilder extends BaseBuilder {
     public void handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
       List<SqlNode> contents = parseDynamicTags(nodeToHandle);
       MixedSqlNode mixedSqlNode = new MixedSqlNode(contents);
-      String test = nodeToHandle.getStringAttribute("com/hy");
+      String test = nodeToHandle.getStringAttribute("test");
       IfSqlNode ifSqlNode = new IfSqlNode(mixedSqlNode, test);
       targetContents.add(ifSqlNode);
     }
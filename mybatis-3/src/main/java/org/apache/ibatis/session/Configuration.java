@@ -31,6 +31,9 @@ import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.coherence.CacheCoherenceManager;
+import org.apache.ibatis.cache.coherence.CacheEventTransport;
+import org.apache.ibatis.cache.coherence.LoopbackCacheEventTransport;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
@@ -114,6 +117,8 @@ public class Configuration {
   protected boolean useColumnLabel = true;
   // 是否启用缓存
   protected boolean cacheEnabled = true;
+  // 二级缓存的跨节点一致性，为null时二级缓存只在本JVM内有效
+  protected CacheCoherenceManager cacheCoherenceManager;
   // 指定当结果集中值为 null 的时候是否调用映射对象的 setter（map 对象时为 put）方法，这对于有 Map.keySet() 依赖或 null 值初始化的时候是有用的。
   protected boolean callSettersOnNulls = false;
   // 指定 MyBatis 增加到日志名称的前缀。
@@ -124,6 +129,18 @@ public class Configuration {
   protected Class <? extends VFS> vfsImpl;
   // MyBatis 利用本地缓存机制（Local Cache）防止循环引用（circular references）和加速重复嵌套查询。 默认值为 SESSION，这种情况下会缓存一个会话中执行的所有查询。 若设置值为 STATEMENT，本地会话仅用在语句执行上，对相同 SqlSession 的不同调用将不会共享数据。
   protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
+  // 本地缓存最多保存的条目数，超出后按LRU淘汰，0表示不限制
+  protected int localCacheMaxEntries;
+  // 本地缓存中所有结果列表合计最多保存的行数（用于估算占用的内存），超出后按LRU淘汰，0表示不限制
+  protected int localCacheMaxRows;
+  // 每个动态SQL语句缓存的已解析#{}占位符的SQL模板数量，0表示不缓存
+  protected int dynamicSqlCacheSize = 32;
+  // 将 IN (...) 形式的 foreach 展开的参数个数补齐到2的幂（重复最后一个元素），使不同长度的列表共用少量SQL文本
+  protected boolean inListPaddingEnabled;
+  // 构建SqlSessionFactory时用于预先创建结果类型和参数类型反射器的线程数，0表示不预热
+  protected int reflectorWarmUpThreads;
+  // 构建SqlSessionFactory时冻结类型处理器注册器，之后不能再注册类型处理器
+  protected boolean freezeTypeHandlerRegistry;
   // 当没有为参数提供特定的 JDBC 类型时，为空值指定 JDBC 类型。 某些驱动需要指定列的 JDBC 类型，多数情况直接用一般类型即可，比如 NULL、VARCHAR 或 OTHER。
   protected JdbcType jdbcTypeForNull = JdbcType.OTHER;
   // 指定对象的哪个方法触发一次延迟加载。
@@ -173,6 +190,7 @@ public class Configuration {
   protected final Map<String, MappedStatement> mappedStatements = new StrictMap<MappedStatement>("Mapped Statements collection");
   //二级缓存列表，key->缓存的id(nameSpace)，value->缓存对象
   protected final Map<String, Cache> caches = new StrictMap<Cache>("Caches collection");
+  protected final Set<String> refreshAheadCaches = new HashSet<String>();
   protected final Map<String, ResultMap> resultMaps = new StrictMap<ResultMap>("Result Maps collection");
   protected final Map<String, ParameterMap> parameterMaps = new StrictMap<ParameterMap>("Parameter Maps collection");
   protected final Map<String, KeyGenerator> keyGenerators = new StrictMap<KeyGenerator>("Key Generators collection");
@@ -216,6 +234,8 @@ public class Configuration {
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
 
+    typeAliasRegistry.registerAlias("LOOPBACK", LoopbackCacheEventTransport.class);
+
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
     typeAliasRegistry.registerAlias("XML", XMLLanguageDriver.class);
@@ -409,6 +429,29 @@ public class Configuration {
     this.cacheEnabled = cacheEnabled;
   }
 
+  public CacheEventTransport getCacheEventTransport() {
+    return cacheCoherenceManager == null ? null : cacheCoherenceManager.getTransport();
+  }
+
+  public void setCacheEventTransport(CacheEventTransport cacheEventTransport) {
+    if (cacheCoherenceManager != null) {
+      cacheCoherenceManager.close();
+    }
+    this.cacheCoherenceManager = cacheEventTransport == null ? null : new CacheCoherenceManager(this, cacheEventTransport);
+  }
+
+  public CacheCoherenceManager getCacheCoherenceManager() {
+    return cacheCoherenceManager;
+  }
+
+  /**
+   * Unsubscribes this configuration from its cache event transport and releases the transport.
+   * Call it when the configuration is no longer used, e.g. on application shutdown.
+   */
+  public void closeCacheEventTransport() {
+    setCacheEventTransport(null);
+  }
+
   public Integer getDefaultStatementTimeout() {
     return defaultStatementTimeout;
   }
@@ -441,6 +484,54 @@ public class Configuration {
     this.localCacheScope = localCacheScope;
   }
 
+  public int getLocalCacheMaxEntries() {
+    return localCacheMaxEntries;
+  }
+
+  public void setLocalCacheMaxEntries(int localCacheMaxEntries) {
+    this.localCacheMaxEntries = localCacheMaxEntries;
+  }
+
+  public int getLocalCacheMaxRows() {
+    return localCacheMaxRows;
+  }
+
+  public void setLocalCacheMaxRows(int localCacheMaxRows) {
+    this.localCacheMaxRows = localCacheMaxRows;
+  }
+
+  public int getDynamicSqlCacheSize() {
+    return dynamicSqlCacheSize;
+  }
+
+  public void setDynamicSqlCacheSize(int dynamicSqlCacheSize) {
+    this.dynamicSqlCacheSize = dynamicSqlCacheSize;
+  }
+
+  public boolean isInListPaddingEnabled() {
+    return inListPaddingEnabled;
+  }
+
+  public void setInListPaddingEnabled(boolean inListPaddingEnabled) {
+    this.inListPaddingEnabled = inListPaddingEnabled;
+  }
+
+  public int getReflectorWarmUpThreads() {
+    return reflectorWarmUpThreads;
+  }
+
+  public void setReflectorWarmUpThreads(int reflectorWarmUpThreads) {
+    this.reflectorWarmUpThreads = reflectorWarmUpThreads;
+  }
+
+  public boolean isFreezeTypeHandlerRegistry() {
+    return freezeTypeHandlerRegistry;
+  }
+
+  public void setFreezeTypeHandlerRegistry(boolean freezeTypeHandlerRegistry) {
+    this.freezeTypeHandlerRegistry = freezeTypeHandlerRegistry;
+  }
+
   public JdbcType getJdbcTypeForNull() {
     return jdbcTypeForNull;
   }
@@ -561,6 +652,15 @@ public class Configuration {
 
   //创建执行器--这里是简单工厂模式
   public Executor newExecutor(Transaction transaction, ExecutorType executorType) {
+    return newExecutor(transaction, executorType, cacheEnabled);
+  }
+
+  /**
+   * Creates an executor wrapped by the plugins, with or without the 2nd level cache regardless of the
+   * <code>cacheEnabled</code> setting. Used to run statements that must bypass the 2nd level cache but not the
+   * plugins, such as cache refreshes.
+   */
+  public Executor newExecutor(Transaction transaction, ExecutorType executorType, boolean cached) {
     //若未指定executorType，则使用默认的(SimpleExecutor)，否则创建指定类型的Executor todo 这两行代码是否重复了
     executorType = executorType == null ? defaultExecutorType : executorType;
     //若默认执行器类型被设置为null，则使用SIMPLE执行器
@@ -575,8 +675,8 @@ public class Configuration {
       executor = new SimpleExecutor(this, transaction);
     }
     //若开启了二级缓存，则会创建CachingExecutor对象，并将上面创建的Executor对象作为其delegate，返回创建的CachingExecutor对象
-    if (cacheEnabled) {
-      executor = new CachingExecutor(executor);
+    if (cached) {
+      executor = new CachingExecutor(executor, cacheCoherenceManager);
     }
     //扩展点，插件逻辑，实际返回的是对executor进行包装了的代理对象，该代理对象包含了插件的逻辑
     executor = (Executor) interceptorChain.pluginAll(executor);
@@ -623,6 +723,18 @@ public class Configuration {
     return caches.containsKey(id);
   }
 
+  /**
+   * Marks the cache as reloading its entries ahead of expiry, so the statements using it attach a refresher to the
+   * keys of the entries they load.
+   */
+  public void addRefreshAheadCache(String id) {
+    refreshAheadCaches.add(id);
+  }
+
+  public boolean isRefreshAheadCache(String id) {
+    return refreshAheadCaches.contains(id);
+  }
+
   public void addResultMap(ResultMap rm) {
     resultMaps.put(rm.getId(), rm);
     checkLocallyForDiscriminatedNestedResultMaps(rm);
@@ -770,6 +882,44 @@ public class Configuration {
     cacheRefMap.put(namespace, referencedNamespace);
   }
 
+  /**
+   * Creates the reflectors of the result and parameter types of all loaded statements up front, with
+   * <code>reflectorWarmUpThreads</code> threads. Does nothing when that setting is 0 or the reflector factory is not a
+   * {@link DefaultReflectorFactory}.
+   */
+  public void warmUpReflectors() {
+    if (reflectorWarmUpThreads <= 0 || !(reflectorFactory instanceof DefaultReflectorFactory)) {
+      return;
+    }
+    Set<Class<?>> types = new HashSet<Class<?>>();
+    // StrictMap的值中可能有Ambiguity，按Object遍历
+    for (Object value : resultMaps.values()) {
+      if (value instanceof ResultMap) {
+        addReflectedType(types, ((ResultMap) value).getType());
+      }
+    }
+    for (Object value : parameterMaps.values()) {
+      if (value instanceof ParameterMap) {
+        addReflectedType(types, ((ParameterMap) value).getType());
+      }
+    }
+    for (Object value : mappedStatements.values()) {
+      if (value instanceof MappedStatement && ((MappedStatement) value).getParameterMap() != null) {
+        addReflectedType(types, ((MappedStatement) value).getParameterMap().getType());
+      }
+    }
+    ((DefaultReflectorFactory) reflectorFactory).warmUp(types, reflectorWarmUpThreads);
+  }
+
+  //只预热会由BeanWrapper反射的类型
+  private void addReflectedType(Set<Class<?>> types, Class<?> type) {
+    if (type != null && type != Object.class && !type.isPrimitive() && !type.isArray()
+        && !Map.class.isAssignableFrom(type) && !Collection.class.isAssignableFrom(type)
+        && !typeHandlerRegistry.hasTypeHandler(type)) {
+      types.add(type);
+    }
+  }
+
   /*
    * Parses all the unprocessed statement nodes in the cache. It is recommended
    * to call this method once all the mappers are added as it provides fail-fast
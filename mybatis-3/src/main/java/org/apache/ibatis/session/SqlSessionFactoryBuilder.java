@@ -103,6 +103,10 @@ public class SqlSessionFactoryBuilder {
 
   //根据Configuration构建DefaultSqlSessionFactory
   public SqlSessionFactory build(Configuration config) {
+    if (config.isFreezeTypeHandlerRegistry()) {
+      config.getTypeHandlerRegistry().freeze();
+    }
+    config.warmUpReflectors();
     return new DefaultSqlSessionFactory(config);
   }
 
@@ -17,6 +17,7 @@ package org.apache.ibatis.session.defaults;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -25,13 +26,17 @@ import java.util.Map;
 import org.apache.ibatis.binding.BindingException;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.exceptions.TooManyResultsException;
+import org.apache.ibatis.executor.BatchExecutor;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
@@ -131,7 +136,12 @@ public class DefaultSqlSession implements SqlSession {
   public <E> List<E> selectList(String statement, Object parameter, RowBounds rowBounds) {
     try {
       MappedStatement ms = configuration.getMappedStatement(statement);
-      return executor.query(ms, wrapCollection(parameter), rowBounds, Executor.NO_RESULT_HANDLER);
+      Object parameterObject = wrapCollection(parameter);
+      int chunks = getChunkCount(ms, parameterObject);
+      if (chunks > 1) {
+        return selectChunks(ms, parameterObject, rowBounds, chunks);
+      }
+      return executor.query(ms, parameterObject, rowBounds, Executor.NO_RESULT_HANDLER);
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
     } finally {
@@ -154,8 +164,14 @@ public class DefaultSqlSession implements SqlSession {
     try {
       //从环境配置信息中获取MappedStatement
       MappedStatement ms = configuration.getMappedStatement(statement);
+      Object parameterObject = wrapCollection(parameter);
+      int chunks = getChunkCount(ms, parameterObject);
+      if (chunks > 1) {
+        selectChunks(ms, parameterObject, rowBounds, handler, chunks);
+        return;
+      }
       //执行executor的query方法
-      executor.query(ms, wrapCollection(parameter), rowBounds, handler);
+      executor.query(ms, parameterObject, rowBounds, handler);
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
     } finally {
@@ -183,7 +199,12 @@ public class DefaultSqlSession implements SqlSession {
     try {
       dirty = true;
       MappedStatement ms = configuration.getMappedStatement(statement);
-      return executor.update(ms, wrapCollection(parameter));
+      Object parameterObject = wrapCollection(parameter);
+      int chunks = getChunkCount(ms, parameterObject);
+      if (chunks > 1) {
+        return updateChunks(ms, parameterObject, chunks);
+      }
+      return executor.update(ms, parameterObject);
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error updating database.  Cause: " + e, e);
     } finally {
@@ -286,6 +307,49 @@ public class DefaultSqlSession implements SqlSession {
     return (!autoCommit && dirty) || force;
   }
 
+  //IN列表超过 foreach 的 chunkSize 时分段执行的次数
+  private int getChunkCount(MappedStatement ms, Object parameterObject) {
+    SqlSource sqlSource = ms.getSqlSource();
+    return sqlSource instanceof DynamicSqlSource ? ((DynamicSqlSource) sqlSource).getChunkCount(parameterObject) : 1;
+  }
+
+  //各段的结果依次合并后再按RowBounds截取
+  private <E> List<E> selectChunks(MappedStatement ms, Object parameterObject, RowBounds rowBounds, int chunks) throws SQLException {
+    DynamicSqlSource sqlSource = (DynamicSqlSource) ms.getSqlSource();
+    long needed = (long) rowBounds.getOffset() + rowBounds.getLimit();
+    List<E> result = new ArrayList<E>();
+    for (int i = 0; i < chunks && result.size() < needed; i++) {
+      result.addAll(executor.<E>query(ms.withSqlSource(sqlSource.getChunk(i)), parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER));
+    }
+    int from = Math.min(rowBounds.getOffset(), result.size());
+    int to = (int) Math.min(needed, result.size());
+    return from == 0 && to == result.size() ? result : new ArrayList<E>(result.subList(from, to));
+  }
+
+  private void selectChunks(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler handler, int chunks) throws SQLException {
+    DynamicSqlSource sqlSource = (DynamicSqlSource) ms.getSqlSource();
+    ChunkResultHandler chunkHandler = new ChunkResultHandler(handler, rowBounds);
+    for (int i = 0; i < chunks && !chunkHandler.stopped; i++) {
+      executor.query(ms.withSqlSource(sqlSource.getChunk(i)), parameterObject, RowBounds.DEFAULT, chunkHandler);
+    }
+  }
+
+  private int updateChunks(MappedStatement ms, Object parameterObject, int chunks) throws SQLException {
+    DynamicSqlSource sqlSource = (DynamicSqlSource) ms.getSqlSource();
+    int result = 0;
+    boolean batched = false;
+    for (int i = 0; i < chunks; i++) {
+      int count = executor.update(ms.withSqlSource(sqlSource.getChunk(i)), parameterObject);
+      if (count == BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+        //批量执行器在提交前不返回影响行数
+        batched = true;
+      } else {
+        result += count;
+      }
+    }
+    return batched ? BatchExecutor.BATCH_UPDATE_RETURN_VALUE : result;
+  }
+
   //装饰集合
   private Object wrapCollection(final Object object) {
     if (object instanceof Collection) {
@@ -317,4 +381,32 @@ public class DefaultSqlSession implements SqlSession {
 
   }
 
+  //分段执行时跨段按RowBounds跳过和截取结果，处理器停止后不再执行后续分段
+  private static class ChunkResultHandler implements ResultHandler {
+    private final ResultHandler delegate;
+    private final long offset;
+    private final long end;
+    private long count;
+    private boolean stopped;
+
+    ChunkResultHandler(ResultHandler delegate, RowBounds rowBounds) {
+      this.delegate = delegate;
+      this.offset = rowBounds.getOffset();
+      this.end = offset + rowBounds.getLimit();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void handleResult(ResultContext context) {
+      if (count++ < offset) {
+        return;
+      }
+      delegate.handleResult(context);
+      if (context.isStopped() || count >= end) {
+        stopped = true;
+        context.stop();
+      }
+    }
+  }
+
 }
@@ -0,0 +1,91 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.lang.UsesJava7;
+
+/**
+ * Base of the <code>java.time</code> handlers whose type JDBC 4.2 maps to a SQL type. Results are first read with
+ * <code>getObject(column, type)</code>, so drivers that support it build the value without an intermediate
+ * <code>java.sql</code> object. Whenever that does not yield an instance of the type (the driver rejects the call,
+ * e.g. Derby, predates JDBC 4.1, or returns a <code>java.sql</code> value instead, e.g. HSQLDB 2.3) the handler reads
+ * the <code>java.sql</code> type and converts it. Errors that are not about the conversion, such as an unknown column,
+ * are thrown by that second read.
+ *
+ * @param <T> the <code>java.time</code> type
+ */
+@UsesJava7
+public abstract class BaseJsr310TypeHandler<T> extends BaseTypeHandler<T> {
+
+  private final Class<T> temporalType;
+
+  protected BaseJsr310TypeHandler(Class<T> temporalType) {
+    this.temporalType = temporalType;
+  }
+
+  @Override
+  public T getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    Object value;
+    try {
+      value = rs.getObject(columnName, temporalType);
+    } catch (SQLException e) {
+      value = null;
+    } catch (AbstractMethodError e) {
+      // a JDBC 4.0 driver
+      value = null;
+    }
+    return temporalType.isInstance(value) ? temporalType.cast(value) : getConvertedResult(rs, columnName);
+  }
+
+  @Override
+  public T getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    Object value;
+    try {
+      value = rs.getObject(columnIndex, temporalType);
+    } catch (SQLException e) {
+      value = null;
+    } catch (AbstractMethodError e) {
+      // a JDBC 4.0 driver
+      value = null;
+    }
+    return temporalType.isInstance(value) ? temporalType.cast(value) : getConvertedResult(rs, columnIndex);
+  }
+
+  @Override
+  public T getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    Object value;
+    try {
+      value = cs.getObject(columnIndex, temporalType);
+    } catch (SQLException e) {
+      value = null;
+    } catch (AbstractMethodError e) {
+      // a JDBC 4.0 driver
+      value = null;
+    }
+    return temporalType.isInstance(value) ? temporalType.cast(value) : getConvertedResult(cs, columnIndex);
+  }
+
+  protected abstract T getConvertedResult(ResultSet rs, String columnName) throws SQLException;
+
+  protected abstract T getConvertedResult(ResultSet rs, int columnIndex) throws SQLException;
+
+  protected abstract T getConvertedResult(CallableStatement cs, int columnIndex) throws SQLException;
+
+}
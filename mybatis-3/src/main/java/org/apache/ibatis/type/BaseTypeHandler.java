@@ -52,9 +52,7 @@ public abstract class BaseTypeHandler<T> extends TypeReference<T> implements Typ
       try {
         setNonNullParameter(ps, i, parameter, jdbcType);
       } catch (Exception e) {
-        throw new TypeException("Error setting non null for parameter #" + i + " with JdbcType " + jdbcType + " . " +
-                "Try setting a different JdbcType for this parameter or a different configuration property. " +
-                "Cause: " + e, e);
+        throw nonNullParameterException(i, jdbcType, e);
       }
     }
   }
@@ -65,7 +63,7 @@ public abstract class BaseTypeHandler<T> extends TypeReference<T> implements Typ
     try {
       result = getNullableResult(rs, columnName);
     } catch (Exception e) {
-      throw new ResultMapException("Error attempting to get column '" + columnName + "' from result set.  Cause: " + e, e);
+      throw resultException(columnName, e);
     }
     if (rs.wasNull()) {
       return null;
@@ -104,6 +102,16 @@ public abstract class BaseTypeHandler<T> extends TypeReference<T> implements Typ
     }
   }
 
+  static TypeException nonNullParameterException(int i, JdbcType jdbcType, Exception e) {
+    return new TypeException("Error setting non null for parameter #" + i + " with JdbcType " + jdbcType + " . " +
+            "Try setting a different JdbcType for this parameter or a different configuration property. " +
+            "Cause: " + e, e);
+  }
+
+  static ResultMapException resultException(String columnName, Exception e) {
+    return new ResultMapException("Error attempting to get column '" + columnName + "' from result set.  Cause: " + e, e);
+  }
+
   public abstract void setNonNullParameter(PreparedStatement ps, int i, T parameter, JdbcType jdbcType) throws SQLException;
 
   public abstract T getNullableResult(ResultSet rs, String columnName) throws SQLException;
@@ -0,0 +1,66 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps a BLOB to an {@link InputStream} without reading it into memory. The stream comes from the driver's
+ * {@link Blob} and can only be read while the session (and its transaction) that fetched it is open.
+ * <p>
+ * Parameters are streamed to the driver. A {@link ByteArrayInputStream} is bound with its length, other streams are
+ * read until their end.
+ */
+public class BlobInputStreamTypeHandler extends BaseTypeHandler<InputStream> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, InputStream parameter, JdbcType jdbcType)
+      throws SQLException {
+    if (parameter instanceof ByteArrayInputStream) {
+      ps.setBlob(i, parameter, ((ByteArrayInputStream) parameter).available());
+    } else {
+      ps.setBlob(i, parameter);
+    }
+  }
+
+  @Override
+  public InputStream getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return toInputStream(rs.getBlob(columnName));
+  }
+
+  @Override
+  public InputStream getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return toInputStream(rs.getBlob(columnIndex));
+  }
+
+  @Override
+  public InputStream getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return toInputStream(cs.getBlob(columnIndex));
+  }
+
+  private InputStream toInputStream(Blob blob) throws SQLException {
+    return blob == null ? null : blob.getBinaryStream();
+  }
+}
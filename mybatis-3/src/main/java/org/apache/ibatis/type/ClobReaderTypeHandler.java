@@ -0,0 +1,60 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.Reader;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps a CLOB to a {@link Reader} without reading it into memory. The reader comes from the driver's {@link Clob}
+ * and can only be read while the session (and its transaction) that fetched it is open.
+ * <p>
+ * Parameters are streamed to the driver until the end of the reader.
+ */
+public class ClobReaderTypeHandler extends BaseTypeHandler<Reader> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, Reader parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setClob(i, parameter);
+  }
+
+  @Override
+  public Reader getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return toReader(rs.getClob(columnName));
+  }
+
+  @Override
+  public Reader getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return toReader(rs.getClob(columnIndex));
+  }
+
+  @Override
+  public Reader getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return toReader(cs.getClob(columnIndex));
+  }
+
+  private Reader toReader(Clob clob) throws SQLException {
+    return clob == null ? null : clob.getCharacterStream();
+  }
+}
@@ -0,0 +1,239 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+
+/**
+ * Binds a {@link Collection} or a Java array as a single SQL array parameter, created with
+ * {@link java.sql.Connection#createArrayOf(String, Object[])}.
+ * <p>
+ * With this handler an IN list can be written as <code>ID = ANY(#{ids, jdbcType=ARRAY})</code> (PostgreSQL, HSQLDB)
+ * or <code>ID IN (UNNEST(#{ids, jdbcType=ARRAY}))</code> (HSQLDB) instead of a <code>&lt;foreach&gt;</code>: the SQL
+ * text and the number of parameters no longer depend on the size of the list. The SQL type of the array elements is
+ * taken from the component type of a Java array or from the first non null element of a collection, so an empty
+ * collection must be passed as a typed Java array (e.g. <code>Long[]</code>). Type names are the PostgreSQL ones on
+ * PostgreSQL and the standard JDBC ones elsewhere. A {@link java.sql.Array} parameter is bound as is.
+ * <p>
+ * Results are read as {@link ArrayTypeHandler} does and, when the handler is created for a collection or Java array
+ * type, copied into a new instance of that type.
+ */
+public class CollectionArrayTypeHandler extends ArrayTypeHandler {
+
+  //Java类型对应的数组元素SQL类型名
+  private static final Map<Class<?>, String> ELEMENT_TYPE_NAMES = new HashMap<Class<?>, String>();
+  private static final Map<Class<?>, String> POSTGRESQL_ELEMENT_TYPE_NAMES = new HashMap<Class<?>, String>();
+
+  private static final DefaultObjectFactory OBJECT_FACTORY = new DefaultObjectFactory();
+
+  static {
+    ELEMENT_TYPE_NAMES.put(String.class, JdbcType.VARCHAR.name());
+    ELEMENT_TYPE_NAMES.put(Character.class, JdbcType.CHAR.name());
+    ELEMENT_TYPE_NAMES.put(Boolean.class, JdbcType.BOOLEAN.name());
+    ELEMENT_TYPE_NAMES.put(Byte.class, JdbcType.TINYINT.name());
+    ELEMENT_TYPE_NAMES.put(Short.class, JdbcType.SMALLINT.name());
+    ELEMENT_TYPE_NAMES.put(Integer.class, JdbcType.INTEGER.name());
+    ELEMENT_TYPE_NAMES.put(Long.class, JdbcType.BIGINT.name());
+    ELEMENT_TYPE_NAMES.put(Float.class, JdbcType.REAL.name());
+    ELEMENT_TYPE_NAMES.put(Double.class, JdbcType.DOUBLE.name());
+    ELEMENT_TYPE_NAMES.put(BigInteger.class, JdbcType.NUMERIC.name());
+    ELEMENT_TYPE_NAMES.put(BigDecimal.class, JdbcType.NUMERIC.name());
+    ELEMENT_TYPE_NAMES.put(java.util.Date.class, JdbcType.TIMESTAMP.name());
+    ELEMENT_TYPE_NAMES.put(java.sql.Timestamp.class, JdbcType.TIMESTAMP.name());
+    ELEMENT_TYPE_NAMES.put(java.sql.Date.class, JdbcType.DATE.name());
+    ELEMENT_TYPE_NAMES.put(java.sql.Time.class, JdbcType.TIME.name());
+    ELEMENT_TYPE_NAMES.put(byte[].class, JdbcType.VARBINARY.name());
+
+    // PgJDBC只识别PostgreSQL的类型名
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(String.class, "varchar");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(Character.class, "bpchar");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(Boolean.class, "bool");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(Byte.class, "int2");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(Short.class, "int2");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(Integer.class, "int4");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(Long.class, "int8");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(Float.class, "float4");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(Double.class, "float8");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(BigInteger.class, "numeric");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(BigDecimal.class, "numeric");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(java.util.Date.class, "timestamp");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(java.sql.Timestamp.class, "timestamp");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(java.sql.Date.class, "date");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(java.sql.Time.class, "time");
+    POSTGRESQL_ELEMENT_TYPE_NAMES.put(byte[].class, "bytea");
+  }
+
+  private final Class<?> type;
+
+  public CollectionArrayTypeHandler() {
+    this(null);
+  }
+
+  /**
+   * @param type The collection or Java array type results are copied into, or <code>null</code> to return the
+   *          array read from the driver
+   */
+  public CollectionArrayTypeHandler(Class<?> type) {
+    super();
+    this.type = type;
+  }
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, Object parameter, JdbcType jdbcType) throws SQLException {
+    if (parameter instanceof java.sql.Array) {
+      super.setNonNullParameter(ps, i, parameter, jdbcType);
+      return;
+    }
+    Object[] elements;
+    Class<?> elementType;
+    if (parameter instanceof Collection) {
+      elements = ((Collection<?>) parameter).toArray();
+      elementType = null;
+    } else if (parameter.getClass().isArray()) {
+      elements = toObjectArray(parameter);
+      elementType = parameter.getClass().getComponentType();
+    } else {
+      throw new TypeException("Could not bind a parameter of " + parameter.getClass() + " as an SQL array. "
+          + "Expected a collection, a Java array or a java.sql.Array.");
+    }
+    Connection connection = ps.getConnection();
+    ps.setArray(i, connection.createArrayOf(resolveElementTypeName(connection, elementType, elements), elements));
+  }
+
+  @Override
+  public Object getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return toResultType(super.getNullableResult(rs, columnName));
+  }
+
+  @Override
+  public Object getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return toResultType(super.getNullableResult(rs, columnIndex));
+  }
+
+  @Override
+  public Object getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    return toResultType(super.getNullableResult(cs, columnIndex));
+  }
+
+  private Object toResultType(Object array) {
+    if (array == null || type == null || type.isInstance(array)) {
+      return array;
+    }
+    Object[] elements = toObjectArray(array);
+    if (type.isArray()) {
+      Object result = Array.newInstance(type.getComponentType(), elements.length);
+      try {
+        for (int i = 0; i < elements.length; i++) {
+          Array.set(result, i, elements[i]);
+        }
+      } catch (IllegalArgumentException e) {
+        throw new TypeException("Could not copy an SQL array of " + array.getClass().getComponentType() + " into "
+            + type.getSimpleName() + ". Cause: " + e, e);
+      }
+      return result;
+    }
+    if (Collection.class.isAssignableFrom(type)) {
+      @SuppressWarnings("unchecked")
+      Collection<Object> result = (Collection<Object>) OBJECT_FACTORY.create(type, elements.length);
+      result.addAll(Arrays.asList(elements));
+      return result;
+    }
+    return array;
+  }
+
+  private static Object[] toObjectArray(Object array) {
+    if (array instanceof Object[]) {
+      return (Object[]) array;
+    }
+    // 基本类型数组需要逐个装箱
+    int length = Array.getLength(array);
+    Object[] elements = new Object[length];
+    for (int i = 0; i < length; i++) {
+      elements[i] = Array.get(array, i);
+    }
+    return elements;
+  }
+
+  /**
+   * Returns the SQL type name used for the elements of the array. Subclasses can override it to support other
+   * element types or vendor specific type names.
+   */
+  protected String resolveElementTypeName(Connection connection, Class<?> elementType, Object[] elements) throws SQLException {
+    Class<?> type = elementType == null ? null : boxed(elementType);
+    if (type == null || type == Object.class) {
+      type = null;
+      for (Object element : elements) {
+        if (element != null) {
+          type = element.getClass();
+          break;
+        }
+      }
+    }
+    if (type == null) {
+      throw new TypeException("Could not determine the SQL type of the elements of an empty collection. "
+          + "Pass a typed Java array (e.g. Long[]) or a java.sql.Array instead.");
+    }
+    Map<Class<?>, String> typeNames = isPostgreSql(connection) ? POSTGRESQL_ELEMENT_TYPE_NAMES : ELEMENT_TYPE_NAMES;
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      String typeName = typeNames.get(c);
+      if (typeName != null) {
+        return typeName;
+      }
+    }
+    throw new TypeException("No SQL array element type is known for " + type.getName() + ".");
+  }
+
+  private static boolean isPostgreSql(Connection connection) throws SQLException {
+    String productName = connection.getMetaData().getDatabaseProductName();
+    return productName != null && productName.startsWith("PostgreSQL");
+  }
+
+  private static Class<?> boxed(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return type;
+    } else if (type == int.class) {
+      return Integer.class;
+    } else if (type == long.class) {
+      return Long.class;
+    } else if (type == double.class) {
+      return Double.class;
+    } else if (type == float.class) {
+      return Float.class;
+    } else if (type == short.class) {
+      return Short.class;
+    } else if (type == byte.class) {
+      return Byte.class;
+    } else if (type == char.class) {
+      return Character.class;
+    } else {
+      return Boolean.class;
+    }
+  }
+
+}
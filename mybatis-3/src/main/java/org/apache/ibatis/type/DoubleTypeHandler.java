@@ -23,7 +23,10 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class DoubleTypeHandler extends BaseTypeHandler<Double> {
+public class DoubleTypeHandler extends BaseTypeHandler<Double> implements PrimitiveTypeHandler.OfDouble {
+
+  // 子类可能重写了getNullableResult，此时不走基本类型的读写
+  private final boolean primitive = getClass() == DoubleTypeHandler.class;
 
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Double parameter, JdbcType jdbcType)
@@ -49,4 +52,29 @@ public class DoubleTypeHandler extends BaseTypeHandler<Double> {
     return cs.getDouble(columnIndex);
   }
 
+  @Override
+  public double getDouble(ResultSet rs, String columnName) throws SQLException {
+    if (!primitive) {
+      Double result = getResult(rs, columnName);
+      return result == null ? 0 : result;
+    }
+    try {
+      return rs.getDouble(columnName);
+    } catch (Exception e) {
+      throw resultException(columnName, e);
+    }
+  }
+
+  @Override
+  public void setDouble(PreparedStatement ps, int i, double parameter, JdbcType jdbcType) throws SQLException {
+    if (!primitive) {
+      setParameter(ps, i, parameter, jdbcType);
+      return;
+    }
+    try {
+      ps.setDouble(i, parameter);
+    } catch (Exception e) {
+      throw nonNullParameterException(i, jdbcType, e);
+    }
+  }
 }
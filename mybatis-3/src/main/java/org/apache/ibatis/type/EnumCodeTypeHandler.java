@@ -0,0 +1,63 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps an enum implementing {@link CodedEnum} to its <code>int</code> code. It is not used by default; register it for
+ * the enum type or set it as the <code>typeHandler</code> of a mapping.
+ */
+public class EnumCodeTypeHandler<E extends Enum<E>> extends BaseTypeHandler<E> {
+
+  private final EnumConstants<E> constants;
+
+  public EnumCodeTypeHandler(Class<E> type) {
+    if (type == null) {
+      throw new IllegalArgumentException("Type argument cannot be null");
+    }
+    if (!CodedEnum.class.isAssignableFrom(type)) {
+      throw new IllegalArgumentException(type.getSimpleName() + " does not implement " + CodedEnum.class.getSimpleName() + ".");
+    }
+    this.constants = EnumConstants.forType(type);
+  }
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, E parameter, JdbcType jdbcType) throws SQLException {
+    ps.setInt(i, ((CodedEnum) parameter).getCode());
+  }
+
+  @Override
+  public E getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    int code = rs.getInt(columnName);
+    return rs.wasNull() ? null : constants.byCode(code);
+  }
+
+  @Override
+  public E getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    int code = rs.getInt(columnIndex);
+    return rs.wasNull() ? null : constants.byCode(code);
+  }
+
+  @Override
+  public E getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    int code = cs.getInt(columnIndex);
+    return cs.wasNull() ? null : constants.byCode(code);
+  }
+}
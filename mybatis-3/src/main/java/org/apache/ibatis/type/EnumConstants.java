@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Lookup tables of the constants of an enum by name, ordinal and {@link CodedEnum code}, built once per enum type and
+ * shared by all its enum type handlers. Lookups do not allocate.
+ */
+final class EnumConstants<E extends Enum<E>> {
+
+  // 值为弱引用，处理器不再使用后枚举类及其类加载器可以被回收
+  private static final Map<Class<?>, WeakReference<EnumConstants<?>>> CACHE =
+      Collections.synchronizedMap(new WeakHashMap<Class<?>, WeakReference<EnumConstants<?>>>());
+
+  // 编码范围不超过常量数的该倍数时使用数组，否则使用Map
+  private static final int MAX_CODE_SPREAD = 4;
+
+  private final Class<E> type;
+  private final E[] byOrdinal;
+  private final Map<String, E> byName;
+  private final int minCode;
+  private final E[] byDenseCode;
+  private final Map<Integer, E> bySparseCode;
+
+  @SuppressWarnings("unchecked")
+  static <E extends Enum<E>> EnumConstants<E> forType(Class<E> type) {
+    if (!type.isEnum() && type.getSuperclass() != null && type.getSuperclass().isEnum()) {
+      // 带类体的枚举常量，其类是枚举的匿名子类
+      type = (Class<E>) type.getSuperclass();
+    }
+    WeakReference<EnumConstants<?>> ref = CACHE.get(type);
+    EnumConstants<?> constants = ref == null ? null : ref.get();
+    if (constants == null) {
+      constants = new EnumConstants<E>(type);
+      CACHE.put(type, new WeakReference<EnumConstants<?>>(constants));
+    }
+    return (EnumConstants<E>) constants;
+  }
+
+  @SuppressWarnings("unchecked")
+  private EnumConstants(Class<E> type) {
+    this.type = type;
+    this.byOrdinal = type.getEnumConstants();
+    if (byOrdinal == null) {
+      throw new IllegalArgumentException(type.getSimpleName() + " does not represent an enum type.");
+    }
+    this.byName = new HashMap<String, E>(byOrdinal.length * 2);
+    for (E constant : byOrdinal) {
+      byName.put(constant.name(), constant);
+    }
+    if (!CodedEnum.class.isAssignableFrom(type) || byOrdinal.length == 0) {
+      this.minCode = 0;
+      this.byDenseCode = null;
+      this.bySparseCode = null;
+      return;
+    }
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    Map<Integer, E> codes = new HashMap<Integer, E>(byOrdinal.length * 2);
+    for (E constant : byOrdinal) {
+      int code = ((CodedEnum) constant).getCode();
+      E previous = codes.put(code, constant);
+      if (previous != null) {
+        throw new IllegalArgumentException(type.getSimpleName() + "." + previous.name() + " and " + type.getSimpleName()
+            + "." + constant.name() + " have the same code " + code + ".");
+      }
+      min = Math.min(min, code);
+      max = Math.max(max, code);
+    }
+    this.minCode = min;
+    long spread = (long) max - min + 1;
+    if (spread <= (long) byOrdinal.length * MAX_CODE_SPREAD) {
+      this.byDenseCode = (E[]) Array.newInstance(type, (int) spread);
+      for (E constant : byOrdinal) {
+        byDenseCode[((CodedEnum) constant).getCode() - min] = constant;
+      }
+      this.bySparseCode = null;
+    } else {
+      this.byDenseCode = null;
+      this.bySparseCode = codes;
+    }
+  }
+
+  E byName(String name) {
+    E constant = byName.get(name);
+    if (constant == null) {
+      // same as Enum.valueOf
+      throw new IllegalArgumentException("No enum constant " + type.getCanonicalName() + "." + name);
+    }
+    return constant;
+  }
+
+  E byOrdinal(int ordinal) {
+    if (ordinal < 0 || ordinal >= byOrdinal.length) {
+      throw new IllegalArgumentException("Cannot convert " + ordinal + " to " + type.getSimpleName() + " by ordinal value.");
+    }
+    return byOrdinal[ordinal];
+  }
+
+  E byCode(int code) {
+    E constant = null;
+    if (byDenseCode != null) {
+      long index = (long) code - minCode;
+      if (index >= 0 && index < byDenseCode.length) {
+        constant = byDenseCode[(int) index];
+      }
+    } else if (bySparseCode != null) {
+      constant = bySparseCode.get(code);
+    } else if (!CodedEnum.class.isAssignableFrom(type)) {
+      throw new IllegalArgumentException(type.getSimpleName() + " does not implement " + CodedEnum.class.getSimpleName() + ".");
+    }
+    if (constant == null) {
+      throw new IllegalArgumentException("Cannot convert " + code + " to " + type.getSimpleName() + " by code.");
+    }
+    return constant;
+  }
+
+}
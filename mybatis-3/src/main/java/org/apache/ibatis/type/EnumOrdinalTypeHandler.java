@@ -25,18 +25,13 @@ import java.sql.SQLException;
  */
 public class EnumOrdinalTypeHandler<E extends Enum<E>> extends BaseTypeHandler<E> {
 
-  private Class<E> type;
-  private final E[] enums;
+  private final EnumConstants<E> constants;
 
   public EnumOrdinalTypeHandler(Class<E> type) {
     if (type == null) {
       throw new IllegalArgumentException("Type argument cannot be null");
     }
-    this.type = type;
-    this.enums = type.getEnumConstants();
-    if (this.enums == null) {
-      throw new IllegalArgumentException(type.getSimpleName() + " does not represent an enum type.");
-    }
+    this.constants = EnumConstants.forType(type);
   }
 
   @Override
@@ -47,43 +42,19 @@ public class EnumOrdinalTypeHandler<E extends Enum<E>> extends BaseTypeHandler<E
   @Override
   public E getNullableResult(ResultSet rs, String columnName) throws SQLException {
     int i = rs.getInt(columnName);
-    if (rs.wasNull()) {
-      return null;
-    } else {
-      try {
-        return enums[i];
-      } catch (Exception ex) {
-        throw new IllegalArgumentException("Cannot convert " + i + " to " + type.getSimpleName() + " by ordinal value.", ex);
-      }
-    }
+    return rs.wasNull() ? null : constants.byOrdinal(i);
   }
 
   @Override
   public E getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
     int i = rs.getInt(columnIndex);
-    if (rs.wasNull()) {
-      return null;
-    } else {
-      try {
-        return enums[i];
-      } catch (Exception ex) {
-        throw new IllegalArgumentException("Cannot convert " + i + " to " + type.getSimpleName() + " by ordinal value.", ex);
-      }
-    }
+    return rs.wasNull() ? null : constants.byOrdinal(i);
   }
 
   @Override
   public E getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
     int i = cs.getInt(columnIndex);
-    if (cs.wasNull()) {
-      return null;
-    } else {
-      try {
-        return enums[i];
-      } catch (Exception ex) {
-        throw new IllegalArgumentException("Cannot convert " + i + " to " + type.getSimpleName() + " by ordinal value.", ex);
-      }
-    }
+    return cs.wasNull() ? null : constants.byOrdinal(i);
   }
-  
+
 }
@@ -25,7 +25,8 @@ import java.sql.SQLException;
  */
 public class EnumTypeHandler<E extends Enum<E>> extends BaseTypeHandler<E> {
 
-  private Class<E> type;
+  private final Class<E> type;
+  private volatile EnumConstants<E> constants;
 
   public EnumTypeHandler(Class<E> type) {
     if (type == null) {
@@ -34,6 +35,16 @@ public class EnumTypeHandler<E extends Enum<E>> extends BaseTypeHandler<E> {
     this.type = type;
   }
 
+  // 泛型属性(E extends Enum<E>)的类型是Enum本身，设置参数只需要name()，读取时才构建常量表
+  private EnumConstants<E> constants() {
+    EnumConstants<E> result = constants;
+    if (result == null) {
+      result = EnumConstants.forType(type);
+      constants = result;
+    }
+    return result;
+  }
+
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, E parameter, JdbcType jdbcType) throws SQLException {
     if (jdbcType == null) {
@@ -46,18 +57,18 @@ public class EnumTypeHandler<E extends Enum<E>> extends BaseTypeHandler<E> {
   @Override
   public E getNullableResult(ResultSet rs, String columnName) throws SQLException {
     String s = rs.getString(columnName);
-    return s == null ? null : Enum.valueOf(type, s);
+    return s == null ? null : constants().byName(s);
   }
 
   @Override
   public E getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
     String s = rs.getString(columnIndex);
-    return s == null ? null : Enum.valueOf(type, s);
+    return s == null ? null : constants().byName(s);
   }
 
   @Override
   public E getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
     String s = cs.getString(columnIndex);
-    return s == null ? null : Enum.valueOf(type, s);
+    return s == null ? null : constants().byName(s);
   }
 }
\ No newline at end of file
@@ -23,7 +23,10 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class IntegerTypeHandler extends BaseTypeHandler<Integer> {
+public class IntegerTypeHandler extends BaseTypeHandler<Integer> implements PrimitiveTypeHandler.OfInt {
+
+  // 子类可能重写了getNullableResult，此时不走基本类型的读写
+  private final boolean primitive = getClass() == IntegerTypeHandler.class;
 
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Integer parameter, JdbcType jdbcType)
@@ -48,4 +51,30 @@ public class IntegerTypeHandler extends BaseTypeHandler<Integer> {
       throws SQLException {
     return cs.getInt(columnIndex);
   }
+
+  @Override
+  public int getInt(ResultSet rs, String columnName) throws SQLException {
+    if (!primitive) {
+      Integer result = getResult(rs, columnName);
+      return result == null ? 0 : result;
+    }
+    try {
+      return rs.getInt(columnName);
+    } catch (Exception e) {
+      throw resultException(columnName, e);
+    }
+  }
+
+  @Override
+  public void setInt(PreparedStatement ps, int i, int parameter, JdbcType jdbcType) throws SQLException {
+    if (!primitive) {
+      setParameter(ps, i, parameter, jdbcType);
+      return;
+    }
+    try {
+      ps.setInt(i, parameter);
+    } catch (Exception e) {
+      throw nonNullParameterException(i, jdbcType, e);
+    }
+  }
 }
@@ -0,0 +1,48 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZonedDateTime;
+
+import org.apache.ibatis.lang.UsesJava8;
+
+/**
+ * Registers the <code>java.time</code> handlers. Only called when the Date and Time API exists, so
+ * {@link TypeHandlerRegistry} itself does not reference it.
+ */
+@UsesJava8
+final class Java8TypeHandlersRegistrar {
+
+  static void registerDateAndTimeHandlers(TypeHandlerRegistry registry) {
+    registry.register(Instant.class, new InstantTypeHandler());
+    registry.register(LocalDateTime.class, new LocalDateTimeTypeHandler());
+    registry.register(LocalDate.class, new LocalDateTypeHandler());
+    registry.register(LocalTime.class, new LocalTimeTypeHandler());
+    registry.register(OffsetDateTime.class, new OffsetDateTimeTypeHandler());
+    registry.register(OffsetTime.class, new OffsetTimeTypeHandler());
+    registry.register(ZonedDateTime.class, new ZonedDateTimeTypeHandler());
+  }
+
+  private Java8TypeHandlersRegistrar() {
+    super();
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.apache.ibatis.lang.UsesJava8;
+
+/**
+ * Maps {@link LocalDateTime}. Drivers that support JDBC 4.2 build the value themselves, others go through
+ * {@link java.sql.Timestamp}.
+ */
+@UsesJava8
+public class LocalDateTimeTypeHandler extends BaseJsr310TypeHandler<LocalDateTime> {
+
+  public LocalDateTimeTypeHandler() {
+    super(LocalDateTime.class);
+  }
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, LocalDateTime parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setTimestamp(i, Timestamp.valueOf(parameter));
+  }
+
+  @Override
+  protected LocalDateTime getConvertedResult(ResultSet rs, String columnName) throws SQLException {
+    return getLocalDateTime(rs.getTimestamp(columnName));
+  }
+
+  @Override
+  protected LocalDateTime getConvertedResult(ResultSet rs, int columnIndex) throws SQLException {
+    return getLocalDateTime(rs.getTimestamp(columnIndex));
+  }
+
+  @Override
+  protected LocalDateTime getConvertedResult(CallableStatement cs, int columnIndex) throws SQLException {
+    return getLocalDateTime(cs.getTimestamp(columnIndex));
+  }
+
+  private static LocalDateTime getLocalDateTime(Timestamp value) {
+    return value == null ? null : value.toLocalDateTime();
+  }
+}
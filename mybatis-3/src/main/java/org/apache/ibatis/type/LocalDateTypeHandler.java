@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.CallableStatement;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import org.apache.ibatis.lang.UsesJava8;
+
+/**
+ * Maps {@link LocalDate}. Drivers that support JDBC 4.2 build the value themselves, others go through
+ * {@link java.sql.Date}.
+ */
+@UsesJava8
+public class LocalDateTypeHandler extends BaseJsr310TypeHandler<LocalDate> {
+
+  public LocalDateTypeHandler() {
+    super(LocalDate.class);
+  }
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, LocalDate parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setDate(i, Date.valueOf(parameter));
+  }
+
+  @Override
+  protected LocalDate getConvertedResult(ResultSet rs, String columnName) throws SQLException {
+    return getLocalDate(rs.getDate(columnName));
+  }
+
+  @Override
+  protected LocalDate getConvertedResult(ResultSet rs, int columnIndex) throws SQLException {
+    return getLocalDate(rs.getDate(columnIndex));
+  }
+
+  @Override
+  protected LocalDate getConvertedResult(CallableStatement cs, int columnIndex) throws SQLException {
+    return getLocalDate(cs.getDate(columnIndex));
+  }
+
+  private static LocalDate getLocalDate(Date value) {
+    return value == null ? null : value.toLocalDate();
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalTime;
+
+import org.apache.ibatis.lang.UsesJava8;
+
+/**
+ * Maps {@link LocalTime}. Drivers that support JDBC 4.2 build the value themselves, others go through
+ * {@link java.sql.Time}.
+ */
+@UsesJava8
+public class LocalTimeTypeHandler extends BaseJsr310TypeHandler<LocalTime> {
+
+  public LocalTimeTypeHandler() {
+    super(LocalTime.class);
+  }
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, LocalTime parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setTime(i, Time.valueOf(parameter));
+  }
+
+  @Override
+  protected LocalTime getConvertedResult(ResultSet rs, String columnName) throws SQLException {
+    return getLocalTime(rs.getTime(columnName));
+  }
+
+  @Override
+  protected LocalTime getConvertedResult(ResultSet rs, int columnIndex) throws SQLException {
+    return getLocalTime(rs.getTime(columnIndex));
+  }
+
+  @Override
+  protected LocalTime getConvertedResult(CallableStatement cs, int columnIndex) throws SQLException {
+    return getLocalTime(cs.getTime(columnIndex));
+  }
+
+  private static LocalTime getLocalTime(Time value) {
+    return value == null ? null : value.toLocalTime();
+  }
+}
@@ -23,7 +23,10 @@ import java.sql.SQLException;
 /**
  * @author Clinton Begin
  */
-public class LongTypeHandler extends BaseTypeHandler<Long> {
+public class LongTypeHandler extends BaseTypeHandler<Long> implements PrimitiveTypeHandler.OfLong {
+
+  // 子类可能重写了getNullableResult，此时不走基本类型的读写
+  private final boolean primitive = getClass() == LongTypeHandler.class;
 
   @Override
   public void setNonNullParameter(PreparedStatement ps, int i, Long parameter, JdbcType jdbcType)
@@ -48,4 +51,30 @@ public class LongTypeHandler extends BaseTypeHandler<Long> {
       throws SQLException {
     return cs.getLong(columnIndex);
   }
+
+  @Override
+  public long getLong(ResultSet rs, String columnName) throws SQLException {
+    if (!primitive) {
+      Long result = getResult(rs, columnName);
+      return result == null ? 0 : result;
+    }
+    try {
+      return rs.getLong(columnName);
+    } catch (Exception e) {
+      throw resultException(columnName, e);
+    }
+  }
+
+  @Override
+  public void setLong(PreparedStatement ps, int i, long parameter, JdbcType jdbcType) throws SQLException {
+    if (!primitive) {
+      setParameter(ps, i, parameter, jdbcType);
+      return;
+    }
+    try {
+      ps.setLong(i, parameter);
+    } catch (Exception e) {
+      throw nonNullParameterException(i, jdbcType, e);
+    }
+  }
 }
@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+import org.apache.ibatis.lang.UsesJava8;
+
+/**
+ * Maps {@link OffsetDateTime}. Drivers that support JDBC 4.2 build the value themselves, others go through
+ * {@link java.sql.Timestamp}. A {@link java.sql.Timestamp} has no offset, so values read through it keep their
+ * instant and get the offset of the default time zone.
+ */
+@UsesJava8
+public class OffsetDateTimeTypeHandler extends BaseJsr310TypeHandler<OffsetDateTime> {
+
+  public OffsetDateTimeTypeHandler() {
+    super(OffsetDateTime.class);
+  }
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, OffsetDateTime parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setTimestamp(i, Timestamp.from(parameter.toInstant()));
+  }
+
+  @Override
+  protected OffsetDateTime getConvertedResult(ResultSet rs, String columnName) throws SQLException {
+    return getOffsetDateTime(rs.getTimestamp(columnName));
+  }
+
+  @Override
+  protected OffsetDateTime getConvertedResult(ResultSet rs, int columnIndex) throws SQLException {
+    return getOffsetDateTime(rs.getTimestamp(columnIndex));
+  }
+
+  @Override
+  protected OffsetDateTime getConvertedResult(CallableStatement cs, int columnIndex) throws SQLException {
+    return getOffsetDateTime(cs.getTimestamp(columnIndex));
+  }
+
+  private static OffsetDateTime getOffsetDateTime(Timestamp value) {
+    return value == null ? null : OffsetDateTime.ofInstant(value.toInstant(), ZoneId.systemDefault());
+  }
+}
@@ -0,0 +1,69 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+
+import org.apache.ibatis.lang.UsesJava8;
+
+/**
+ * Maps {@link OffsetTime}. Drivers that support JDBC 4.2 build the value themselves, others go through
+ * {@link java.sql.Time}.
+ * <p>
+ * A {@link java.sql.Time} has no offset: it is a time of 1970-01-01 in the default time zone. Parameters are
+ * written as that same instant, and values read through it get the offset of the default time zone on that day. The
+ * instant is kept, the original offset is not.
+ */
+@UsesJava8
+public class OffsetTimeTypeHandler extends BaseJsr310TypeHandler<OffsetTime> {
+
+  public OffsetTimeTypeHandler() {
+    super(OffsetTime.class);
+  }
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, OffsetTime parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setTime(i, Time.valueOf(parameter.atDate(LocalDate.ofEpochDay(0)).atZoneSameInstant(ZoneId.systemDefault()).toLocalTime()));
+  }
+
+  @Override
+  protected OffsetTime getConvertedResult(ResultSet rs, String columnName) throws SQLException {
+    return getOffsetTime(rs.getTime(columnName));
+  }
+
+  @Override
+  protected OffsetTime getConvertedResult(ResultSet rs, int columnIndex) throws SQLException {
+    return getOffsetTime(rs.getTime(columnIndex));
+  }
+
+  @Override
+  protected OffsetTime getConvertedResult(CallableStatement cs, int columnIndex) throws SQLException {
+    return getOffsetTime(cs.getTime(columnIndex));
+  }
+
+  private static OffsetTime getOffsetTime(Time value) {
+    return value == null ? null : OffsetTime.ofInstant(Instant.ofEpochMilli(value.getTime()), ZoneId.systemDefault());
+  }
+}
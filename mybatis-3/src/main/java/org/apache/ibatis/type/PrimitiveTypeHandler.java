@@ -0,0 +1,56 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A {@link TypeHandler} of a numeric type that can also read and write the value as a primitive, so mapping a column
+ * to an {@code int}, {@code long} or {@code double} property does not box it.
+ * <p>
+ * The primitive getters return {@code 0} for SQL NULL; callers tell the two apart with {@link ResultSet#wasNull()}.
+ * They must return the same values as {@link #getResult(ResultSet, String)} and
+ * {@link #setParameter(PreparedStatement, int, Object, JdbcType)}.
+ */
+public interface PrimitiveTypeHandler<T> extends TypeHandler<T> {
+
+  interface OfInt extends PrimitiveTypeHandler<Integer> {
+
+    int getInt(ResultSet rs, String columnName) throws SQLException;
+
+    void setInt(PreparedStatement ps, int i, int parameter, JdbcType jdbcType) throws SQLException;
+
+  }
+
+  interface OfLong extends PrimitiveTypeHandler<Long> {
+
+    long getLong(ResultSet rs, String columnName) throws SQLException;
+
+    void setLong(PreparedStatement ps, int i, long parameter, JdbcType jdbcType) throws SQLException;
+
+  }
+
+  interface OfDouble extends PrimitiveTypeHandler<Double> {
+
+    double getDouble(ResultSet rs, String columnName) throws SQLException;
+
+    void setDouble(PreparedStatement ps, int i, double parameter, JdbcType jdbcType) throws SQLException;
+
+  }
+
+}
@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.type;
 
+import java.io.InputStream;
+import java.io.Reader;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
@@ -27,9 +29,13 @@ import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.ibatis.io.ResolverUtil;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.Jdk;
 
 /**
  * @author Clinton Begin
@@ -41,6 +47,13 @@ public final class TypeHandlerRegistry {
   private final TypeHandler<Object> UNKNOWN_TYPE_HANDLER = new UnknownTypeHandler(this);
   private final Map<Class<?>, TypeHandler<?>> ALL_TYPE_HANDLERS_MAP = new HashMap<Class<?>, TypeHandler<?>>();
 
+  //解析结果缓存，key->Java类型，value->按JdbcType下标(null为0)保存的解析结果，没有处理器时为NO_TYPE_HANDLER
+  private final ConcurrentMap<Type, AtomicReferenceArray<Object>> resolvedTypeHandlers = new ConcurrentHashMap<Type, AtomicReferenceArray<Object>>();
+  private static final Object NO_TYPE_HANDLER = new Object();
+  private static final int RESOLVED_SLOTS = JdbcType.values().length + 1;
+  //冻结后不能再注册，缓存不会再失效
+  private volatile boolean frozen;
+
   public TypeHandlerRegistry() {
     register(Boolean.class, new BooleanTypeHandler());
     register(boolean.class, new BooleanTypeHandler());
@@ -85,9 +98,12 @@ public final class TypeHandlerRegistry {
     register(JdbcType.NVARCHAR, new NStringTypeHandler());
     register(JdbcType.NCHAR, new NStringTypeHandler());
     register(JdbcType.NCLOB, new NClobTypeHandler());
+    register(Reader.class, new ClobReaderTypeHandler());
 
-    register(Object.class, JdbcType.ARRAY, new ArrayTypeHandler());
-    register(JdbcType.ARRAY, new ArrayTypeHandler());
+    // 同时接受java.sql.Array、集合和Java数组，结果按声明的Java类型返回
+    register(Object.class, JdbcType.ARRAY, new CollectionArrayTypeHandler());
+    register(Collection.class, JdbcType.ARRAY, new CollectionArrayTypeHandler(Collection.class));
+    register(JdbcType.ARRAY, new CollectionArrayTypeHandler());
 
     register(BigInteger.class, new BigIntegerTypeHandler());
     register(JdbcType.BIGINT, new LongTypeHandler());
@@ -105,6 +121,7 @@ public final class TypeHandlerRegistry {
     register(byte[].class, JdbcType.LONGVARBINARY, new BlobTypeHandler());
     register(JdbcType.LONGVARBINARY, new BlobTypeHandler());
     register(JdbcType.BLOB, new BlobTypeHandler());
+    register(InputStream.class, new BlobInputStreamTypeHandler());
 
     register(Object.class, UNKNOWN_TYPE_HANDLER);
     register(Object.class, JdbcType.OTHER, UNKNOWN_TYPE_HANDLER);
@@ -121,17 +138,8 @@ public final class TypeHandlerRegistry {
     register(java.sql.Time.class, new SqlTimeTypeHandler());
     register(java.sql.Timestamp.class, new SqlTimestampTypeHandler());
 
-    // mybatis-typehandlers-jsr310
-    try {
-      register("java.time.Instant", "org.apache.ibatis.type.InstantTypeHandler");
-      register("java.time.LocalDateTime", "org.apache.ibatis.type.LocalDateTimeTypeHandler");
-      register("java.time.LocalDate", "org.apache.ibatis.type.LocalDateTypeHandler");
-      register("java.time.LocalTime", "org.apache.ibatis.type.LocalTimeTypeHandler");
-      register("java.time.OffsetDateTime", "org.apache.ibatis.type.OffsetDateTimeTypeHandler");
-      register("java.time.OffsetTime", "org.apache.ibatis.type.OffsetTimeTypeHandler");
-      register("java.time.ZonedDateTime", "org.apache.ibatis.type.ZonedDateTimeTypeHandler");
-    } catch (ClassNotFoundException e) {
-      // no JSR-310 handlers
+    if (Jdk.dateAndTimeApiExists) {
+      Java8TypeHandlersRegistrar.registerDateAndTimeHandlers(this);
     }
 
     // issue #273
@@ -181,6 +189,31 @@ public final class TypeHandlerRegistry {
 
   @SuppressWarnings("unchecked")
   private <T> TypeHandler<T> getTypeHandler(Type type, JdbcType jdbcType) {
+    if (type == null) {
+      return (TypeHandler<T>) resolveTypeHandler(null, jdbcType);
+    }
+    AtomicReferenceArray<Object> resolved = resolvedTypeHandlers.get(type);
+    if (resolved == null) {
+      resolved = new AtomicReferenceArray<Object>(RESOLVED_SLOTS);
+      AtomicReferenceArray<Object> existing = resolvedTypeHandlers.putIfAbsent(type, resolved);
+      if (existing != null) {
+        resolved = existing;
+      }
+    }
+    int slot = jdbcType == null ? 0 : jdbcType.ordinal() + 1;
+    Object handler = resolved.get(slot);
+    if (handler == null) {
+      handler = resolveTypeHandler(type, jdbcType);
+      if (handler == null) {
+        handler = NO_TYPE_HANDLER;
+      }
+      resolved.set(slot, handler);
+    }
+    return handler == NO_TYPE_HANDLER ? null : (TypeHandler<T>) handler;
+  }
+
+  @SuppressWarnings("unchecked")
+  private TypeHandler<?> resolveTypeHandler(Type type, JdbcType jdbcType) {
     Map<JdbcType, TypeHandler<?>> jdbcHandlerMap = TYPE_HANDLER_MAP.get(type);
     TypeHandler<?> handler = null;
     if (jdbcHandlerMap != null) {
@@ -192,8 +225,39 @@ public final class TypeHandlerRegistry {
     if (handler == null && type != null && type instanceof Class && Enum.class.isAssignableFrom((Class<?>) type)) {
       handler = new EnumTypeHandler((Class<?>) type);
     }
-    // type drives generics here
-    return (TypeHandler<T>) handler;
+    // #{ids, jdbcType=ARRAY}: 集合或数组绑定为一个SQL数组，结果复制为该类型
+    if (handler == null && jdbcType == JdbcType.ARRAY && type instanceof Class
+        && (Collection.class.isAssignableFrom((Class<?>) type) || ((Class<?>) type).isArray())) {
+      handler = new CollectionArrayTypeHandler((Class<?>) type);
+    }
+    return handler;
+  }
+
+  /**
+   * Makes the registry read only once the configuration is complete. Later registrations throw a
+   * {@link TypeException}, so resolved handlers are never dropped again, and the handlers of all registered Java
+   * types are resolved up front.
+   */
+  public void freeze() {
+    frozen = true;
+    for (Type type : TYPE_HANDLER_MAP.keySet()) {
+      getTypeHandler(type, null);
+      for (JdbcType jdbcType : JdbcType.values()) {
+        getTypeHandler(type, jdbcType);
+      }
+    }
+  }
+
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  //注册前检查是否已冻结，并丢弃已解析的结果
+  private void beforeRegister() {
+    if (frozen) {
+      throw new TypeException("The type handler registry is frozen and does not accept new type handlers.");
+    }
+    resolvedTypeHandlers.clear();
   }
 
   public TypeHandler<Object> getUnknownTypeHandler() {
@@ -201,6 +265,7 @@ public final class TypeHandlerRegistry {
   }
 
   public void register(JdbcType jdbcType, TypeHandler<?> handler) {
+    beforeRegister();
     JDBC_TYPE_HANDLER_MAP.put(jdbcType, handler);
   }
 
@@ -266,6 +331,7 @@ public final class TypeHandlerRegistry {
   }
 
   private void register(Type javaType, JdbcType jdbcType, TypeHandler<?> handler) {
+    beforeRegister();
     if (javaType != null) {
       Map<JdbcType, TypeHandler<?>> map = TYPE_HANDLER_MAP.get(javaType);
       if (map == null) {
@@ -26,6 +26,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.cache.coherence.BatchingCacheEventTransport;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.io.JBoss6VFS;
@@ -58,6 +59,7 @@ public class XmlConfigBuilderTest {
     assertNotNull(config);
     assertThat(config.getAutoMappingBehavior(), is(AutoMappingBehavior.PARTIAL));
     assertThat(config.isCacheEnabled(), is(true));
+    assertNull(config.getCacheEventTransport());
     assertThat(config.getProxyFactory(), is(instanceOf(JavassistProxyFactory.class)));
     assertThat(config.isLazyLoadingEnabled(), is(false));
     assertThat(config.isAggressiveLazyLoading(), is(true));
@@ -70,6 +72,12 @@ public class XmlConfigBuilderTest {
     assertThat(config.isMapUnderscoreToCamelCase(), is(false));
     assertThat(config.isSafeRowBoundsEnabled(), is(false));
     assertThat(config.getLocalCacheScope(), is(LocalCacheScope.SESSION));
+    assertThat(config.getLocalCacheMaxEntries(), is(0));
+    assertThat(config.getLocalCacheMaxRows(), is(0));
+    assertThat(config.getDynamicSqlCacheSize(), is(32));
+    assertThat(config.isInListPaddingEnabled(), is(false));
+    assertThat(config.getReflectorWarmUpThreads(), is(0));
+    assertThat(config.isFreezeTypeHandlerRegistry(), is(false));
     assertThat(config.getJdbcTypeForNull(), is(JdbcType.OTHER));
     assertThat(config.getLazyLoadTriggerMethods(), is((Set<String>) new HashSet<String>(Arrays.asList("equals", "clone", "hashCode", "toString"))));
     assertThat(config.isSafeResultHandlerEnabled(), is(true));
@@ -137,6 +145,27 @@ public class XmlConfigBuilderTest {
     assertArrayEquals(MyEnum.values(), ((EnumOrderTypeHandler) typeHandler).constants);
   }
 
+  @Test
+  public void shouldConfigureCacheEventTransport() {
+    final String MAPPER_CONFIG = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+        + "<configuration>\n"
+        + "  <cacheEventTransport type=\"LOOPBACK\" batchSize=\"10\">\n"
+        + "    <property name=\"channel\" value=\"XmlConfigBuilderTest\"/>\n"
+        + "  </cacheEventTransport>\n"
+        + "</configuration>\n";
+
+    XMLConfigBuilder builder = new XMLConfigBuilder(new StringReader(MAPPER_CONFIG));
+    Configuration config = builder.parse();
+    try {
+      assertThat(config.getCacheEventTransport(), is(instanceOf(BatchingCacheEventTransport.class)));
+      assertNotNull(config.getCacheCoherenceManager());
+    } finally {
+      config.closeCacheEventTransport();
+    }
+    assertNull(config.getCacheEventTransport());
+  }
+
     @Test
     public void shouldSuccessfullyLoadXMLConfigFile() throws Exception {
       String resource = "org/apache/ibatis/builder/CustomizedSettingsMapperConfig.xml";
@@ -158,6 +187,12 @@ public class XmlConfigBuilderTest {
       assertThat(config.isMapUnderscoreToCamelCase(), is(true));
       assertThat(config.isSafeRowBoundsEnabled(), is(true));
       assertThat(config.getLocalCacheScope(), is(LocalCacheScope.STATEMENT));
+      assertThat(config.getLocalCacheMaxEntries(), is(256));
+      assertThat(config.getLocalCacheMaxRows(), is(10000));
+      assertThat(config.getDynamicSqlCacheSize(), is(8));
+      assertThat(config.isInListPaddingEnabled(), is(true));
+      assertThat(config.getReflectorWarmUpThreads(), is(4));
+      assertThat(config.isFreezeTypeHandlerRegistry(), is(true));
       assertThat(config.getJdbcTypeForNull(), is(JdbcType.NULL));
       assertThat(config.getLazyLoadTriggerMethods(), is((Set<String>) new HashSet<String>(Arrays.asList("equals", "clone", "hashCode", "toString", "xxx"))));
       assertThat(config.isSafeResultHandlerEnabled(), is(false));
@@ -29,6 +29,7 @@ import java.util.Map;
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.scripting.xmltags.ChooseSqlNode;
 import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
 import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
@@ -36,6 +37,7 @@ import org.apache.ibatis.scripting.xmltags.IfSqlNode;
 import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
 import org.apache.ibatis.scripting.xmltags.SetSqlNode;
 import org.apache.ibatis.scripting.xmltags.SqlNode;
+import org.apache.ibatis.scripting.xmltags.StaticTextSqlNode;
 import org.apache.ibatis.scripting.xmltags.TextSqlNode;
 import org.apache.ibatis.scripting.xmltags.WhereSqlNode;
 import org.apache.ibatis.session.Configuration;
@@ -364,6 +366,91 @@ public class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals("__frch_u_0", boundSql.getParameterMappings().get(3).getProperty());
   }
 
+  @Test
+  public void shouldReuseParsedTemplateForSameSqlText() throws Exception {
+    DynamicSqlSource source = createDynamicSqlSource(
+        new TextSqlNode("SELECT * FROM BLOG"),
+        new IfSqlNode(mixedContents(new TextSqlNode("WHERE ID = #{id}")), "id != null"));
+    BoundSql first = source.getBoundSql(new Bean("1"));
+    BoundSql second = source.getBoundSql(new Bean("2"));
+    BoundSql other = source.getBoundSql(new Bean(null));
+    assertEquals("SELECT * FROM BLOG WHERE ID = ?", second.getSql());
+    Assert.assertSame(first.getParameterMappings(), second.getParameterMappings());
+    Assert.assertSame(Bean.class, second.getParameterObject().getClass());
+    assertEquals("SELECT * FROM BLOG", other.getSql());
+  }
+
+  @Test
+  public void shouldReparseTemplateWhenAdditionalParameterTypesChange() throws Exception {
+    DynamicSqlSource source = createDynamicSqlSource(
+        new TextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(new Configuration(), mixedContents(new TextSqlNode("#{item}")), "list", null, "item", "(", ")", ","));
+    Map<String, Object> ints = new HashMap<String, Object>();
+    ints.put("list", Arrays.asList(1, 2));
+    Map<String, Object> strings = new HashMap<String, Object>();
+    strings.put("list", Arrays.asList("a", "b"));
+    BoundSql first = source.getBoundSql(ints);
+    BoundSql second = source.getBoundSql(strings);
+    assertEquals(first.getSql(), second.getSql());
+    assertEquals(Integer.class, first.getParameterMappings().get(0).getJavaType());
+    assertEquals(String.class, second.getParameterMappings().get(0).getJavaType());
+    assertEquals("a", second.getAdditionalParameter("__frch_item_0"));
+  }
+
+  @Test
+  public void shouldExpandTheSameChunkOnEveryCall() throws Exception {
+    DynamicSqlSource source = createDynamicSqlSource(
+        new TextSqlNode("SELECT * FROM BLOG WHERE"),
+        new ForEachSqlNode(new Configuration(), mixedContents(new StaticTextSqlNode("#{item}")), "list", null, "item", "ID in (", ")", ",", 2));
+    Map<String, Object> parameter = new HashMap<String, Object>();
+    parameter.put("list", Arrays.asList(1, 2, 3, 4, 5));
+    assertEquals(3, source.getChunkCount(parameter));
+    SqlSource chunk = source.getChunk(1);
+    BoundSql first = chunk.getBoundSql(parameter);
+    BoundSql second = chunk.getBoundSql(parameter);
+    assertEquals("SELECT * FROM BLOG WHERE ID in (  ? , ? )", first.getSql());
+    assertEquals(first.getSql(), second.getSql());
+    assertEquals(3, second.getAdditionalParameter("__frch_item_0"));
+    assertEquals(4, second.getAdditionalParameter("__frch_item_1"));
+    assertEquals("SELECT * FROM BLOG WHERE ID in (  ? , ? , ? , ? , ? )", source.getBoundSql(parameter).getSql());
+  }
+
+  @Test
+  public void shouldReuseSqlForSameShape() throws Exception {
+    DynamicSqlSource source = createDynamicSqlSource(
+        new TextSqlNode("SELECT * FROM BLOG"),
+        new WhereSqlNode(new Configuration(), mixedContents(
+            new IfSqlNode(mixedContents(new TextSqlNode("AND NAME = #{name}")), "name != null"),
+            new ForEachSqlNode(new Configuration(), mixedContents(new TextSqlNode("#{item}")), "ids", null, "item", "AND ID in (", ")", ","))));
+    Map<String, Object> first = new HashMap<String, Object>();
+    first.put("name", "a");
+    first.put("ids", Arrays.asList(1, 2));
+    Map<String, Object> second = new HashMap<String, Object>();
+    second.put("name", "b");
+    second.put("ids", Arrays.asList(3, 4));
+    Map<String, Object> third = new HashMap<String, Object>();
+    third.put("ids", Arrays.asList(5));
+    BoundSql firstSql = source.getBoundSql(first);
+    BoundSql secondSql = source.getBoundSql(second);
+    BoundSql thirdSql = source.getBoundSql(third);
+    assertEquals("SELECT * FROM BLOG WHERE  NAME = ?AND ID in (?,?)", secondSql.getSql());
+    Assert.assertSame(firstSql.getParameterMappings(), secondSql.getParameterMappings());
+    assertEquals(3, secondSql.getAdditionalParameter("__frch_item_0"));
+    assertEquals(4, secondSql.getAdditionalParameter("__frch_item_1"));
+    assertEquals("SELECT * FROM BLOG WHERE  ID in (?)", thirdSql.getSql());
+    assertEquals(5, thirdSql.getAdditionalParameter("__frch_item_0"));
+  }
+
+  @Test
+  public void shouldParseEveryTimeWhenCacheIsDisabled() {
+    Configuration configuration = new Configuration();
+    configuration.setDynamicSqlCacheSize(0);
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(new TextSqlNode("SELECT * FROM BLOG WHERE ID = #{id}")));
+    BoundSql first = source.getBoundSql(new Bean("1"));
+    BoundSql second = source.getBoundSql(new Bean("1"));
+    Assert.assertNotSame(first.getParameterMappings(), second.getParameterMappings());
+  }
+
   private DynamicSqlSource createDynamicSqlSource(SqlNode... contents) throws IOException, SQLException {
     createBlogDataSource();
     final String resource = "org/apache/ibatis/builder/MapperConfig.xml";
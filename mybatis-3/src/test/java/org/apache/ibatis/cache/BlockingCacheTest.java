@@ -0,0 +1,165 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BlockingCacheTest {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void shouldLetOnlyOneThreadLoadAMissingKey() throws Exception {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject("key"));
+
+    Future<Object> waiter = executor.submit(read(cache, "key"));
+    Thread.sleep(100);
+    assertFalse(waiter.isDone());
+
+    cache.putObject("key", "value");
+    assertEquals("value", waiter.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void shouldReturnNullToTheLoaderWhenItReadsTheKeyAgain() {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject("key"));
+    assertNull(cache.getObject("key"));
+    cache.putObject("key", "value");
+    assertEquals("value", cache.getObject("key"));
+  }
+
+  @Test
+  public void shouldHandOverTheLoadWhenTheLoaderReleasesTheKey() throws Exception {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject("key"));
+
+    Future<Object> waiter = executor.submit(read(cache, "key"));
+    Thread.sleep(100);
+    // released from another thread, as a rollback from a different thread would do
+    executor.submit(new Callable<Object>() {
+      @Override
+      public Object call() {
+        return cache.removeObject("key");
+      }
+    }).get(5, TimeUnit.SECONDS);
+
+    // the waiter becomes the new loader
+    assertNull(waiter.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void shouldTimeoutWithoutAffectingTheLoader() throws Exception {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setTimeout(50);
+    assertNull(cache.getObject("key"));
+
+    Future<Object> waiter = executor.submit(read(cache, "key"));
+    try {
+      waiter.get(5, TimeUnit.SECONDS);
+      fail("Waiter should have timed out");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof CacheException);
+    }
+
+    cache.putObject("key", "value");
+    assertEquals("value", executor.submit(read(cache, "key")).get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void shouldServeStaleValueWhileTheKeyIsReloaded() throws Exception {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setStaleWhileRevalidate(true);
+    assertNull(cache.getObject("key"));
+    cache.putObject("key", "old");
+    cache.clear();
+
+    assertNull(cache.getObject("key"));
+    assertEquals("old", executor.submit(read(cache, "key")).get(5, TimeUnit.SECONDS));
+
+    cache.putObject("key", "new");
+    assertEquals("new", executor.submit(read(cache, "key")).get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void shouldBoundStaleValues() throws Exception {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setStaleSize(1);
+    cache.setStaleWhileRevalidate(true);
+    cache.putObject("key1", "value1");
+    cache.putObject("key2", "value2");
+    cache.clear();
+
+    assertNull(cache.getObject("key1"));
+    cache.setTimeout(50);
+    try {
+      executor.submit(read(cache, "key1")).get(5, TimeUnit.SECONDS);
+      fail("key1 should not have a stale value");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof CacheException);
+    }
+  }
+
+  @Test
+  public void shouldOnlyServeStaleValuesOfReadOnlyCaches() {
+    Properties properties = new Properties();
+    properties.setProperty("staleWhileRevalidate", "true");
+    Cache cache = new CacheBuilder("readOnly").blocking(true).readWrite(false).properties(properties).build();
+    assertTrue(cache instanceof BlockingCache);
+    try {
+      new CacheBuilder("readWrite").blocking(true).readWrite(true).properties(properties).build();
+      fail("stale values of a read-write cache would be shared by the callers");
+    } catch (CacheException e) {
+      assertTrue(e.getMessage().contains("readOnly"));
+    }
+  }
+
+  private static Callable<Object> read(final Cache cache, final Object key) {
+    return new Callable<Object>() {
+      @Override
+      public Object call() {
+        return cache.getObject(key);
+      }
+    };
+  }
+
+}
@@ -0,0 +1,209 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.cache.coherence.BatchingCacheEventTransport;
+import org.apache.ibatis.cache.coherence.CacheEvent;
+import org.apache.ibatis.cache.coherence.CacheEventListener;
+import org.apache.ibatis.cache.coherence.CacheEventTransport;
+import org.apache.ibatis.cache.coherence.LoopbackCacheEventTransport;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class CacheCoherenceTest {
+
+  @Test
+  public void shouldFlushPeerCachesOnCommit() {
+    Configuration node1 = newNode("shouldFlushPeerCachesOnCommit");
+    Configuration node2 = newNode("shouldFlushPeerCachesOnCommit");
+    node1.getCache("blog").putObject("key", "value1");
+    node2.getCache("blog").putObject("key", "value2");
+
+    TransactionalCacheManager tcm = new TransactionalCacheManager(node1.getCacheCoherenceManager());
+    tcm.clear(node1.getCache("blog"));
+    tcm.commit();
+
+    assertNull(node1.getCache("blog").getObject("key"));
+    assertNull(node2.getCache("blog").getObject("key"));
+  }
+
+  @Test
+  public void shouldNotPublishOnRollbackOrReadOnlyCommit() {
+    Configuration node1 = newNode("shouldNotPublishOnRollbackOrReadOnlyCommit");
+    Configuration node2 = newNode("shouldNotPublishOnRollbackOrReadOnlyCommit");
+    node2.getCache("blog").putObject("key", "value");
+
+    TransactionalCacheManager tcm = new TransactionalCacheManager(node1.getCacheCoherenceManager());
+    tcm.clear(node1.getCache("blog"));
+    tcm.rollback();
+    tcm.putObject(node1.getCache("blog"), new CacheKey(), "other");
+    tcm.commit();
+
+    assertEquals("value", node2.getCache("blog").getObject("key"));
+  }
+
+  @Test
+  public void shouldInvalidateSingleKeyOnPeers() {
+    Configuration node1 = newNode("shouldInvalidateSingleKeyOnPeers");
+    Configuration node2 = newNode("shouldInvalidateSingleKeyOnPeers");
+    node2.getCache("blog").putObject("key1", "value1");
+    node2.getCache("blog").putObject("key2", "value2");
+
+    String nodeId = node1.getCacheCoherenceManager().getNodeId();
+    node1.getCacheCoherenceManager().publish(Collections.singletonList(CacheEvent.invalidate(nodeId, "blog", "key1")));
+
+    assertNull(node2.getCache("blog").getObject("key1"));
+    assertEquals("value2", node2.getCache("blog").getObject("key2"));
+  }
+
+  @Test
+  public void shouldOnlyReachNodesOfTheSameChannel() {
+    Configuration node1 = newNode("shouldOnlyReachNodesOfTheSameChannel");
+    Configuration node2 = newNode("shouldOnlyReachNodesOfTheSameChannel-other");
+    node2.getCache("blog").putObject("key", "value");
+
+    node1.getCacheCoherenceManager().publishFlush(Collections.singletonList("blog"));
+
+    assertEquals("value", node2.getCache("blog").getObject("key"));
+  }
+
+  @Test
+  public void shouldStopReceivingEventsOnceClosed() {
+    Configuration node1 = newNode("shouldStopReceivingEventsOnceClosed");
+    Configuration node2 = newNode("shouldStopReceivingEventsOnceClosed");
+    node2.getCache("blog").putObject("key", "value");
+
+    node2.closeCacheEventTransport();
+    node1.getCacheCoherenceManager().publishFlush(Collections.singletonList("blog"));
+
+    assertNull(node2.getCacheCoherenceManager());
+    assertEquals("value", node2.getCache("blog").getObject("key"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldRequireAChannelName() {
+    new Configuration().setCacheEventTransport(new LoopbackCacheEventTransport());
+  }
+
+  @Test
+  public void shouldIgnoreEventsForUnknownCaches() {
+    Configuration node1 = newNode("shouldIgnoreEventsForUnknownCaches");
+    newNode("shouldIgnoreEventsForUnknownCaches");
+    List<String> ids = new ArrayList<String>();
+    ids.add("unknown");
+    node1.getCacheCoherenceManager().publishFlush(ids);
+  }
+
+  @Test
+  public void shouldCoalesceEventsOfTheSameBatch() {
+    RecordingTransport transport = new RecordingTransport();
+    Configuration node = new Configuration();
+    node.setCacheEventTransport(transport);
+    String nodeId = node.getCacheCoherenceManager().getNodeId();
+
+    List<CacheEvent> events = new ArrayList<CacheEvent>();
+    events.add(CacheEvent.invalidate(nodeId, "blog", "key1"));
+    events.add(CacheEvent.flush(nodeId, "blog"));
+    events.add(CacheEvent.flush(nodeId, "blog"));
+    events.add(CacheEvent.invalidate(nodeId, "author", "key1"));
+    node.getCacheCoherenceManager().publish(events);
+
+    assertEquals(1, transport.batches.size());
+    assertEquals(2, transport.batches.get(0).size());
+    assertEquals(CacheEvent.flush(nodeId, "blog"), transport.batches.get(0).get(0));
+    assertEquals(CacheEvent.invalidate(nodeId, "author", "key1"), transport.batches.get(0).get(1));
+  }
+
+  @Test
+  public void shouldDeliverEventsInBatches() {
+    RecordingTransport delegate = new RecordingTransport();
+    BatchingCacheEventTransport transport = new BatchingCacheEventTransport(delegate, 3, 60000);
+    try {
+      transport.publish(singleEvent("a"));
+      transport.publish(singleEvent("b"));
+      assertTrue(delegate.batches.isEmpty());
+      transport.publish(singleEvent("c"));
+      assertEquals(1, delegate.batches.size());
+      assertEquals(3, delegate.batches.get(0).size());
+      transport.publish(singleEvent("d"));
+    } finally {
+      transport.close();
+    }
+    assertEquals(2, delegate.batches.size());
+    assertEquals(1, delegate.batches.get(1).size());
+    assertTrue(delegate.closed);
+  }
+
+  @Test
+  public void shouldDeliverPendingEventsAfterFlushInterval() throws Exception {
+    RecordingTransport delegate = new RecordingTransport();
+    BatchingCacheEventTransport transport = new BatchingCacheEventTransport(delegate, 100, 50);
+    try {
+      transport.publish(singleEvent("a"));
+      for (int i = 0; i < 100 && delegate.batches.isEmpty(); i++) {
+        Thread.sleep(20);
+      }
+      assertEquals(1, delegate.batches.size());
+    } finally {
+      transport.close();
+    }
+  }
+
+  private static Configuration newNode(String channel) {
+    Configuration configuration = new Configuration();
+    configuration.setCacheEventTransport(new LoopbackCacheEventTransport(channel));
+    configuration.addCache(new PerpetualCache("blog"));
+    return configuration;
+  }
+
+  private static List<CacheEvent> singleEvent(String cacheId) {
+    List<CacheEvent> events = new ArrayList<CacheEvent>();
+    events.add(CacheEvent.flush("node", cacheId));
+    return events;
+  }
+
+  private static class RecordingTransport implements CacheEventTransport {
+    private final List<List<CacheEvent>> batches = new ArrayList<List<CacheEvent>>();
+    private volatile boolean closed;
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+    @Override
+    public void subscribe(CacheEventListener listener) {
+    }
+
+    @Override
+    public synchronized void publish(List<CacheEvent> events) {
+      batches.add(new ArrayList<CacheEvent>(events));
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+}
@@ -18,6 +18,10 @@ package org.apache.ibatis.cache;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Date;
 
 public class CacheKeyTest {
@@ -80,4 +84,43 @@ public class CacheKeyTest {
     assertTrue(key1.equals(key2));
   }
 
+  @Test
+  public void shouldGrowBeyondInitialCapacity() throws Exception {
+    CacheKey key1 = new CacheKey();
+    CacheKey key2 = new CacheKey();
+    for (int i = 0; i < 100; i++) {
+      key1.update(i);
+      key2.update(i);
+    }
+    assertEquals(100, key1.getUpdateCount());
+    assertEquals(key1, key2);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    key2.update(100);
+    assertFalse(key1.equals(key2));
+  }
+
+  @Test
+  public void shouldNotShareValuesWithClone() throws Exception {
+    CacheKey key = new CacheKey(new Object[] { 1, "hello" });
+    CacheKey clone = key.clone();
+    assertEquals(key, clone);
+    clone.update("world");
+    assertFalse(key.equals(clone));
+    assertEquals(2, key.getUpdateCount());
+  }
+
+  @Test
+  public void shouldBeEqualAfterSerialization() throws Exception {
+    CacheKey key = new CacheKey(new Object[] { "select", 0, Integer.MAX_VALUE, "hello", null });
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(key);
+    out.close();
+    ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    CacheKey copy = (CacheKey) in.readObject();
+    in.close();
+    assertEquals(key, copy);
+    assertEquals(key.hashCode(), copy.hashCode());
+  }
+
 }
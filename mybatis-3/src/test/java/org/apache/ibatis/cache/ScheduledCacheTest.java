@@ -19,6 +19,10 @@ import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 
 public class ScheduledCacheTest {
@@ -65,4 +69,64 @@ public class ScheduledCacheTest {
     assertNull(cache.getObject(4));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void shouldExpireEachEntryOnItsOwn() throws Exception {
+    ScheduledCache scheduledCache = new ScheduledCache(new PerpetualCache("DefaultCache"));
+    scheduledCache.setClearInterval(200);
+    scheduledCache.setPerEntryExpiry(true);
+    Cache cache = new LoggingCache(scheduledCache);
+    cache.putObject(0, 0);
+    Thread.sleep(150);
+    cache.putObject(1, 1);
+    Thread.sleep(100);
+    assertNull(cache.getObject(0));
+    assertEquals(1, cache.getObject(1));
+    assertEquals(1, cache.removeObject(1));
+    assertNull(cache.getObject(1));
+  }
+
+  @Test
+  public void shouldNeverKeepEntriesLongerThanClearIntervalWithJitter() throws Exception {
+    ScheduledCache cache = new ScheduledCache(new PerpetualCache("DefaultCache"));
+    cache.setClearInterval(300);
+    cache.setJitter(200);
+    cache.setPerEntryExpiry(true);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    Thread.sleep(350);
+    for (int i = 0; i < 100; i++) {
+      assertNull(cache.getObject(i));
+    }
+  }
+
+  @Test
+  public void shouldRefreshHotEntriesBeforeTheyExpire() throws Exception {
+    final ScheduledCache cache = new ScheduledCache(new PerpetualCache("DefaultCache"));
+    cache.setClearInterval(1000);
+    cache.setRefreshAhead(800);
+    cache.setPerEntryExpiry(true);
+    final CountDownLatch refreshed = new CountDownLatch(1);
+    CacheKey key = new CacheKey(new Object[] { "select", 1 });
+    key.setRefresher(new CacheEntryRefresher() {
+      @Override
+      public void refresh(Object key) {
+        cache.putObject(key, "refreshed");
+        refreshed.countDown();
+      }
+    });
+    cache.putObject(key, "loaded");
+    assertEquals("loaded", cache.getObject(key));
+    assertEquals(1, refreshed.getCount());
+
+    Thread.sleep(300);
+    assertEquals("loaded", cache.getObject(key));
+    assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+    assertEquals("refreshed", cache.getObject(key));
+
+    // the refreshed entry lives a whole new interval
+    Thread.sleep(800);
+    assertEquals("refreshed", cache.getObject(key));
+  }
+
+}
@@ -0,0 +1,119 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOLDER;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class LocalCacheTest {
+
+  @Test
+  public void shouldBeUnboundedByDefault() {
+    LocalCache cache = new LocalCache("default");
+    for (int i = 0; i < 10000; i++) {
+      cache.putObject(i, Collections.singletonList(i));
+    }
+    assertEquals(10000, cache.getSize());
+    assertEquals(10000, cache.getRetainedRows());
+    assertEquals(0, cache.getEvictions());
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedEntryWhenEntryBoundIsExceeded() {
+    LocalCache cache = new LocalCache("default", 2, 0);
+    cache.putObject("a", Arrays.asList(1));
+    cache.putObject("b", Arrays.asList(2));
+    cache.getObject("a");
+    cache.putObject("c", Arrays.asList(3));
+    assertEquals(2, cache.getSize());
+    assertNotNull(cache.peekObject("a"));
+    assertNull(cache.peekObject("b"));
+    assertNotNull(cache.peekObject("c"));
+    assertEquals(1, cache.getEvictions());
+  }
+
+  @Test
+  public void shouldEvictWhenRowBoundIsExceeded() {
+    LocalCache cache = new LocalCache("default", 0, 5);
+    cache.putObject("a", Arrays.asList(1, 2, 3));
+    cache.putObject("b", Arrays.asList(4, 5));
+    assertEquals(5, cache.getRetainedRows());
+    cache.putObject("c", Arrays.asList(6));
+    assertNull(cache.peekObject("a"));
+    assertEquals(3, cache.getRetainedRows());
+    cache.removeObject("b");
+    assertEquals(1, cache.getRetainedRows());
+  }
+
+  @Test
+  public void shouldKeepNewestEntryEvenIfItAloneExceedsTheBound() {
+    LocalCache cache = new LocalCache("default", 0, 2);
+    cache.putObject("a", Arrays.asList(1));
+    cache.putObject("b", Arrays.asList(1, 2, 3));
+    assertNull(cache.peekObject("a"));
+    assertNotNull(cache.peekObject("b"));
+  }
+
+  @Test
+  public void shouldNeverEvictPlaceholdersOrPinnedEntries() {
+    LocalCache cache = new LocalCache("default", 1, 0);
+    cache.putObject("running", EXECUTION_PLACEHOLDER);
+    cache.putObject("deferred", Arrays.asList(1));
+    cache.pin("deferred");
+    cache.putObject("other", Arrays.asList(2));
+    cache.putObject("last", Arrays.asList(3));
+    assertSame(EXECUTION_PLACEHOLDER, cache.peekObject("running"));
+    assertNotNull(cache.peekObject("deferred"));
+    assertNull(cache.peekObject("other"));
+    assertNotNull(cache.peekObject("last"));
+
+    cache.unpinAll();
+    cache.putObject("next", Arrays.asList(4));
+    assertNull(cache.peekObject("deferred"));
+    assertSame(EXECUTION_PLACEHOLDER, cache.peekObject("running"));
+  }
+
+  @Test
+  public void shouldCountHitsAndMisses() {
+    LocalCache cache = new LocalCache("default");
+    cache.putObject("a", Arrays.asList(1));
+    cache.getObject("a");
+    cache.getObject("a");
+    cache.getObject("b");
+    cache.peekObject("b");
+    assertEquals(2, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(2d / 3, cache.getHitRatio(), 0.0001);
+    cache.resetStatistics();
+    assertEquals(0, cache.getHits());
+    assertEquals(0, cache.getMisses());
+  }
+
+  @Test
+  public void shouldResetRetainedRowsOnClear() {
+    LocalCache cache = new LocalCache("default", 10, 10);
+    cache.putObject("a", Arrays.asList(1, 2));
+    cache.clear();
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getRetainedRows());
+  }
+
+}
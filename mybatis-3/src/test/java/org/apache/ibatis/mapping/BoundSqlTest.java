@@ -52,6 +52,25 @@ public class BoundSqlTest {
     assertTrue("should return true even if the child property does not exists.", boundSql.hasAdditionalParameter("person.name"));
   }
 
+  @Test
+  public void shouldShareAdditionalParametersByReference() throws Exception {
+    List<ParameterMapping> params = Collections.emptyList();
+    BoundSql boundSql = new BoundSql(new Configuration(), "some sql", params, new Object());
+    assertFalse(boundSql.hasAdditionalParameter("person.id"));
+    assertNull(boundSql.getAdditionalParameter("person"));
+
+    Map<String, Object> bindings = new HashMap<String, Object>();
+    Person bean = new Person();
+    bean.id = 1;
+    bindings.put("person", bean);
+    boundSql.setAdditionalParameters(bindings);
+    assertTrue(boundSql.hasAdditionalParameter("person.id"));
+    assertEquals(1, boundSql.getAdditionalParameter("person.id"));
+
+    boundSql.setAdditionalParameter("other", "x");
+    assertEquals("x", bindings.get("other"));
+  }
+
   public static class Person {
     public Integer id;
   }
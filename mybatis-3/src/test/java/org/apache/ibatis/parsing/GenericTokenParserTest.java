@@ -16,6 +16,8 @@
 package org.apache.ibatis.parsing;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import org.junit.Test;
 
 import java.util.HashMap;
@@ -104,4 +106,29 @@ public class GenericTokenParserTest {
     assertEquals(expected.toString(), parser.parse(input.toString()));
   }
 
+  @Test
+  public void shouldTokenizeOnceAndApplyManyTimes() {
+    TokenizedText text = new GenericTokenParser("${", "}").tokenize("Hello \\${x} ${first_name} ${var{with\\}brace}!${");
+    assertEquals(2, text.getTokenCount());
+    assertEquals("Hello ${x} ", text.getLiteral(0));
+    assertEquals("first_name", text.getToken(0));
+    assertEquals("var{with}brace", text.getToken(1));
+    assertEquals("!${", text.getLiteral(2));
+    Map<String, String> variables = new HashMap<String, String>();
+    variables.put("first_name", "James");
+    variables.put("var{with}brace", "Hiya");
+    assertEquals("Hello ${x} James Hiya!${", text.apply(new VariableTokenHandler(variables)));
+    variables.put("first_name", "Jean-Luc");
+    assertEquals("Hello ${x} Jean-Luc Hiya!${", text.apply(new VariableTokenHandler(variables)));
+  }
+
+  @Test
+  public void shouldReturnTextWithoutTokensAsIs() {
+    String text = "select * from users";
+    assertSame(text, new GenericTokenParser("${", "}", new VariableTokenHandler(new HashMap<String, String>())).parse(text));
+    TokenizedText tokenized = new GenericTokenParser("${", "}").tokenize(text);
+    assertFalse(tokenized.hasTokens());
+    assertSame(text, tokenized.getLiteral(0));
+  }
+
 }
@@ -17,6 +17,7 @@ package org.apache.ibatis.reflection;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.HashMap;
@@ -137,6 +138,22 @@ public class MetaClassTest {
     ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
     MetaClass meta = MetaClass.forClass(RichType.class, reflectorFactory);
     assertEquals("richField", meta.findProperty("RICHfield"));
+    assertEquals("richList", meta.findProperty("richList[0]"));
+    assertEquals("richList", meta.findProperty("rich_list[0]", true));
+  }
+
+  @Test
+  public void shouldFindPropertyNameIgnoringUnderscores() {
+    ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    MetaClass meta = MetaClass.forClass(RichType.class, reflectorFactory);
+    assertEquals("richField", meta.findProperty("RICH_FIELD", true));
+    assertEquals("richField", meta.findProperty("_rich_field_", true));
+    assertNull(meta.findProperty("RICH_FIELD", false));
+    assertNull(meta.findProperty("RICH_FIELDS", true));
+    assertNull(meta.findProperty("RICH", true));
+    assertEquals("richType.richField", meta.findProperty("rich_type.rich_field", true));
+    // not ASCII, same result as upper-casing the name
+    assertNull(meta.findProperty("richFi\u00e9ld", true));
   }
 
 }
@@ -18,10 +18,14 @@ package org.apache.ibatis.reflection;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -31,6 +35,7 @@ import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Section;
 import org.apache.ibatis.domain.misc.CustomBeanWrapper;
 import org.apache.ibatis.domain.misc.CustomBeanWrapperFactory;
+import org.apache.ibatis.domain.misc.Employee;
 import org.apache.ibatis.domain.misc.RichType;
 import org.junit.Test;
 
@@ -302,4 +307,107 @@ public class MetaObjectTest {
     assertTrue(meta.hasGetter("filterParams[2]"));
   }
 
+  @Test
+  public void shouldWalkMixedPathsOverMapsBeansAndLists() {
+    RichType rich = new RichType();
+    Map<String, Object> param = new HashMap<String, Object>();
+    param.put("rich", rich);
+    MetaObject meta = SystemMetaObject.forObject(param);
+    meta.setValue("rich.richType.richProperty", "foo");
+    meta.setValue("rich.richMap.key", "bar");
+    assertEquals("foo", meta.getValue("rich.richType.richProperty"));
+    assertEquals("foo", rich.getRichType().getRichProperty());
+    assertEquals("bar", meta.getValue("rich.richMap.key"));
+    assertEquals("bar", meta.getValue("rich.richMap[key]"));
+
+    List<RichType> list = new ArrayList<RichType>();
+    list.add(new RichType());
+    rich.setRichList(list);
+    meta.setValue("rich.richList[0].richField", "baz");
+    assertEquals("baz", meta.getValue("rich.richList[0].richField"));
+    assertNull(meta.getValue("rich.richType.richType.richProperty"));
+    assertNull(meta.getValue("missing.richProperty"));
+  }
+
+  @Test
+  public void shouldResolveInvokersAgainForAnotherClass() {
+    Map<String, Object> param = new HashMap<String, Object>();
+    MetaObject meta = SystemMetaObject.forObject(param);
+    param.put("item", new Author(1, "cbegin", null, null, null, null));
+    assertEquals("cbegin", meta.getValue("item.username"));
+    param.put("item", new Section[0]);
+    try {
+      meta.getValue("item.username");
+      fail();
+    } catch (ReflectionException e) {
+      // expected
+    }
+    Map<String, Object> item = new HashMap<String, Object>();
+    item.put("username", "jdoe");
+    param.put("item", item);
+    assertEquals("jdoe", meta.getValue("item.username"));
+  }
+
+  @Test
+  public void shouldInternPropertyPaths() {
+    ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    PropertyPath path = PropertyPath.of("order.items[0].sku", reflectorFactory);
+    assertSame(path, PropertyPath.of("order.items[0].sku", reflectorFactory));
+    assertNotSame(path, PropertyPath.of("order.items[0].sku", new DefaultReflectorFactory()));
+    assertEquals(3, path.length());
+    assertEquals("items[0].sku", path.getExpression(1));
+    assertEquals("items", path.getHead(1).getName());
+    assertEquals("0", path.getHead(1).getIndex());
+    assertNull(path.getHead(1).getChildren());
+    assertEquals("sku", path.getToken(1).getChildren());
+  }
+
+  @Test
+  public void shouldKeepRecentlyUsedPropertyPaths() {
+    DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    PropertyPath hot = reflectorFactory.findPropertyPath("order.id");
+    PropertyPath cold = reflectorFactory.findPropertyPath("order.name");
+    for (int i = 0; i < 10000; i++) {
+      reflectorFactory.findPropertyPath("__frch_item_" + i + ".id");
+      assertSame(hot, reflectorFactory.findPropertyPath("order.id"));
+    }
+    assertNotSame(cold, reflectorFactory.findPropertyPath("order.name"));
+  }
+
+  @Test
+  public void shouldGetAndSetPrimitivesWithoutBoxing() {
+    Author author = new Author();
+    MetaObject meta = MetaObject.forObject(author, SystemMetaObject.DEFAULT_OBJECT_FACTORY, SystemMetaObject.DEFAULT_OBJECT_WRAPPER_FACTORY, new LambdaReflectorFactory());
+    assertTrue(meta.hasPrimitiveGetter("id", int.class));
+    assertFalse(meta.hasPrimitiveGetter("id", long.class));
+    assertFalse(meta.hasPrimitiveGetter("username", int.class));
+    meta.setInt("id", 100);
+    assertEquals(100, author.getId());
+    assertEquals(100, meta.getInt("id"));
+  }
+
+  @Test
+  public void shouldGetAndSetPrimitivesThroughReflection() {
+    Author author = new Author();
+    MetaObject meta = SystemMetaObject.forObject(author);
+    assertFalse(meta.hasPrimitiveGetter("id", int.class));
+    meta.setInt("id", 100);
+    assertEquals(100, author.getId());
+    assertEquals(100, meta.getInt("id"));
+  }
+
+  @Test
+  public void shouldWidenPrimitivesForSettersOfWiderTypes() {
+    for (ReflectorFactory reflectorFactory : Arrays.<ReflectorFactory>asList(new DefaultReflectorFactory(), new LambdaReflectorFactory())) {
+      Employee employee = new Employee();
+      MetaObject meta = MetaObject.forObject(employee, SystemMetaObject.DEFAULT_OBJECT_FACTORY, SystemMetaObject.DEFAULT_OBJECT_WRAPPER_FACTORY, reflectorFactory);
+      meta.setInt("height", 180);
+      meta.setLong("weight", 75L);
+      assertEquals(180d, employee.getHeight(), 0d);
+      assertEquals(75d, employee.getWeight(), 0d);
+      meta.setValue("height", 170);
+      assertEquals(170d, employee.getHeight(), 0d);
+    }
+  }
+
 }
@@ -15,6 +15,18 @@
  */
 package org.apache.ibatis.reflection;
 
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.domain.misc.RichType;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
+import org.apache.ibatis.reflection.invoker.ReflectionInvokerFactory;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -41,6 +53,174 @@ public class ReflectorTest {
     Assert.assertFalse(reflector.hasGetter("class"));
   }
 
+  @Test
+  public void shouldInvokeAccessorsThroughGeneratedLambdas() throws Exception {
+    ReflectorFactory reflectorFactory = new LambdaReflectorFactory();
+    Reflector reflector = reflectorFactory.findForClass(Counter.class);
+    Invoker getter = reflector.getGetInvoker("count");
+    Invoker setter = reflector.getSetInvoker("count");
+    Assert.assertNotSame(MethodInvoker.class, getter.getClass());
+    Assert.assertNotSame(MethodInvoker.class, setter.getClass());
+    Assert.assertEquals(int.class, getter.getType());
+    Assert.assertEquals(int.class, setter.getType());
+
+    Counter counter = new Counter();
+    setter.invoke(counter, new Object[] { 3 });
+    Assert.assertEquals(3, getter.invoke(counter, new Object[0]));
+    Assert.assertEquals("a", reflector.getGetInvoker("name").invoke(new Counter(), new Object[0]));
+    Section section = new Section();
+    reflectorFactory.findForClass(Section.class).getSetInvoker("id").invoke(section, new Object[] { 5L });
+    Assert.assertEquals(Long.valueOf(5L), section.getId());
+  }
+
+  @Test
+  public void shouldWrapExceptionsOfGeneratedLambdas() throws Exception {
+    Reflector reflector = new LambdaReflectorFactory().findForClass(Counter.class);
+    try {
+      reflector.getSetInvoker("count").invoke(new Counter(), new Object[] { -1 });
+      Assert.fail();
+    } catch (InvocationTargetException e) {
+      Assert.assertTrue(e.getTargetException() instanceof IllegalStateException);
+    }
+    try {
+      reflector.getSetInvoker("count").invoke(new Counter(), new Object[] { null });
+      Assert.fail();
+    } catch (IllegalArgumentException e) {
+      // expected, as with Method.invoke
+    }
+  }
+
+  @Test
+  public void shouldWidenArgumentsOfGeneratedLambdasLikeReflection() throws Exception {
+    for (ReflectorFactory reflectorFactory : Arrays.<ReflectorFactory>asList(new DefaultReflectorFactory(), new LambdaReflectorFactory())) {
+      Reflector reflector = reflectorFactory.findForClass(Measure.class);
+      Measure measure = new Measure();
+      reflector.getSetInvoker("id").invoke(measure, new Object[] { 7 });
+      reflector.getSetInvoker("weight").invoke(measure, new Object[] { 1.5f });
+      reflector.getSetInvoker("ratio").invoke(measure, new Object[] { 3L });
+      reflector.getSetInvoker("code").invoke(measure, new Object[] { (byte) 2 });
+      Assert.assertEquals(7L, measure.getId());
+      Assert.assertEquals(1.5d, measure.getWeight(), 0d);
+      Assert.assertEquals(3f, measure.getRatio(), 0f);
+      Assert.assertEquals(2, measure.getCode());
+      try {
+        reflector.getSetInvoker("id").invoke(measure, new Object[] { 1.5d });
+        Assert.fail();
+      } catch (IllegalArgumentException e) {
+        // narrowing is rejected, as with Method.invoke
+      }
+    }
+  }
+
+  @Test
+  public void shouldRebuildReflectorsFromIndex() throws Exception {
+    DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    Reflector original = reflectorFactory.findForClass(RichType.class);
+    reflectorFactory.findForClass(Section.class);
+    StringWriter writer = new StringWriter();
+    reflectorFactory.createIndex().write(writer);
+
+    ReflectorIndex index = ReflectorIndex.read(new StringReader(writer.toString()));
+    Assert.assertEquals(2, index.size());
+    Reflector indexed = index.newReflector(RichType.class, new ReflectionInvokerFactory());
+    Assert.assertNotNull(indexed);
+    Assert.assertEquals(sorted(original.getGetablePropertyNames()), sorted(indexed.getGetablePropertyNames()));
+    Assert.assertEquals(sorted(original.getSetablePropertyNames()), sorted(indexed.getSetablePropertyNames()));
+    for (String name : original.getGetablePropertyNames()) {
+      Assert.assertEquals(original.getGetterType(name), indexed.getGetterType(name));
+    }
+    RichType rich = new RichType();
+    indexed.getSetInvoker("richField").invoke(rich, new Object[] { "foo" });
+    Assert.assertEquals("foo", original.getGetInvoker("richField").invoke(rich, new Object[0]));
+
+    DefaultReflectorFactory fromIndex = new DefaultReflectorFactory();
+    fromIndex.setIndex(index);
+    Assert.assertEquals(Long.class, fromIndex.findForClass(Section.class).getSetterType("id"));
+  }
+
+  @Test
+  public void shouldReflectAgainWhenIndexIsStale() throws Exception {
+    String stale = "class " + Section.class.getName() + "\n"
+        + "get id " + AbstractEntity.class.getName() + " getIdentifier\n";
+    ReflectorIndex index = ReflectorIndex.read(new StringReader(stale));
+    Assert.assertNull(index.newReflector(Section.class, new ReflectionInvokerFactory()));
+    DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    reflectorFactory.setIndex(index);
+    Assert.assertTrue(reflectorFactory.findForClass(Section.class).hasGetter("id"));
+  }
+
+  @Test
+  public void shouldWarmUpReflectorsInParallel() {
+    DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    List<Class<?>> types = new ArrayList<Class<?>>();
+    types.add(Section.class);
+    types.add(RichType.class);
+    types.add(Counter.class);
+    reflectorFactory.warmUp(types, 2);
+    Assert.assertEquals(3, reflectorFactory.createIndex().size());
+  }
+
+  private static List<String> sorted(String[] names) {
+    List<String> list = new ArrayList<String>(Arrays.asList(names));
+    Collections.sort(list);
+    return list;
+  }
+
+  static class Counter {
+    private int count;
+    private String name = "a";
+
+    private int getCount() {
+      return count;
+    }
+
+    private void setCount(int count) {
+      if (count < 0) {
+        throw new IllegalStateException("negative");
+      }
+      this.count = count;
+    }
+  }
+
+  static class Measure {
+    private long id;
+    private double weight;
+    private float ratio;
+    private short code;
+
+    public long getId() {
+      return id;
+    }
+
+    public void setId(long id) {
+      this.id = id;
+    }
+
+    public double getWeight() {
+      return weight;
+    }
+
+    public void setWeight(double weight) {
+      this.weight = weight;
+    }
+
+    public float getRatio() {
+      return ratio;
+    }
+
+    public void setRatio(float ratio) {
+      this.ratio = ratio;
+    }
+
+    public short getCode() {
+      return code;
+    }
+
+    public void setCode(short code) {
+      this.code = code;
+    }
+  }
+
   static interface Entity<T> {
     T getId();
     void setId(T id);
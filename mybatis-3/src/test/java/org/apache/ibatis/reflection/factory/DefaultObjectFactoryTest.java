@@ -15,8 +15,18 @@
  */
 package org.apache.ibatis.reflection.factory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.apache.ibatis.reflection.ReflectionException;
 import org.junit.Assert;
@@ -52,4 +62,60 @@ public class DefaultObjectFactoryTest {
     }
   }
 
+  @Test
+  public void createsInstancesThroughPrivateNoArgConstructor() {
+    DefaultObjectFactory defaultObjectFactory = new DefaultObjectFactory();
+    PrivateConstructorClass first = defaultObjectFactory.create(PrivateConstructorClass.class);
+    PrivateConstructorClass second = defaultObjectFactory.create(PrivateConstructorClass.class);
+
+    Assert.assertEquals("created", first.state);
+    Assert.assertNotSame(first, second);
+  }
+
+  @Test
+  public void createThrowsProperErrorMsgWhenConstructorFails() {
+    DefaultObjectFactory defaultObjectFactory = new DefaultObjectFactory();
+    for (int i = 0; i < 2; i++) {
+      try {
+        defaultObjectFactory.create(FailingClass.class);
+        Assert.fail("Should have thrown ReflectionException");
+      } catch (ReflectionException e) {
+        Assert.assertTrue(e.getMessage().startsWith("Error instantiating " + FailingClass.class + " with invalid types () or values ()."));
+      }
+    }
+  }
+
+  @Test
+  public void createResolvesCollectionInterfaces() {
+    DefaultObjectFactory defaultObjectFactory = new DefaultObjectFactory();
+    Assert.assertEquals(ArrayList.class, defaultObjectFactory.create(List.class).getClass());
+    Assert.assertEquals(HashMap.class, defaultObjectFactory.create(Map.class).getClass());
+    Assert.assertEquals(HashSet.class, defaultObjectFactory.create(Set.class).getClass());
+    Assert.assertEquals(TreeSet.class, defaultObjectFactory.create(SortedSet.class).getClass());
+  }
+
+  @Test
+  public void createWithCapacity() {
+    DefaultObjectFactory defaultObjectFactory = new DefaultObjectFactory();
+    Assert.assertEquals(ArrayList.class, defaultObjectFactory.create(Collection.class, 100).getClass());
+    Assert.assertEquals(HashSet.class, defaultObjectFactory.create(Set.class, 100).getClass());
+    Assert.assertEquals(HashMap.class, defaultObjectFactory.create(Map.class, 100).getClass());
+    Assert.assertEquals(TreeSet.class, defaultObjectFactory.create(SortedSet.class, 100).getClass());
+    Assert.assertEquals(LinkedList.class, defaultObjectFactory.create(LinkedList.class, 100).getClass());
+  }
+
+  static class PrivateConstructorClass {
+    String state;
+
+    private PrivateConstructorClass() {
+      state = "created";
+    }
+  }
+
+  static class FailingClass {
+    public FailingClass() {
+      throw new IllegalStateException("boom");
+    }
+  }
+
 }
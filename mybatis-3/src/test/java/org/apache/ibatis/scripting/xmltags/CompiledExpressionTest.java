@@ -0,0 +1,122 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import ognl.Ognl;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class CompiledExpressionTest {
+
+  private static final String[] SUPPORTED = {
+      "id", "username", "password", "username != null", "password == null", "null == password",
+      "username == 'cbegin'", "username eq \"cbegin\"", "username neq 'xy'", "id == 1", "id != 1", "id > 0",
+      "id >= 1", "id < 1.5", "id lte 0", "id gt 0 and username != null", "id == 0 or username", "!(id == 1)",
+      "not password", "favouriteSection == favouriteSection", "username.length() > 3", "username.isEmpty()",
+      "(id == 1 && password == null) || false", "username and password", "password or username", "true", "'a'"
+  };
+
+  private static final String[] UNSUPPORTED = {
+      "id + 1", "username.substring(1)", "names[0]", "@java.lang.Math@max(1, 2)", "#this", "id in {1, 2}",
+      "id = 1", "id & 1", "id == 1L", "-1", "size()", "username instanceof String", "id == 010"
+  };
+
+  @Test
+  public void shouldCompileTheCommonSubset() {
+    for (String expression : SUPPORTED) {
+      assertNotNull(expression, CompiledExpression.compile(expression));
+    }
+  }
+
+  @Test
+  public void shouldLeaveEverythingElseToOgnl() {
+    for (String expression : UNSUPPORTED) {
+      assertNull(expression, CompiledExpression.compile(expression));
+    }
+  }
+
+  @Test
+  public void shouldEvaluateLikeOgnlOnBeans() throws Exception {
+    Author author = new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS);
+    for (String expression : SUPPORTED) {
+      assertEquals(expression, Ognl.getValue(expression, author), OgnlCache.getValue(expression, author));
+    }
+  }
+
+  @Test
+  public void shouldEvaluateLikeOgnlOnContextBindings() throws Exception {
+    Map<String, Object> parameter = new HashMap<String, Object>();
+    parameter.put("name", "Steve");
+    parameter.put("ids", Arrays.asList(1, 2, 3));
+    parameter.put("empty", new ArrayList<Object>());
+    parameter.put("count", 3L);
+    parameter.put("ratio", 0.5d);
+    parameter.put("flag", Boolean.TRUE);
+    parameter.put("text", "true");
+    DynamicContext context = new DynamicContext(new Configuration(), parameter);
+    context.bind("bound", "value");
+    String[] expressions = {
+        "name", "name != null and name != ''", "missing == null", "ids.size() > 2", "ids != null and !ids.isEmpty()",
+        "empty.size() == 0", "count == 3", "count > ratio", "ratio < 1", "flag", "flag == true", "!flag", "text",
+        "not text", "bound == 'value'", "_parameter.name == 'Steve'", "_databaseId == null", "name == 'Bob' or name == 'Steve'"
+    };
+    for (String expression : expressions) {
+      Map<?, ?> ognlContext = Ognl.createDefaultContext(context.getBindings(), new OgnlClassResolver());
+      Object expected = Ognl.getValue(Ognl.parseExpression(expression), ognlContext, context.getBindings());
+      assertNotNull(expression, CompiledExpression.compile(expression));
+      assertEquals(expression, expected, OgnlCache.getValue(expression, context.getBindings()));
+    }
+  }
+
+  @Test
+  public void shouldFallBackToOgnlForValuesOutsideTheSubset() {
+    Map<String, Object> parameter = new HashMap<String, Object>();
+    parameter.put("list", Arrays.asList(1, 2));
+    parameter.put("map", new HashMap<String, Object>());
+    parameter.put("big", new BigDecimal("2"));
+    assertEquals(Boolean.TRUE, OgnlCache.getValue("big == 2", parameter));
+    // OGNL specific map and list properties
+    assertEquals(0, OgnlCache.getValue("map.size", parameter));
+    assertEquals(2, OgnlCache.getValue("list.size", parameter));
+    assertEquals(Boolean.TRUE, OgnlCache.getValue("list.size == 2", parameter));
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void shouldKeepOgnlBehaviourWhenComparingStringsWithCharacters() {
+    // 'a' is a Character for OGNL, which then tries to compare both values as numbers
+    Map<String, Object> parameter = new HashMap<String, Object>();
+    parameter.put("letter", "b");
+    OgnlCache.getValue("letter == 'a'", parameter);
+  }
+
+  @Test(expected = BuilderException.class)
+  public void shouldReportNullNavigationLikeOgnl() {
+    OgnlCache.getValue("missing.name", new HashMap<String, Object>());
+  }
+
+}
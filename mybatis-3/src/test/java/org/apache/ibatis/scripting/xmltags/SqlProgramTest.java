@@ -0,0 +1,300 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.parsing.GenericTokenParser;
+import org.apache.ibatis.parsing.TokenHandler;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class SqlProgramTest {
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  public void shouldTrimWhereInPlace() {
+    SqlNode root = mixed(
+        text("SELECT * FROM BLOG"),
+        new WhereSqlNode(configuration, mixed(
+            new IfSqlNode(text("and ID = #{id}"), "id != null"),
+            new IfSqlNode(text("  OR\tNAME = #{name}  "), "name != null"))));
+    assertSameSql(root, param("id", 1, "name", "x"));
+    assertSameSql(root, param("id", null, "name", "x"));
+    assertSameSql(root, param("id", null, "name", null));
+  }
+
+  @Test
+  public void shouldTrimSetAndCustomTrimInPlace() {
+    SqlNode root = mixed(
+        text("UPDATE BLOG"),
+        new SetSqlNode(configuration, mixed(
+            new IfSqlNode(text("NAME = #{name},"), "name != null"),
+            new IfSqlNode(text("TITLE = #{title} ,  "), "title != null"))),
+        new TrimSqlNode(configuration, mixed(text("and x = 1 and")), "WHERE (", "AND |OR ", ")", " AND"));
+    assertSameSql(root, param("name", "a", "title", "b"));
+    assertSameSql(root, param("name", "a", "title", null));
+    assertSameSql(root, param("name", null, "title", null));
+  }
+
+  @Test
+  public void shouldChooseFirstMatchingBranch() {
+    SqlNode root = mixed(
+        text("SELECT * FROM BLOG WHERE"),
+        new ChooseSqlNode(Arrays.<SqlNode>asList(
+            new IfSqlNode(text("ID = #{id}"), "id != null"),
+            new IfSqlNode(text("NAME = #{name}"), "name != null")),
+            text("1 = 1")));
+    assertSameSql(root, param("id", 1, "name", "x"));
+    assertSameSql(root, param("id", null, "name", "x"));
+    assertSameSql(root, param("id", null, "name", null));
+  }
+
+  @Test
+  public void shouldLoopWithSeparatorsAndItemizedParameters() {
+    SqlNode root = mixed(
+        text("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(configuration, mixed(
+            new IfSqlNode(text("#{item}"), "item != null"),
+            new ForEachSqlNode(configuration, text("#{sub} ${idx}"), "subs", "idx", "sub", "[", "]", "|")),
+            "list", "index", "item", "(", ")", ","));
+    Map<String, Object> parameter = param("list", Arrays.asList(1, null, 3), "subs", Arrays.asList("a", "b"));
+    assertSameSql(root, parameter);
+    assertSameSql(root, param("list", new ArrayList<Object>(), "subs", Arrays.asList("a")));
+  }
+
+  @Test
+  public void shouldIterateMapsAndTrimInsideLoops() {
+    Map<String, Object> map = new LinkedHashMap<String, Object>();
+    map.put("a", 1);
+    map.put("b", 2);
+    SqlNode root = mixed(
+        text("INSERT INTO T"),
+        new ForEachSqlNode(configuration,
+            new TrimSqlNode(configuration, text(", #{key} = #{value}"), "", ",", null, null),
+            "map", "key", "value", "(", ")", null));
+    assertSameSql(root, param("map", map));
+  }
+
+  @Test
+  public void shouldApplyBindAndDynamicText() {
+    SqlNode root = mixed(
+        new VarDeclSqlNode("pattern", "'%' + name + '%'"),
+        new TextSqlNode("SELECT * FROM ${table} WHERE NAME like #{pattern}"));
+    assertSameSql(root, param("name", "x", "table", "BLOG"));
+  }
+
+  @Test
+  public void shouldCallNodesThatAreNotCompiled() {
+    SqlNode custom = new SqlNode() {
+      @Override
+      public boolean apply(DynamicContext context) {
+        context.appendSql("and CUSTOM = #{item}");
+        return true;
+      }
+    };
+    SqlNode root = mixed(
+        text("SELECT * FROM BLOG"),
+        new ForEachSqlNode(configuration, new WhereSqlNode(configuration, custom), "list", null, "item", null, null, null));
+    assertSameSql(root, param("list", Arrays.asList(1, 2)));
+    assertEquals(6, SqlProgram.compile(configuration, root).size());
+  }
+
+  @Test
+  public void shouldComputeShapeFromTestsAndLoopsOnly() {
+    SqlNode root = mixed(
+        text("SELECT * FROM BLOG"),
+        new WhereSqlNode(configuration, mixed(
+            new IfSqlNode(text("and ID = #{id}"), "id != null"),
+            new ForEachSqlNode(configuration, text("#{item}"), "list", null, "item", "and TAG in (", ")", ","))));
+    SqlProgram program = SqlProgram.compile(configuration, root);
+    assertTrue(program.isShapeDetermined());
+
+    Map<String, Object> first = param("id", 1, "list", Arrays.asList("a", "b"));
+    Map<String, Object> second = param("id", 2, "list", Arrays.asList("c", "d"));
+    Map<String, Object> third = param("id", null, "list", Arrays.asList("c", "d"));
+    Map<String, Object> fourth = param("id", 2, "list", Arrays.asList("c"));
+    DynamicContext context = new DynamicContext(configuration, first);
+    SqlProgram.Shape shape = program.shape(context);
+    assertEquals("", context.getSql());
+    assertEquals(shape, program.shape(new DynamicContext(configuration, second)));
+    assertFalse(shape.equals(program.shape(new DynamicContext(configuration, third))));
+    assertFalse(shape.equals(program.shape(new DynamicContext(configuration, fourth))));
+
+    DynamicContext executed = new DynamicContext(configuration, first);
+    program.execute(executed);
+    assertEquals(executed.getBindings(), context.getBindings());
+  }
+
+  @Test
+  public void shouldNotBeShapeDeterminedWithSubstitutionsOrBinds() {
+    assertFalse(SqlProgram.compile(configuration, mixed(new TextSqlNode("SELECT * FROM ${table}"))).isShapeDetermined());
+    assertFalse(SqlProgram.compile(configuration, mixed(new VarDeclSqlNode("x", "1"), text("SELECT 1"))).isShapeDetermined());
+    assertTrue(SqlProgram.compile(configuration, mixed(new TextSqlNode("SELECT * FROM BLOG"))).isShapeDetermined());
+  }
+
+  @Test
+  public void shouldPadInListsToPowerOfTwo() {
+    Configuration configuration = new Configuration();
+    configuration.setInListPaddingEnabled(true);
+    SqlNode root = mixed(
+        text("SELECT * FROM BLOG WHERE"),
+        new ForEachSqlNode(configuration, mixed(text("#{item}")), "list", null, "item", "ID in (", ")", ","));
+    for (Integer size : Arrays.asList(1, 3, 4, 5)) {
+      List<Integer> list = new ArrayList<Integer>();
+      for (int i = 1; i <= size; i++) {
+        list.add(i);
+      }
+      DynamicContext expected = new DynamicContext(configuration, param("list", list));
+      root.apply(expected);
+      DynamicContext actual = new DynamicContext(configuration, param("list", list));
+      SqlProgram.compile(configuration, root).execute(actual);
+      assertEquals(expected.getSql(), actual.getSql());
+      assertEquals(expected.getBindings(), actual.getBindings());
+    }
+    DynamicContext context = new DynamicContext(configuration, param("list", Arrays.asList(7, 8, 9)));
+    SqlProgram.compile(configuration, root).execute(context);
+    assertEquals("SELECT * FROM BLOG WHERE ID in (  #{__frch_item_0} , #{__frch_item_1} , #{__frch_item_2} , #{__frch_item_3} )", context.getSql());
+    assertEquals(9, context.getBindings().get("__frch_item_3"));
+  }
+
+  @Test
+  public void shouldNotPadValuesOrArgumentLists() {
+    Configuration configuration = new Configuration();
+    configuration.setInListPaddingEnabled(true);
+    Map<String, Object> parameter = param("list", Arrays.asList(1, 2, 3));
+    DynamicContext context = new DynamicContext(configuration, parameter);
+    SqlProgram.compile(configuration, mixed(
+        text("INSERT INTO BLOG (A, B, C) VALUES"),
+        new ForEachSqlNode(configuration, mixed(text("#{item}")), "list", null, "item", "(", ")", ","))).execute(context);
+    assertEquals("INSERT INTO BLOG (A, B, C) VALUES (  #{__frch_item_0} , #{__frch_item_1} , #{__frch_item_2} )", context.getSql());
+    context = new DynamicContext(configuration, parameter);
+    SqlProgram.compile(configuration, mixed(
+        text("SELECT * FROM BLOG WHERE ID ="),
+        new ForEachSqlNode(configuration, mixed(text("#{item}")), "list", null, "item", "COALESCE(", ")", ","))).execute(context);
+    assertEquals("SELECT * FROM BLOG WHERE ID = COALESCE(  #{__frch_item_0} , #{__frch_item_1} , #{__frch_item_2} )", context.getSql());
+  }
+
+  @Test
+  public void shouldExpandOnlyTheSelectedChunk() {
+    SqlNode root = mixed(
+        text("SELECT * FROM BLOG"),
+        new WhereSqlNode(configuration, mixed(
+            new ForEachSqlNode(configuration, mixed(text("#{item}")), "list", null, "item", "ID in (", ")", ",", 2))));
+    SqlProgram program = SqlProgram.compile(configuration, root);
+    assertTrue(program.isChunkable());
+    assertEquals(2, program.getChunkSize());
+    Map<String, Object> parameter = param("list", Arrays.asList(1, 2, 3, 4, 5));
+    assertEquals(5, program.getChunkableSize(new DynamicContext(configuration, parameter)));
+    DynamicContext context = new DynamicContext(configuration, parameter);
+    program.execute(context, 2, 4);
+    assertEquals("SELECT * FROM BLOG WHERE ID in (#{__frch_item_0},#{__frch_item_1})", context.getSql().trim());
+    assertEquals(3, context.getBindings().get("__frch_item_0"));
+    assertEquals(4, context.getBindings().get("__frch_item_1"));
+  }
+
+  @Test
+  public void shouldOnlyChunkListsWithAChunkSize() {
+    assertFalse(SqlProgram.compile(configuration, mixed(
+        text("SELECT * FROM BLOG WHERE"),
+        new ForEachSqlNode(configuration, mixed(text("#{item}")), "list", null, "item", "ID in (", ")", ","))).isChunkable());
+    for (SqlNode root : Arrays.<SqlNode>asList(
+        mixed(text("SELECT * FROM BLOG WHERE"),
+            new ForEachSqlNode(configuration, mixed(text("#{item}")), "list", null, "item", "ID NOT IN (", ")", ",", 2)),
+        mixed(text("SELECT * FROM BLOG WHERE"),
+            new ForEachSqlNode(configuration, mixed(text("#{item}")), "list", null, "item", "ID in (", ")", " AND ", 2)),
+        mixed(text("INSERT INTO BLOG (A, B) VALUES"),
+            new ForEachSqlNode(configuration, mixed(text("#{item}")), "list", null, "item", "(", ")", ",", 2)),
+        mixed(text("SELECT * FROM BLOG WHERE"),
+            new ForEachSqlNode(configuration, mixed(text("#{item}")), "list", null, "item", "ID in (", ")", ",", 2),
+            new ForEachSqlNode(configuration, mixed(text("#{item}")), "list", null, "item", "OR ID in (", ")", ",", 2)))) {
+      try {
+        SqlProgram.compile(configuration, root);
+        fail();
+      } catch (BuilderException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void shouldReplacePlaceholdersOfStaticFragmentsAtCompileTime() {
+    SqlNode root = mixed(
+        text("SELECT * FROM BLOG"),
+        text("WHERE AUTHOR = #{author} AND TITLE <> '\\#{x}'"),
+        new IfSqlNode(text("AND ID = #{id}"), "id != null"),
+        text("AND STATE = #{state}"),
+        new WhereSqlNode(configuration, mixed(new IfSqlNode(text("AND NAME = #{name}"), "true"))),
+        new TextSqlNode("ORDER BY ${column}, #{column}"),
+        new ForEachSqlNode(configuration, mixed(text("#{item}")), "list", null, "item", "LIMIT (", ")", ","));
+    SqlProgram program = SqlProgram.compile(configuration, root);
+    // the first two texts are merged, the text after the <if> is a jump target
+    assertEquals(10, program.size());
+    for (Object id : Arrays.asList(1, null)) {
+      Map<String, Object> parameter = param("id", id, "column", "NAME", "list", Arrays.asList(1, 2));
+      DynamicContext expected = new DynamicContext(configuration, parameter);
+      root.apply(expected);
+      DynamicContext actual = new DynamicContext(configuration, parameter);
+      List<String> placeholders = program.executeParsed(actual, 0, Integer.MAX_VALUE);
+      final List<String> expectedPlaceholders = new ArrayList<String>();
+      String expectedSql = new GenericTokenParser("#{", "}", new TokenHandler() {
+        @Override
+        public String handleToken(String content) {
+          expectedPlaceholders.add(content);
+          return "?";
+        }
+      }).parse(expected.getSql());
+      assertEquals(expectedSql, actual.getSql());
+      assertEquals(expectedPlaceholders, placeholders);
+    }
+  }
+
+  private void assertSameSql(SqlNode root, Object parameter) {
+    DynamicContext expected = new DynamicContext(configuration, parameter);
+    root.apply(expected);
+    DynamicContext actual = new DynamicContext(configuration, parameter);
+    SqlProgram.compile(configuration, root).execute(actual);
+    assertEquals(expected.getSql(), actual.getSql());
+    assertEquals(expected.getBindings(), actual.getBindings());
+  }
+
+  private static Map<String, Object> param(Object... keyValues) {
+    Map<String, Object> parameter = new HashMap<String, Object>();
+    for (int i = 0; i < keyValues.length; i += 2) {
+      parameter.put((String) keyValues[i], keyValues[i + 1]);
+    }
+    return parameter;
+  }
+
+  private static SqlNode text(String text) {
+    return new StaticTextSqlNode(text);
+  }
+
+  private static MixedSqlNode mixed(SqlNode... contents) {
+    List<SqlNode> list = Arrays.asList(contents);
+    return new MixedSqlNode(list);
+  }
+
+}
@@ -15,15 +15,22 @@
  */
 package org.apache.ibatis.submitted.foreach;
 
+import java.io.ByteArrayInputStream;
 import java.io.Reader;
 import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
 import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
@@ -131,6 +138,80 @@ public class ForEachTest {
     }
   }
 
+  @Test
+  public void shouldSelectInChunksWithPaddedLists() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setInListPaddingEnabled(true);
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.selectByIds(Arrays.asList(5, 1, 3, 6, 2));
+      // (5, 1, 3, 3) then (6, 2)
+      Assert.assertEquals(5, users.size());
+      Assert.assertEquals("User5", users.get(2).getName());
+      Assert.assertEquals("User2", users.get(3).getName());
+    } finally {
+      sqlSession.close();
+      configuration.setInListPaddingEnabled(false);
+    }
+  }
+
+  @Test
+  public void shouldApplyRowBoundsAcrossChunks() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Integer> ids = Arrays.asList(5, 1, 3, 6, 2);
+      List<User> users = sqlSession.selectList("org.apache.ibatis.submitted.foreach.Mapper.selectByIds", ids, new RowBounds(2, 2));
+      Assert.assertEquals(2, users.size());
+      Assert.assertEquals("User5", users.get(0).getName());
+      Assert.assertEquals("User2", users.get(1).getName());
+      final List<User> handled = new ArrayList<User>();
+      sqlSession.select("org.apache.ibatis.submitted.foreach.Mapper.selectByIds", ids, new RowBounds(1, 3), new ResultHandler() {
+        @Override
+        public void handleResult(ResultContext context) {
+          handled.add((User) context.getResultObject());
+        }
+      });
+      Assert.assertEquals(3, handled.size());
+      Assert.assertEquals("User3", handled.get(0).getName());
+      Assert.assertEquals("User2", handled.get(2).getName());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldRejectChunkSizeOnAggregatingSelect() throws Exception {
+    ex.expect(BuilderException.class);
+    ex.expectMessage("cannot use chunkSize because it contains COUNT()");
+
+    String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>"
+        + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">"
+        + "<mapper namespace=\"chunked\">"
+        + "  <select id=\"countByIds\" resultType=\"int\">"
+        + "    select count(*) from users where"
+        + "    <foreach item=\"id\" collection=\"list\" separator=\",\" open=\"id in (\" close=\")\" chunkSize=\"3\">#{id}</foreach>"
+        + "  </select>"
+        + "</mapper>";
+    Configuration configuration = new Configuration();
+    new XMLMapperBuilder(new ByteArrayInputStream(xml.getBytes("UTF-8")), configuration, "chunked.xml",
+        configuration.getSqlFragments()).parse();
+  }
+
+  @Test
+  public void shouldBindListAsSqlArray() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.selectByIdArray(Arrays.asList(5, 1, 3));
+      Assert.assertEquals(3, users.size());
+      Assert.assertEquals("User1", users.get(0).getName());
+      Assert.assertEquals("User5", users.get(2).getName());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
   @Test
   public void shouldReportMissingPropertyName() {
     ex.expect(PersistenceException.class);
@@ -28,4 +28,8 @@ public interface Mapper {
   String selectWithNullItemCheck(List<User> users);
 
   int typoInItemProperty(List<User> users);
+
+  List<User> selectByIds(List<Integer> ids);
+
+  List<User> selectByIdArray(List<Integer> ids);
 }
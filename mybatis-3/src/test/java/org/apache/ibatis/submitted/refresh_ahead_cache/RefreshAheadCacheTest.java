@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.refresh_ahead_cache;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RefreshAheadCacheTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/refresh_ahead_cache/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/refresh_ahead_cache/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldReloadHotEntryBeforeItExpires() throws Exception {
+    long loadedAt = System.currentTimeMillis();
+    assertEquals("Jane", getPerson().getFirstname());
+
+    // changed behind MyBatis back, the cached entry is stale now
+    SqlSession session = sqlSessionFactory.openSession();
+    try {
+      Statement statement = session.getConnection().createStatement();
+      statement.executeUpdate("update person set firstname = 'Janet' where id = 1");
+      statement.close();
+      session.commit(true);
+    } finally {
+      session.close();
+    }
+    assertEquals("Jane", getPerson().getFirstname());
+
+    Thread.sleep(600);
+    String firstname = getPerson().getFirstname();
+    while (!"Janet".equals(firstname) && System.currentTimeMillis() - loadedAt < 2500) {
+      Thread.sleep(20);
+      firstname = getPerson().getFirstname();
+    }
+    assertEquals("Janet", firstname);
+    assertTrue("Entry expired instead of being refreshed", System.currentTimeMillis() - loadedAt < 3000);
+    assertTrue("Refresh bypassed the plugins", RefreshCountingPlugin.refreshes.get() > 0);
+  }
+
+  @Test
+  public void shouldOnlyAttachRefreshersForRefreshAheadCaches() {
+    assertTrue(sqlSessionFactory.getConfiguration().isRefreshAheadCache(PersonMapper.class.getName()));
+
+    CacheBuilder builder = new CacheBuilder("plain").clearInterval(3000L);
+    builder.build();
+    assertFalse(builder.isRefreshAheadEnabled());
+  }
+
+  private Person getPerson() {
+    SqlSession session = sqlSessionFactory.openSession();
+    try {
+      return session.getMapper(PersonMapper.class).getPerson(1);
+    } finally {
+      session.close();
+    }
+  }
+
+}
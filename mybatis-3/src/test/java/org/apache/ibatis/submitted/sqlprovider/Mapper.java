@@ -25,4 +25,13 @@ public interface Mapper {
 
   @SelectProvider(type = OurSqlBuilder.class, method = "buildGetUserQuery")
   User getUser(Integer userId);
+
+  @SelectProvider(type = OurSqlBuilder.class, method = "buildGetUsersByNameQuery")
+  List<User> getUsersByName(String name);
+
+  @SelectProvider(type = OurSqlBuilder.class, method = "buildGetUserWithInlinedIdQuery")
+  User getUserWithInlinedId(Integer userId);
+
+  @SelectProvider(type = OurSqlBuilder.class, method = "buildGetUsersOrderedQuery")
+  List<User> getUsersOrdered();
 }
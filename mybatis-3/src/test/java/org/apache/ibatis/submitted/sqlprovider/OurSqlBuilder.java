@@ -18,6 +18,8 @@ package org.apache.ibatis.submitted.sqlprovider;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.ibatis.jdbc.SQL;
+
 public class OurSqlBuilder {
 
   public String buildGetUsersQuery(Map<String, Object> parameter) {
@@ -44,4 +46,20 @@ public class OurSqlBuilder {
     // so it is passed as is from the mapper
     return "select * from users where id = #{value}";
   }
+
+  public SQL buildGetUsersByNameQuery(final String name) {
+    return new SQL() {{
+      SELECT("*");
+      FROM("users");
+      WHERE("name = #{value}");
+    }};
+  }
+
+  public String buildGetUserWithInlinedIdQuery(Integer userId) {
+    return "select * from users where id = " + userId + " and id = #{value}";
+  }
+
+  public static String buildGetUsersOrderedQuery() {
+    return "select * from users order by id desc";
+  }
 }
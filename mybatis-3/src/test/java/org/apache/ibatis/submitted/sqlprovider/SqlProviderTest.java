@@ -17,6 +17,8 @@ package org.apache.ibatis.submitted.sqlprovider;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.io.Reader;
 import java.sql.Connection;
@@ -25,6 +27,8 @@ import java.util.List;
 
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
@@ -84,4 +88,63 @@ public class SqlProviderTest {
       sqlSession.close();
     }
   }
+
+  @Test
+  public void shouldGetUsersFromSqlBuilder() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsersByName("User2");
+      assertEquals(1, users.size());
+      assertEquals(Integer.valueOf(2), users.get(0).getId());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldGetUsersFromStaticProviderMethod() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsersOrdered();
+      assertEquals(4, users.size());
+      assertEquals("User4", users.get(0).getName());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldReuseParsedSqlOfSameProviderText() {
+    MappedStatement ms = sqlSessionFactory.getConfiguration()
+        .getMappedStatement("org.apache.ibatis.submitted.sqlprovider.Mapper.getUser");
+    BoundSql first = ms.getBoundSql(1);
+    BoundSql second = ms.getBoundSql(2);
+    assertEquals("select * from users where id = ?", first.getSql());
+    assertSame(first.getParameterMappings(), second.getParameterMappings());
+    assertEquals(Integer.valueOf(2), second.getParameterObject());
+  }
+
+  @Test
+  public void shouldStopCachingWhenProviderTextVaries() {
+    MappedStatement ms = sqlSessionFactory.getConfiguration()
+        .getMappedStatement("org.apache.ibatis.submitted.sqlprovider.Mapper.getUserWithInlinedId");
+    assertSame(ms.getBoundSql(1).getParameterMappings(), ms.getBoundSql(1).getParameterMappings());
+
+    int cacheSize = sqlSessionFactory.getConfiguration().getDynamicSqlCacheSize();
+    for (int i = 0; i <= cacheSize; i++) {
+      ms.getBoundSql(i + 2);
+    }
+    BoundSql boundSql = ms.getBoundSql(1);
+    assertEquals("select * from users where id = 1 and id = ?", boundSql.getSql());
+    assertNotSame(boundSql.getParameterMappings(), ms.getBoundSql(1).getParameterMappings());
+
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      assertEquals("User2", sqlSession.getMapper(Mapper.class).getUserWithInlinedId(2).getName());
+    } finally {
+      sqlSession.close();
+    }
+  }
 }
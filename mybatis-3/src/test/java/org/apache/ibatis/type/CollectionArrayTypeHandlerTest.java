@@ -0,0 +1,147 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+public class CollectionArrayTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<Object> TYPE_HANDLER = new CollectionArrayTypeHandler();
+
+  @Mock
+  private Connection connection;
+  @Mock
+  private DatabaseMetaData metaData;
+  @Mock
+  private Array mockArray;
+
+  @Before
+  public void setupConnection() throws Exception {
+    when(ps.getConnection()).thenReturn(connection);
+    when(connection.getMetaData()).thenReturn(metaData);
+    when(metaData.getDatabaseProductName()).thenReturn("HSQL Database Engine");
+  }
+
+  @Test
+  public void shouldSetParameter() throws Exception {
+    when(connection.createArrayOf("INTEGER", new Object[] { null, 1, 2 })).thenReturn(mockArray);
+    TYPE_HANDLER.setParameter(ps, 1, Arrays.asList(null, 1, 2), JdbcType.ARRAY);
+    verify(ps).setArray(1, mockArray);
+  }
+
+  @Test
+  public void shouldSetJavaArrayParameter() throws Exception {
+    when(connection.createArrayOf("BIGINT", new Object[] { 1L, 2L })).thenReturn(mockArray);
+    when(connection.createArrayOf("VARCHAR", new Object[0])).thenReturn(mockArray);
+    TYPE_HANDLER.setParameter(ps, 1, new long[] { 1L, 2L }, JdbcType.ARRAY);
+    TYPE_HANDLER.setParameter(ps, 2, new String[0], JdbcType.ARRAY);
+    verify(ps).setArray(1, mockArray);
+    verify(ps).setArray(2, mockArray);
+  }
+
+  @Test
+  public void shouldUsePostgreSqlTypeNames() throws Exception {
+    when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+    when(connection.createArrayOf("float8", new Object[] { 1.5d })).thenReturn(mockArray);
+    when(connection.createArrayOf("int2", new Object[] { (byte) 1 })).thenReturn(mockArray);
+    TYPE_HANDLER.setParameter(ps, 1, new double[] { 1.5d }, JdbcType.ARRAY);
+    TYPE_HANDLER.setParameter(ps, 2, Arrays.asList((byte) 1), JdbcType.ARRAY);
+    verify(ps).setArray(1, mockArray);
+    verify(ps).setArray(2, mockArray);
+  }
+
+  @Test
+  public void shouldRequireTypedArrayForEmptyCollection() throws Exception {
+    try {
+      TYPE_HANDLER.setParameter(ps, 1, new ArrayList<Object>(), JdbcType.ARRAY);
+      fail();
+    } catch (TypeException e) {
+      assertTrue(e.getCause().getMessage().contains("empty collection"));
+    }
+  }
+
+  @Test
+  public void shouldSetSqlArrayParameter() throws Exception {
+    TYPE_HANDLER.setParameter(ps, 1, mockArray, null);
+    verify(ps).setArray(1, mockArray);
+  }
+
+  @Test(expected = TypeException.class)
+  public void shouldFailForScalarParameter() throws Exception {
+    TYPE_HANDLER.setParameter(ps, 1, "a", JdbcType.ARRAY);
+  }
+
+  @Test
+  public void shouldGetResultFromResultSet() throws Exception {
+    when(rs.getArray("column")).thenReturn(mockArray);
+    when(mockArray.getArray()).thenReturn(new Integer[] { 1, 2 });
+    assertArrayEquals(new Integer[] { 1, 2 }, (Object[]) TYPE_HANDLER.getResult(rs, "column"));
+    assertNull(TYPE_HANDLER.getResult(rs, "other"));
+  }
+
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    when(cs.getArray(1)).thenReturn(mockArray);
+    when(mockArray.getArray()).thenReturn(new String[] { "a" });
+    assertArrayEquals(new String[] { "a" }, (Object[]) TYPE_HANDLER.getResult(cs, 1));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void shouldCopyResultsIntoTheResolvedType() throws Exception {
+    TypeHandlerRegistry registry = new TypeHandlerRegistry();
+    when(rs.getArray("column")).thenReturn(mockArray);
+    when(mockArray.getArray()).thenReturn(new Integer[] { 1, 2 });
+    List<Integer> list = (List<Integer>) registry.getTypeHandler(List.class, JdbcType.ARRAY).getResult(rs, "column");
+    Set<Integer> set = (Set<Integer>) registry.getTypeHandler(Set.class, JdbcType.ARRAY).getResult(rs, "column");
+    Collection<Integer> collection = (Collection<Integer>) registry.getTypeHandler(Collection.class, JdbcType.ARRAY).getResult(rs, "column");
+    int[] ints = (int[]) registry.getTypeHandler(int[].class, JdbcType.ARRAY).getResult(rs, "column");
+    assertEquals(Arrays.asList(1, 2), list);
+    assertEquals(new LinkedHashSet<Integer>(Arrays.asList(1, 2)), set);
+    assertEquals(Arrays.asList(1, 2), new ArrayList<Integer>(collection));
+    assertArrayEquals(new int[] { 1, 2 }, ints);
+  }
+
+  @Test
+  public void shouldBeResolvedForCollectionsAndArraysWithArrayJdbcType() {
+    TypeHandlerRegistry registry = new TypeHandlerRegistry();
+    assertEquals(CollectionArrayTypeHandler.class, registry.getTypeHandler(ArrayList.class, JdbcType.ARRAY).getClass());
+    assertEquals(CollectionArrayTypeHandler.class, registry.getTypeHandler(Integer[].class, JdbcType.ARRAY).getClass());
+    assertEquals(CollectionArrayTypeHandler.class, registry.getTypeHandler(Object.class, JdbcType.ARRAY).getClass());
+    assertNull(registry.getTypeHandler(ArrayList.class));
+  }
+
+}
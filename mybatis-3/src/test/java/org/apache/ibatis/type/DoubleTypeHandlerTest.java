@@ -45,4 +45,16 @@ public class DoubleTypeHandlerTest extends BaseTypeHandlerTest {
     assertEquals(new Double(100d), TYPE_HANDLER.getResult(cs, 1));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void shouldSetPrimitiveParameter() throws Exception {
+    ((PrimitiveTypeHandler.OfDouble) TYPE_HANDLER).setDouble(ps, 1, 100d, null);
+    verify(ps).setDouble(1, 100d);
+  }
+
+  @Test
+  public void shouldGetPrimitiveResultFromResultSet() throws Exception {
+    when(rs.getDouble("column")).thenReturn(100d);
+    assertEquals(100d, ((PrimitiveTypeHandler.OfDouble) TYPE_HANDLER).getDouble(rs, "column"), 0);
+  }
+
+}
@@ -0,0 +1,158 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.ibatis.executor.result.ResultMapException;
+import org.junit.Test;
+
+public class EnumCodeTypeHandlerTest extends BaseTypeHandlerTest {
+
+  enum MyEnum implements CodedEnum {
+    ONE(10), TWO(20) {
+      @Override
+      public String toString() {
+        return "two";
+      }
+    }, THREE(12);
+
+    private final int code;
+
+    MyEnum(int code) {
+      this.code = code;
+    }
+
+    @Override
+    public int getCode() {
+      return code;
+    }
+  }
+
+  enum SparseEnum implements CodedEnum {
+    LOW(-1000000), HIGH(1000000);
+
+    private final int code;
+
+    SparseEnum(int code) {
+      this.code = code;
+    }
+
+    @Override
+    public int getCode() {
+      return code;
+    }
+  }
+
+  enum DuplicateEnum implements CodedEnum {
+    A, B;
+
+    @Override
+    public int getCode() {
+      return 1;
+    }
+  }
+
+  enum PlainEnum {
+    A
+  }
+
+  private static final TypeHandler<MyEnum> TYPE_HANDLER = new EnumCodeTypeHandler<MyEnum>(MyEnum.class);
+
+  @Test
+  public void shouldSetParameter() throws Exception {
+    TYPE_HANDLER.setParameter(ps, 1, MyEnum.TWO, null);
+    verify(ps).setInt(1, 20);
+  }
+
+  @Test
+  public void shouldSetNullParameter() throws Exception {
+    TYPE_HANDLER.setParameter(ps, 1, null, JdbcType.INTEGER);
+    verify(ps).setNull(1, JdbcType.INTEGER.TYPE_CODE);
+  }
+
+  @Test
+  public void shouldGetResultFromResultSet() throws Exception {
+    when(rs.getInt("column")).thenReturn(12);
+    when(rs.wasNull()).thenReturn(false);
+    assertEquals(MyEnum.THREE, TYPE_HANDLER.getResult(rs, "column"));
+  }
+
+  @Test
+  public void shouldGetNullResultFromResultSet() throws Exception {
+    when(rs.getInt("column")).thenReturn(0);
+    when(rs.wasNull()).thenReturn(true);
+    assertEquals(null, TYPE_HANDLER.getResult(rs, "column"));
+  }
+
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    when(cs.getInt(1)).thenReturn(10);
+    when(cs.wasNull()).thenReturn(false);
+    assertEquals(MyEnum.ONE, TYPE_HANDLER.getResult(cs, 1));
+  }
+
+  @Test
+  public void shouldGetNullResultFromCallableStatement() throws Exception {
+    when(cs.getInt(1)).thenReturn(0);
+    when(cs.wasNull()).thenReturn(true);
+    assertEquals(null, TYPE_HANDLER.getResult(cs, 1));
+  }
+
+  @Test
+  public void shouldFailOnUnknownCode() throws Exception {
+    when(rs.getInt("column")).thenReturn(11);
+    when(rs.wasNull()).thenReturn(false);
+    try {
+      TYPE_HANDLER.getResult(rs, "column");
+      fail();
+    } catch (ResultMapException e) {
+      assertEquals("Cannot convert 11 to MyEnum by code.", e.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void shouldMapSparseCodes() throws Exception {
+    TypeHandler<SparseEnum> handler = new EnumCodeTypeHandler<SparseEnum>(SparseEnum.class);
+    when(rs.getInt("column")).thenReturn(1000000);
+    when(rs.wasNull()).thenReturn(false);
+    assertEquals(SparseEnum.HIGH, handler.getResult(rs, "column"));
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  @Test
+  public void shouldAcceptClassOfConstantWithBody() throws Exception {
+    TypeHandler<MyEnum> handler = new EnumCodeTypeHandler(MyEnum.TWO.getClass());
+    when(rs.getInt("column")).thenReturn(20);
+    when(rs.wasNull()).thenReturn(false);
+    assertSame(MyEnum.TWO, handler.getResult(rs, "column"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectDuplicateCodes() {
+    new EnumCodeTypeHandler<DuplicateEnum>(DuplicateEnum.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectEnumWithoutCodes() {
+    new EnumCodeTypeHandler<PlainEnum>(PlainEnum.class);
+  }
+
+}
@@ -16,9 +16,11 @@
 package org.apache.ibatis.type;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import org.apache.ibatis.executor.result.ResultMapException;
 import org.junit.Test;
 
 public class EnumOrdinalTypeHandlerTest extends BaseTypeHandlerTest {
@@ -69,4 +71,16 @@ public class EnumOrdinalTypeHandlerTest extends BaseTypeHandlerTest {
     assertEquals(null, TYPE_HANDLER.getResult(cs, 1));
   }
 
+  @Test
+  public void shouldFailOnUnknownOrdinal() throws Exception {
+    when(rs.getInt("column")).thenReturn(2);
+    when(rs.wasNull()).thenReturn(false);
+    try {
+      TYPE_HANDLER.getResult(rs, "column");
+      fail();
+    } catch (ResultMapException e) {
+      assertEquals("Cannot convert 2 to MyEnum by ordinal value.", e.getCause().getMessage());
+    }
+  }
+
 }
@@ -16,9 +16,15 @@
 package org.apache.ibatis.type;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.HashMap;
+
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.session.Configuration;
 import org.junit.Test;
 
 public class EnumTypeHandlerTest extends BaseTypeHandlerTest {
@@ -69,4 +75,37 @@ public class EnumTypeHandlerTest extends BaseTypeHandlerTest {
     assertEquals(null, TYPE_HANDLER.getResult(cs, 1));
   }
 
+  @Test
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public void shouldSetParameterOfGenericEnumProperty() throws Exception {
+    // a property typed E extends Enum<E> resolves to a handler of Enum itself
+    new SqlSourceBuilder(new Configuration()).parse("#{status}", GenericHolder.class, new HashMap<String, Object>());
+    TypeHandler handler = new EnumTypeHandler(Enum.class);
+    handler.setParameter(ps, 1, MyEnum.TWO, null);
+    verify(ps).setString(1, "TWO");
+  }
+
+  @Test
+  public void shouldFailOnUnknownName() throws Exception {
+    when(rs.getString("column")).thenReturn("THREE");
+    try {
+      TYPE_HANDLER.getResult(rs, "column");
+      fail();
+    } catch (ResultMapException e) {
+      assertEquals("No enum constant " + MyEnum.class.getCanonicalName() + ".THREE", e.getCause().getMessage());
+    }
+  }
+
+  static class GenericHolder<E extends Enum<E>> {
+    private E status;
+
+    public E getStatus() {
+      return status;
+    }
+
+    public void setStatus(E status) {
+      this.status = status;
+    }
+  }
+
 }
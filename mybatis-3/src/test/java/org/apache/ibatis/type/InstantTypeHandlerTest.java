@@ -0,0 +1,53 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.junit.Test;
+
+public class InstantTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<Instant> TYPE_HANDLER = new InstantTypeHandler();
+  private static final Instant VALUE = Instant.ofEpochMilli(1451703845006L);
+  private static final Timestamp SQL_VALUE = Timestamp.from(VALUE);
+
+  @Test
+  public void shouldSetParameter() throws Exception {
+    TYPE_HANDLER.setParameter(ps, 1, VALUE, null);
+    verify(ps).setTimestamp(1, SQL_VALUE);
+  }
+
+  @Test
+  public void shouldGetResultFromResultSet() throws Exception {
+    when(rs.getTimestamp("column")).thenReturn(SQL_VALUE);
+    when(rs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, TYPE_HANDLER.getResult(rs, "column"));
+  }
+
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    when(cs.getTimestamp(1)).thenReturn(SQL_VALUE);
+    when(cs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, TYPE_HANDLER.getResult(cs, 1));
+  }
+
+}
@@ -19,6 +19,9 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
 import org.junit.Test;
 
 public class IntegerTypeHandlerTest extends BaseTypeHandlerTest {
@@ -45,4 +48,29 @@ public class IntegerTypeHandlerTest extends BaseTypeHandlerTest {
     assertEquals(new Integer(100), TYPE_HANDLER.getResult(cs, 1));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void shouldSetPrimitiveParameter() throws Exception {
+    ((PrimitiveTypeHandler.OfInt) TYPE_HANDLER).setInt(ps, 1, 100, null);
+    verify(ps).setInt(1, 100);
+  }
+
+  @Test
+  public void shouldGetPrimitiveResultFromResultSet() throws Exception {
+    when(rs.getInt("column")).thenReturn(100);
+    assertEquals(100, ((PrimitiveTypeHandler.OfInt) TYPE_HANDLER).getInt(rs, "column"));
+  }
+
+  @Test
+  public void shouldUseOverriddenResultInSubclass() throws Exception {
+    PrimitiveTypeHandler.OfInt handler = new IntegerTypeHandler() {
+      @Override
+      public Integer getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return rs.getInt(columnName) * 2;
+      }
+    };
+    when(rs.getInt("column")).thenReturn(100);
+    when(rs.wasNull()).thenReturn(false);
+    assertEquals(200, handler.getInt(rs, "column"));
+  }
+
+}
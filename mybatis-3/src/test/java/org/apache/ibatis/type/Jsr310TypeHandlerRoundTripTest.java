@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.junit.Test;
+
+/**
+ * Reads and writes the <code>java.time</code> types on the databases of the test suite, whose drivers either reject
+ * <code>getObject(column, type)</code> (Derby) or answer it with a <code>java.sql</code> value (HSQLDB).
+ */
+public class Jsr310TypeHandlerRoundTripTest {
+
+  private static final LocalDateTime DATE_TIME = LocalDateTime.of(2016, 1, 2, 3, 4, 5);
+  private static final LocalDate DATE = LocalDate.of(2016, 1, 2);
+  private static final LocalTime TIME = LocalTime.of(3, 4, 5);
+
+  @Test
+  public void shouldRoundTripOnDerby() throws Exception {
+    roundTrip(new UnpooledDataSource("org.apache.derby.jdbc.EmbeddedDriver", "jdbc:derby:memory:jsr310;create=true", null, null));
+  }
+
+  @Test
+  public void shouldRoundTripOnHsqldb() throws Exception {
+    roundTrip(new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:jsr310", "sa", ""));
+  }
+
+  private void roundTrip(UnpooledDataSource dataSource) throws Exception {
+    LocalDateTimeTypeHandler dateTimeHandler = new LocalDateTimeTypeHandler();
+    LocalDateTypeHandler dateHandler = new LocalDateTypeHandler();
+    LocalTimeTypeHandler timeHandler = new LocalTimeTypeHandler();
+    Connection connection = dataSource.getConnection();
+    try {
+      Statement statement = connection.createStatement();
+      statement.execute("create table jsr310 (date_time timestamp, a_date date, a_time time)");
+      statement.close();
+
+      PreparedStatement ps = connection.prepareStatement("insert into jsr310 values (?, ?, ?)");
+      dateTimeHandler.setParameter(ps, 1, DATE_TIME, JdbcType.TIMESTAMP);
+      dateHandler.setParameter(ps, 2, DATE, JdbcType.DATE);
+      timeHandler.setParameter(ps, 3, TIME, JdbcType.TIME);
+      ps.executeUpdate();
+      dateTimeHandler.setParameter(ps, 1, null, JdbcType.TIMESTAMP);
+      dateHandler.setParameter(ps, 2, null, JdbcType.DATE);
+      timeHandler.setParameter(ps, 3, null, JdbcType.TIME);
+      ps.executeUpdate();
+      ps.close();
+
+      statement = connection.createStatement();
+      ResultSet rs = statement.executeQuery("select date_time, a_date, a_time from jsr310 order by date_time");
+      try {
+        // nulls sort first on HSQLDB and last on Derby
+        int found = 0;
+        while (rs.next()) {
+          LocalDateTime dateTime = dateTimeHandler.getResult(rs, "date_time");
+          if (dateTime == null) {
+            assertEquals(null, dateHandler.getResult(rs, 2));
+            assertEquals(null, timeHandler.getResult(rs, "a_time"));
+          } else {
+            assertEquals(DATE_TIME, dateTime);
+            assertEquals(DATE, dateHandler.getResult(rs, 2));
+            assertEquals(TIME, timeHandler.getResult(rs, "a_time"));
+          }
+          found++;
+        }
+        assertEquals(2, found);
+      } finally {
+        rs.close();
+        statement.close();
+      }
+    } finally {
+      Statement statement = connection.createStatement();
+      statement.execute("drop table jsr310");
+      statement.close();
+      connection.close();
+    }
+  }
+
+}
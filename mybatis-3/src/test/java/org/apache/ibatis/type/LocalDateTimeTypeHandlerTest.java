@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.apache.ibatis.executor.result.ResultMapException;
+import org.junit.Test;
+
+public class LocalDateTimeTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<LocalDateTime> TYPE_HANDLER = new LocalDateTimeTypeHandler();
+  private static final LocalDateTime VALUE = LocalDateTime.of(2016, 1, 2, 3, 4, 5, 6000);
+  private static final Timestamp SQL_VALUE = Timestamp.valueOf(VALUE);
+
+  @Test
+  public void shouldSetParameter() throws Exception {
+    TYPE_HANDLER.setParameter(ps, 1, VALUE, null);
+    verify(ps).setTimestamp(1, SQL_VALUE);
+  }
+
+  @Test
+  public void shouldGetResultFromResultSet() throws Exception {
+    when(rs.getObject("column", LocalDateTime.class)).thenReturn(VALUE);
+    when(rs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, TYPE_HANDLER.getResult(rs, "column"));
+  }
+
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    when(cs.getObject(1, LocalDateTime.class)).thenReturn(VALUE);
+    when(cs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, TYPE_HANDLER.getResult(cs, 1));
+  }
+
+  @Test
+  public void shouldConvertWhenDriverDoesNotSupportType() throws Exception {
+    TypeHandler<LocalDateTime> handler = new LocalDateTimeTypeHandler();
+    when(rs.getObject("column", LocalDateTime.class)).thenThrow(new SQLFeatureNotSupportedException());
+    when(rs.getTimestamp("column")).thenReturn(SQL_VALUE);
+    when(rs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, handler.getResult(rs, "column"));
+    assertEquals(VALUE, handler.getResult(rs, "column"));
+    verify(rs, times(2)).getObject("column", LocalDateTime.class);
+    verify(rs, never()).getObject(1, LocalDateTime.class);
+  }
+
+  @Test
+  public void shouldConvertWhenDriverRejectsConversion() throws Exception {
+    // Derby 10.12
+    when(rs.getObject("column", LocalDateTime.class)).thenThrow(new SQLDataException("Invalid conversion"));
+    when(rs.getTimestamp("column")).thenReturn(SQL_VALUE);
+    when(rs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, TYPE_HANDLER.getResult(rs, "column"));
+  }
+
+  @Test
+  public void shouldConvertWhenDriverReturnsSqlType() throws Exception {
+    // HSQLDB 2.3
+    when((Object) rs.getObject("column", LocalDateTime.class)).thenReturn(SQL_VALUE);
+    when(rs.getTimestamp("column")).thenReturn(SQL_VALUE);
+    when(rs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, TYPE_HANDLER.getResult(rs, "column"));
+  }
+
+  @Test
+  public void shouldThrowErrorsOfTheConvertingRead() throws Exception {
+    when(rs.getObject("column", LocalDateTime.class)).thenThrow(new SQLException("Column not found"));
+    when(rs.getTimestamp("column")).thenThrow(new SQLException("Column not found"));
+    try {
+      TYPE_HANDLER.getResult(rs, "column");
+      fail();
+    } catch (ResultMapException e) {
+      assertEquals("Column not found", e.getCause().getMessage());
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+public class LocalDateTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<LocalDate> TYPE_HANDLER = new LocalDateTypeHandler();
+  private static final LocalDate VALUE = LocalDate.of(2016, 1, 2);
+  private static final Date SQL_VALUE = Date.valueOf(VALUE);
+
+  @Test
+  public void shouldSetParameter() throws Exception {
+    TYPE_HANDLER.setParameter(ps, 1, VALUE, null);
+    verify(ps).setDate(1, SQL_VALUE);
+  }
+
+  @Test
+  public void shouldGetResultFromResultSet() throws Exception {
+    when(rs.getObject("column", LocalDate.class)).thenReturn(VALUE);
+    when(rs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, TYPE_HANDLER.getResult(rs, "column"));
+  }
+
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    when(cs.getObject(1, LocalDate.class)).thenReturn(VALUE);
+    when(cs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, TYPE_HANDLER.getResult(cs, 1));
+  }
+
+  @Test
+  public void shouldConvertWhenDriverDoesNotSupportType() throws Exception {
+    TypeHandler<LocalDate> handler = new LocalDateTypeHandler();
+    when(rs.getObject("column", LocalDate.class)).thenThrow(new SQLFeatureNotSupportedException());
+    when(rs.getDate("column")).thenReturn(SQL_VALUE);
+    when(rs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, handler.getResult(rs, "column"));
+    assertEquals(VALUE, handler.getResult(rs, "column"));
+    verify(rs, times(2)).getObject("column", LocalDate.class);
+    verify(rs, never()).getObject(1, LocalDate.class);
+  }
+
+}
@@ -45,4 +45,16 @@ public class LongTypeHandlerTest extends BaseTypeHandlerTest {
     assertEquals(new Long(100l), TYPE_HANDLER.getResult(cs, 1));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void shouldSetPrimitiveParameter() throws Exception {
+    ((PrimitiveTypeHandler.OfLong) TYPE_HANDLER).setLong(ps, 1, 100L, null);
+    verify(ps).setLong(1, 100L);
+  }
+
+  @Test
+  public void shouldGetPrimitiveResultFromResultSet() throws Exception {
+    when(rs.getLong("column")).thenReturn(100L);
+    assertEquals(100L, ((PrimitiveTypeHandler.OfLong) TYPE_HANDLER).getLong(rs, "column"));
+  }
+
+}
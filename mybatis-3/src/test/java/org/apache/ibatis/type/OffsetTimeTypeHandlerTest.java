@@ -0,0 +1,83 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.Test;
+
+public class OffsetTimeTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<OffsetTime> TYPE_HANDLER = new OffsetTimeTypeHandler();
+  // java.sql.Time 是默认时区1970-01-01的时刻
+  private static final OffsetTime VALUE = OffsetTime.of(3, 4, 5, 0,
+      LocalDateTime.of(1970, 1, 1, 3, 4, 5).atZone(ZoneId.systemDefault()).getOffset());
+  private static final Time SQL_VALUE = Time.valueOf(VALUE.toLocalTime());
+
+  @Test
+  public void shouldSetParameter() throws Exception {
+    TYPE_HANDLER.setParameter(ps, 1, VALUE, null);
+    verify(ps).setTime(1, SQL_VALUE);
+  }
+
+  @Test
+  public void shouldGetResultFromResultSet() throws Exception {
+    when(rs.getObject("column", OffsetTime.class)).thenReturn(VALUE);
+    when(rs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, TYPE_HANDLER.getResult(rs, "column"));
+  }
+
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    when(cs.getObject(1, OffsetTime.class)).thenReturn(VALUE);
+    when(cs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, TYPE_HANDLER.getResult(cs, 1));
+  }
+
+  @Test
+  public void shouldConvertWhenDriverDoesNotSupportType() throws Exception {
+    TypeHandler<OffsetTime> handler = new OffsetTimeTypeHandler();
+    when(rs.getObject("column", OffsetTime.class)).thenThrow(new SQLFeatureNotSupportedException());
+    when(rs.getTime("column")).thenReturn(SQL_VALUE);
+    when(rs.wasNull()).thenReturn(false);
+    assertEquals(VALUE, handler.getResult(rs, "column"));
+    assertEquals(VALUE, handler.getResult(rs, "column"));
+    verify(rs, times(2)).getObject("column", OffsetTime.class);
+    verify(rs, never()).getObject(1, OffsetTime.class);
+  }
+
+  @Test
+  public void shouldKeepInstantOfOtherOffsets() throws Exception {
+    OffsetTime value = OffsetTime.of(3, 4, 5, 0, ZoneOffset.ofHours(9));
+    TYPE_HANDLER.setParameter(ps, 1, value, null);
+    LocalTime local = LocalDateTime.of(1970, 1, 1, 3, 4, 5).atOffset(ZoneOffset.ofHours(9))
+        .atZoneSameInstant(ZoneId.systemDefault()).toLocalTime();
+    verify(ps).setTime(1, Time.valueOf(local));
+  }
+
+}
@@ -19,12 +19,15 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.net.URI;
 import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.apache.ibatis.domain.misc.RichType;
@@ -130,5 +133,39 @@ public class TypeHandlerRegistryTest {
     assertSame(IntegerTypeHandler.class, typeHandlerRegistry.getTypeHandler(Integer.class).getClass());
     typeHandlerRegistry.register(Integer.class, IntegerTypeHandler.class);
   }
-  
+
+  @Test
+  public void shouldResolveAgainAfterRegistration() {
+    assertFalse(typeHandlerRegistry.hasTypeHandler(RichType.class));
+    typeHandlerRegistry.register(RichType.class, ObjectTypeHandler.class);
+    assertTrue(typeHandlerRegistry.hasTypeHandler(RichType.class));
+    assertSame(ObjectTypeHandler.class, typeHandlerRegistry.getTypeHandler(RichType.class, JdbcType.VARCHAR).getClass());
+  }
+
+  @Test
+  public void shouldCacheEnumTypeHandlers() {
+    TypeHandler<JdbcType> handler = typeHandlerRegistry.getTypeHandler(JdbcType.class);
+    assertSame(EnumTypeHandler.class, handler.getClass());
+    assertSame(handler, typeHandlerRegistry.getTypeHandler(JdbcType.class));
+  }
+
+  @Test
+  public void shouldRejectRegistrationWhenFrozen() {
+    typeHandlerRegistry.freeze();
+    assertTrue(typeHandlerRegistry.isFrozen());
+    assertSame(IntegerTypeHandler.class, typeHandlerRegistry.getTypeHandler(int.class, JdbcType.NUMERIC).getClass());
+    try {
+      typeHandlerRegistry.register(RichType.class, ObjectTypeHandler.class);
+      fail("Should have thrown TypeException");
+    } catch (TypeException e) {
+      assertFalse(typeHandlerRegistry.hasTypeHandler(RichType.class));
+    }
+  }
+
+  @Test
+  public void shouldRegisterDateAndTimeHandlers() {
+    assertSame(LocalDateTimeTypeHandler.class, typeHandlerRegistry.getTypeHandler(LocalDateTime.class).getClass());
+    assertSame(InstantTypeHandler.class, typeHandlerRegistry.getTypeHandler(Instant.class).getClass());
+  }
+
 }